@@ -0,0 +1,42 @@
+package com.mn.im.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: BenchmarkMain
+ * @Description: 基准测试入口,参数与JMH命令行一致
+ *  未指定 -rf/-rff 时结果默认输出为 jmh-result-时间.json,便于保存并对比多次运行
+ *  例: java -jar target/benchmarks.jar MessageCodec -f 1 -wi 3 -i 5
+ * @date 2026-10-17
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        if (cli.shouldHelp()) {
+            cli.showHelp();
+            return;
+        }
+        if (cli.shouldList()) {
+            new Runner(cli).list();
+            return;
+        }
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(cli);
+        if (!cli.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        if (!cli.getResult().hasValue()) {
+            builder.result("jmh-result-" + new SimpleDateFormat("yyyyMMddHHmmss").format(new Date()) + ".json");
+        }
+        new Runner(builder.build()).run();
+    }
+
+}
@@ -0,0 +1,112 @@
+package com.mn.im.benchmarks;
+
+import com.corundumstudio.socketio.protocol.JacksonJsonSupport;
+import com.corundumstudio.socketio.protocol.JsonSupport;
+import com.mn.im.socket.constant.MessageTypes;
+import com.mn.im.socket.constant.SocketEvents;
+import com.mn.im.socket.netty.EncodedPayload;
+import com.mn.im.socket.netty.Message;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.Unpooled;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: BroadcastEncodingBenchmark
+ * @Description: 一条消息推送给多个会话时的编码开销
+ *  object: 每个会话都由 netty-socketio 的 Jackson 序列化消息对象;
+ *  encoded: 消息先编码一次为 EncodedPayload,每个会话只写出已编码的json
+ * @date 2026-10-17
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BroadcastEncodingBenchmark {
+
+    /**
+     * @Fields  : 接收会话数
+     * @author qiaomengnan
+     */
+    @Param({"1", "100", "1000"})
+    private int sessions;
+
+    private JsonSupport jsonSupport;
+
+    private Message message;
+
+    private ByteBuf buffer;
+
+    @Setup
+    public void setup() {
+        jsonSupport = new JacksonJsonSupport(EncodedPayload.module());
+        message = new Message();
+        message.setType(MessageTypes.CHAT);
+        message.setMsgId("5f0c8a3e2b7d4e1f9a6c3b8d7e2f1a0c");
+        message.setConversationId("s_1000001_1000002");
+        message.setSeq(123456L);
+        message.setFromUserId("1000001");
+        message.setToUserId("1000002");
+        message.setSendTime(1602900000000L);
+        message.setMsg("hello, this is a broadcast message used for encoding benchmarks");
+        buffer = Unpooled.buffer(4096);
+    }
+
+    @TearDown
+    public void tearDown() {
+        buffer.release();
+    }
+
+    @Benchmark
+    public int object() throws IOException {
+        int bytes = 0;
+        for (int i = 0; i < sessions; i++) {
+            bytes += write(message);
+        }
+        return bytes;
+    }
+
+    @Benchmark
+    public int encoded() throws IOException {
+        EncodedPayload payload = EncodedPayload.of(message);
+        int bytes = 0;
+        for (int i = 0; i < sessions; i++) {
+            bytes += write(payload);
+        }
+        return bytes;
+    }
+
+    /**
+     * @Title:
+     * @Description:   与 netty-socketio 的 PacketEncoder 一致,写出 [事件名, 数据]
+     * @param data
+     * @return 写出的字节数
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 22:05:12
+     */
+    private int write(Object data) throws IOException {
+        buffer.clear();
+        jsonSupport.writeValue(new ByteBufOutputStream(buffer), Arrays.asList(SocketEvents.USER_MSG, data));
+        return buffer.readableBytes();
+    }
+
+}
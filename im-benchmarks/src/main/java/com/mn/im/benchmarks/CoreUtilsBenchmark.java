@@ -0,0 +1,67 @@
+package com.mn.im.benchmarks;
+
+import com.mn.im.core.common.utils.DateUtils;
+import com.mn.im.core.common.utils.JsonUtils;
+import com.mn.im.core.common.utils.ReflectUtils;
+import com.mn.im.core.entity.Member;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: CoreUtilsBenchmark
+ * @Description: 公共工具类中请求路径上常用的方法
+ * @date 2026-10-17
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CoreUtilsBenchmark {
+
+    private Member member;
+
+    private Date date;
+
+    @Setup
+    public void setup() {
+        member = new Member();
+        member.setId("1000001");
+        member.setNickName("seal");
+        member.setMobile("13800000000");
+        member.setImNo("seal_1000001");
+        member.setMemberNo(1000001L);
+        member.setHeadImgUrl("https://example.com/head/1000001.png");
+        date = new Date(1602900000000L);
+    }
+
+    @Benchmark
+    public Map<String, String> objectToMap() {
+        return JsonUtils.objectToMap(member);
+    }
+
+    @Benchmark
+    public Object getFieldValue() {
+        return ReflectUtils.getFieldValue("mobile", member);
+    }
+
+    @Benchmark
+    public String dateToStr() {
+        return DateUtils.dateToStr(date, DateUtils.formatStr_yyyyMMddHHmmss);
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.mn.im.benchmarks;
+
+import com.alibaba.fastjson.JSON;
+import com.mn.im.socket.codec.MessageCodec;
+import com.mn.im.socket.constant.MessageTypes;
+import com.mn.im.socket.netty.Message;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: MessageCodecBenchmark
+ * @Description: 聊天消息 json 与二进制编解码对比
+ * @date 2026-10-17
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessageCodecBenchmark {
+
+    /**
+     * @Fields  : 消息内容长度
+     * @author qiaomengnan
+     */
+    @Param({"32", "512"})
+    private int msgLength;
+
+    private Message message;
+
+    private String json;
+
+    private byte[] jsonBytes;
+
+    private byte[] binary;
+
+    @Setup
+    public void setup() {
+        StringBuilder msg = new StringBuilder(msgLength);
+        for (int i = 0; i < msgLength; i++) {
+            msg.append((char) ('a' + i % 26));
+        }
+        message = new Message();
+        message.setType(MessageTypes.CHAT);
+        message.setMsgId("5f0c8a3e2b7d4e1f9a6c3b8d7e2f1a0c");
+        message.setClientMsgId("c-1602900000000-42");
+        message.setConversationId("s_1000001_1000002");
+        message.setSeq(123456L);
+        message.setFromUserId("1000001");
+        message.setToUserId("1000002");
+        message.setSendTime(1602900000000L);
+        message.setMsg(msg.toString());
+        json = JSON.toJSONString(message);
+        jsonBytes = json.getBytes(StandardCharsets.UTF_8);
+        binary = MessageCodec.encode(message);
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() {
+        return JSON.toJSONString(message).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Message jsonDecode() {
+        return JSON.parseObject(new String(jsonBytes, StandardCharsets.UTF_8), Message.class);
+    }
+
+    @Benchmark
+    public byte[] binaryEncode() {
+        return MessageCodec.encode(message);
+    }
+
+    @Benchmark
+    public Message binaryDecode() {
+        return MessageCodec.decode(binary);
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.mn.im.socket.session;
+
+import com.corundumstudio.socketio.SocketIOClient;
+import io.netty.util.concurrent.ImmediateEventExecutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: SessionRegistryBenchmark
+ * @Description: 会话注册表在并发下的查询性能
+ *  lookup: 多线程只读查询;churn: 3个线程查询的同时1个线程不断上下线
+ *  放在 session 包下是为了直接构造 OutboundQueue
+ * @date 2026-10-17
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SessionRegistryBenchmark {
+
+    /**
+     * @Fields  : 在线用户数
+     * @author qiaomengnan
+     */
+    @Param({"10000", "100000"})
+    private int users;
+
+    private SessionRegistry registry;
+
+    private String[] userIds;
+
+    /**
+     * @Fields  : 上下线使用的会话,与已注册的会话属于同一批用户
+     * @author qiaomengnan
+     */
+    private SocketSession[] churnSessions;
+
+    @Setup
+    public void setup() {
+        registry = new SessionRegistry();
+        userIds = new String[users];
+        churnSessions = new SocketSession[users];
+        for (int i = 0; i < users; i++) {
+            userIds[i] = String.valueOf(1000000 + i);
+            registry.register(session(userIds[i]));
+            churnSessions[i] = session(userIds[i]);
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public List<SocketSession> lookup() {
+        return registry.getByUserId(userIds[ThreadLocalRandom.current().nextInt(users)]);
+    }
+
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(3)
+    public List<SocketSession> churnLookup() {
+        return registry.getByUserId(userIds[ThreadLocalRandom.current().nextInt(users)]);
+    }
+
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(1)
+    public boolean churnRegister() {
+        SocketSession session = churnSessions[ThreadLocalRandom.current().nextInt(users)];
+        registry.register(session);
+        return registry.unregister(session);
+    }
+
+    private static SocketSession session(String userId) {
+        UUID sessionId = UUID.randomUUID();
+        // 只需要会话ID,其它方法不会被调用
+        SocketIOClient client = (SocketIOClient) Proxy.newProxyInstance(SocketIOClient.class.getClassLoader(),
+                new Class[]{SocketIOClient.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getSessionId":
+                            return sessionId;
+                        case "hashCode":
+                            return sessionId.hashCode();
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return sessionId.toString();
+                        default:
+                            return null;
+                    }
+                });
+        OutboundQueue outbound = new OutboundQueue(ImmediateEventExecutor.INSTANCE, null, null, 1, 0, 1);
+        return new SocketSession(client, userId, null, "pc", false, outbound);
+    }
+
+}
@@ -1,8 +1,10 @@
 package com.mn.im.core.base;
 
 import com.github.pagehelper.ISelect;
+import com.github.pagehelper.Page;
 import com.github.pagehelper.PageHelper;
 import com.github.pagehelper.PageInfo;
+import com.mn.im.core.common.enums.sql.CountModes;
 import com.mn.im.core.common.enums.sql.DeleteFlags;
 import com.mn.im.core.common.enums.sql.PageFlags;
 import com.mn.im.core.common.enums.sql.TotalFlags;
@@ -15,7 +17,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import tk.mybatis.mapper.entity.EntityColumn;
 import tk.mybatis.mapper.entity.Example;
-import tk.mybatis.mapper.mapperhelper.EntityHelper;
 
 import java.lang.reflect.Array;
 import java.lang.reflect.Method;
@@ -40,6 +41,9 @@ public abstract class AbstractBaseRepository<T extends BaseDao, K extends BaseEn
 	@Autowired
 	protected JdbcTemplateRepository jdbcTemplateRepository;
 
+	@Autowired
+	protected PageCountRepository pageCountRepository;
+
 	/**
 	 * @Fields : 分页默认显示条数
 	 */
@@ -72,6 +76,32 @@ public abstract class AbstractBaseRepository<T extends BaseDao, K extends BaseEn
 		return jdbcTemplateRepository.insertList(entityList);
 	}
 
+	/**
+	 * @Title:
+	 * @Description:   批量录入数据,每条sql录入多行,适合大批量写入
+	 * @param entityList
+	 * @return
+	 * @throws
+	 * @author qiaomengnan
+	 * @date 2026/10/17 23:50:12
+	 */
+	public int insertValuesByJdbcTemplateDataList(List<K> entityList){
+		return jdbcTemplateRepository.insertValuesList(entityList,false);
+	}
+
+	/**
+	 * @Title:
+	 * @Description:   批量录入数据,主键或唯一键已存在时更新该行(不更新创建时间和创建人)
+	 * @param entityList
+	 * @return 数据库返回的影响行数,新增的行计1,更新的行计2
+	 * @throws
+	 * @author qiaomengnan
+	 * @date 2026/10/17 23:50:40
+	 */
+	public int insertOrUpdateByJdbcTemplateDataList(List<K> entityList){
+		return jdbcTemplateRepository.insertValuesList(entityList,true);
+	}
+
 	/**
 	 * @Title:
 	 * @Description:   录入数据，只录入实体中属性不为null数据
@@ -111,7 +141,7 @@ public abstract class AbstractBaseRepository<T extends BaseDao, K extends BaseEn
 		if(!exclusive)
 			return updateByPrimaryKeyData(entity);
 		Class clazz = (Class<K>) ((ParameterizedType) getClass().getGenericSuperclass()).getActualTypeArguments()[1];
-		List<EntityColumn> pkColumnList = new ArrayList<>(EntityHelper.getPKColumns(clazz));
+		List<EntityColumn> pkColumnList = EntityMetadata.of(clazz).getPkColumns();
 		if(ArrayUtils.isNullOrLengthZero(pkColumnList))
 			throw new ServiceException(MarkedWordsConstants.SQL_GET_ID_ERROR_MESSAGE);
 		else{
@@ -174,7 +204,7 @@ public abstract class AbstractBaseRepository<T extends BaseDao, K extends BaseEn
 		if(!exclusive)
 			return updateByPrimaryKeySelectiveData(entity);
 		Class clazz = (Class<K>) ((ParameterizedType) getClass().getGenericSuperclass()).getActualTypeArguments()[1];
-		List<EntityColumn> pkColumnList = new ArrayList<>(EntityHelper.getPKColumns(clazz));
+		List<EntityColumn> pkColumnList = EntityMetadata.of(clazz).getPkColumns();
 		if(ArrayUtils.isNullOrLengthZero(pkColumnList))
 			throw new ServiceException(MarkedWordsConstants.SQL_GET_ID_ERROR_MESSAGE);
 		else{
@@ -330,7 +360,7 @@ public abstract class AbstractBaseRepository<T extends BaseDao, K extends BaseEn
 	 */
 	public int deletePhysicsEntityList(List ids){
 		Class clazz = (Class<K>) ((ParameterizedType) getClass().getGenericSuperclass()).getActualTypeArguments()[1];
-		List<EntityColumn> pkColumnList = new ArrayList<>(EntityHelper.getPKColumns(clazz));
+		List<EntityColumn> pkColumnList = EntityMetadata.of(clazz).getPkColumns();
 		if(ArrayUtils.isNullOrLengthZero(pkColumnList) || pkColumnList.size() != 1)
 			throw new ServiceException(MarkedWordsConstants.SQL_ID_ONLY_ERROR_MESSAGE);
 		Example example = SqlUtil.newExample(clazz);
@@ -381,7 +411,7 @@ public abstract class AbstractBaseRepository<T extends BaseDao, K extends BaseEn
 	public int deleteDataByIds(List ids,K entity){
 		if(ArrayUtils.isNotNullAndLengthNotZero(ids)) {
 			Class clazz = (Class<K>) ((ParameterizedType) getClass().getGenericSuperclass()).getActualTypeArguments()[1];
-			List<EntityColumn> pkColumnList = new ArrayList<>(EntityHelper.getPKColumns(clazz));
+			List<EntityColumn> pkColumnList = EntityMetadata.of(clazz).getPkColumns();
 			if (ArrayUtils.isNullOrLengthZero(pkColumnList) || pkColumnList.size() != 1)
 				throw new ServiceException(MarkedWordsConstants.SQL_ID_ONLY_ERROR_MESSAGE);
 			return deleteDataByIds(ids, entity, pkColumnList.get(0).getProperty());
@@ -532,15 +562,12 @@ public abstract class AbstractBaseRepository<T extends BaseDao, K extends BaseEn
 				setExcelDataMaxParam(pageQuery);
 				setClass(pageInfoExtend);
 			}
-			PageInfo<K> pageInfo = PageHelper
-                    .startPage(pageQuery.getCurrentPage(),pageQuery.getPageSize()==null?pageSize:pageQuery.getPageSize())
-					.doSelectPageInfo(new ISelect() {
-						@Override
-						public void doSelect() {
-							baseDao.selectByExample(example);
-						}
-					});
-			setPageInfoExtend(pageInfo,pageInfoExtend);
+			selectPage(new ISelect() {
+				@Override
+				public void doSelect() {
+					baseDao.selectByExample(example);
+				}
+			},"selectByExample",example,pageQuery,pageInfoExtend);
 		}else{
 			//不分页则全部查询
 			List<K> results = baseDao.selectByExample(example);
@@ -589,64 +616,155 @@ public abstract class AbstractBaseRepository<T extends BaseDao, K extends BaseEn
 	 */
 	public PageInfoExtend selectListVoByPage(String methodName, Object param,PageQuery pageQuery){
 		PageInfoExtend pageInfoExtend = new PageInfoExtend();
-		//传递的标识是否是分页 或者 限制了excel的最大数量
-		if(pageQuery.getPageFlag() == null || PageFlags.PAGE.getFlag().equals(pageQuery.getPageFlag()) || pageQuery.getExcelDataMax() != null){
+		//游标分页,不受页数影响,也不查询总数
+		if(PageFlags.SEEK.getFlag().equals(pageQuery.getPageFlag()) && pageQuery.getExcelDataMax() == null){
+			selectListVoBySeek(methodName,param,pageQuery,pageInfoExtend);
+		}else if(pageQuery.getPageFlag() == null || PageFlags.PAGE.getFlag().equals(pageQuery.getPageFlag()) || pageQuery.getExcelDataMax() != null){
 			//如果限制了excel的最大数量则做赋值处理
 			if(pageQuery.getExcelDataMax() != null) {
 				setExcelDataMaxParam(pageQuery);
 				setClass(pageInfoExtend,getBaseDaoMethodParamClassName(methodName,param));
 			}
-			PageInfo pageInfo = PageHelper.startPage(pageQuery.getCurrentPage(),pageQuery.getPageSize())
-					.doSelectPageInfo(new ISelect() {
-						@Override
-						public void doSelect() {
-							try {
-								Method method = getMethod(methodName,param);
-								method.invoke(baseDao, param);
-							}catch (Exception ex){
-                                log.error(ex.getMessage());
-								ex.printStackTrace();
-								throw  new ServiceException("查询失败");
-							}
-						}
-					});
-			setPageInfoExtend(pageInfo,pageInfoExtend);
 			//是否有合计行
 			if(TotalFlags.TOTAL.getFlag().equals(pageQuery.getTotalFlag())) {
-				try {
-					Method methodAll = baseDao.getClass().getDeclaredMethod(methodName, param.getClass());
-					Object resultAll = methodAll.invoke(baseDao, param);
-					if (resultAll != null) {
-						List results = (List) resultAll;
-						pageInfoExtend.setAll(results);
+				//合计行需要全部数据,只查询一次,当前页和总数从全部数据中截取
+				List results = selectListVo(methodName,param);
+				int currentPage = pageQuery.getCurrentPage() == null ? 1 : pageQuery.getCurrentPage();
+				int size = pageQuery.getPageSize() == null ? pageSize : pageQuery.getPageSize();
+				Page page = new Page(currentPage,size);
+				page.setTotal(results.size());
+				int fromIndex = Math.min(Math.max(page.getStartRow(),0),results.size());
+				page.addAll(results.subList(fromIndex,Math.min(fromIndex + size,results.size())));
+				setPageInfoExtend(new PageInfo(page),pageInfoExtend);
+				pageInfoExtend.setAll(results);
+			}else{
+				selectPage(new ISelect() {
+					@Override
+					public void doSelect() {
+						selectListVo(methodName,param);
 					}
-				} catch (Exception ex) {
-					log.error(ex.getMessage());
-					ex.printStackTrace();
-					throw new ServiceException("查询失败");
-				}
+				},methodName,param,pageQuery,pageInfoExtend);
 			}
 
 		}else{
 			//不分页则全部查询
-			try {
-				Method method = baseDao.getClass().getDeclaredMethod(methodName, param.getClass());
-				Object result = method.invoke(baseDao, param);
-				if(result != null) {
-					List results = (List) result;
-					setPageInfoExtend(results,pageInfoExtend);
-				}
-				setClass(pageInfoExtend,getBaseDaoMethodParamClassName(methodName,param));
-			}catch (Exception ex){
-                log.error(ex.getMessage());
-				ex.printStackTrace();
-				throw  new ServiceException("查询失败");
-			}
+			setPageInfoExtend(selectListVo(methodName,param),pageInfoExtend);
+			setClass(pageInfoExtend,getBaseDaoMethodParamClassName(methodName,param));
 		}
 		pageInfoExtend.setDraw(pageQuery.getDraw());
 		return pageInfoExtend;
 	}
 
+	/**
+	 * @Title:
+	 * @Description: 调用baseDao的查询方法
+	 * @param methodName
+	 * @param param
+	 * @return
+	 * @throws
+	 * @author qiaomengnan
+	 * @date 2026/10/18 00:30:12
+	 */
+	private List selectListVo(String methodName, Object param){
+		try {
+			Method method = getMethod(methodName,param);
+			Object result = method.invoke(baseDao, param);
+			return result == null ? new ArrayList() : (List) result;
+		}catch (Exception ex){
+			log.error(ex.getMessage());
+			ex.printStackTrace();
+			throw  new ServiceException("查询失败");
+		}
+	}
+
+	/**
+	 * @Title:
+	 * @Description: 按 countMode 分页查询
+	 *  精确:PageHelper分页并count;不查询总数:多查一行判断是否有下一页,总数为-1;
+	 *  估算:执行计划的预估行数;缓存:redis中缓存的精确总数,没有缓存时count后写入缓存。
+	 *  估算和缓存的总数在查询到最后一页时按实际行数修正,估算失败时退回精确count
+	 * @param select
+	 * @param methodName baseDao的查询方法,用于估算和缓存总数
+	 * @param param
+	 * @param pageQuery
+	 * @param pageInfoExtend
+	 * @return
+	 * @throws
+	 * @author qiaomengnan
+	 * @date 2026/10/18 00:31:40
+	 */
+	private void selectPage(ISelect select, String methodName, Object param, PageQuery pageQuery, PageInfoExtend pageInfoExtend){
+		int currentPage = pageQuery.getCurrentPage() == null ? 1 : pageQuery.getCurrentPage();
+		int size = pageQuery.getPageSize() == null ? pageSize : pageQuery.getPageSize();
+		String countMode = pageQuery.getCountMode();
+		boolean noCount = CountModes.NONE.getFlag().equals(countMode);
+		Long total = null;
+		if(CountModes.APPROXIMATE.getFlag().equals(countMode))
+			total = pageCountRepository.explainCount(baseDao,methodName,param);
+		else if(CountModes.CACHED.getFlag().equals(countMode))
+			total = pageCountRepository.getCachedCount(baseDao,methodName,param);
+		if(total == null && !noCount){
+			PageInfo pageInfo = PageHelper.startPage(currentPage,size).doSelectPageInfo(select);
+			setPageInfoExtend(pageInfo,pageInfoExtend);
+			if(CountModes.CACHED.getFlag().equals(countMode))
+				pageCountRepository.cacheCount(baseDao,methodName,param,pageInfo.getTotal());
+			return;
+		}
+		int offset = (currentPage - 1) * size;
+		List results = PageHelper.offsetPage(offset,size + 1,false).doSelectPage(select);
+		boolean hasNextPage = results.size() > size;
+		List data = new ArrayList(hasNextPage ? results.subList(0,size) : results);
+		boolean approximate = CountModes.APPROXIMATE.getFlag().equals(countMode);
+		if(total != null){
+			if(hasNextPage) {
+				total = Math.max(total, offset + size + 1L);
+			} else if(!data.isEmpty() || offset == 0) {
+				total = (long) (offset + data.size());
+				approximate = false;
+			}
+		}
+		setPageInfoExtend(data,currentPage,size,hasNextPage,total == null ? -1L : total,pageInfoExtend);
+		if(total != null)
+			pageInfoExtend.setApproximate(approximate);
+	}
+
+	/**
+	 * @Title:
+	 * @Description: 游标分页,按游标中上一页最后一行的排序值和主键定位,多查一行判断是否有下一页
+	 *  查询方法的sql需按 seekProperty 和主键倒序排列,并在 seekId 不为空时加上
+	 *  (排序列 < seekValue or (排序列 = seekValue and 主键 < seekId)) 条件;
+	 *  带游标查询时sql中没有使用 seekValue 和 seekId 的直接报错,否则每页都返回第一页,调用方会无限翻页
+	 * @param methodName
+	 * @param param
+	 * @param pageQuery
+	 * @param pageInfoExtend
+	 * @return
+	 * @throws ServiceException 游标无效或查询方法不支持游标分页
+	 * @author qiaomengnan
+	 * @date 2026/10/18 00:05:36
+	 */
+	private void selectListVoBySeek(String methodName, Object param, PageQuery pageQuery, PageInfoExtend pageInfoExtend){
+		PageCursorUtils.decode(pageQuery);
+		if(pageQuery.getSeekId() != null && !pageCountRepository.referencesAll(baseDao,methodName,param,"seekValue","seekId"))
+			throw new ServiceException("查询方法未使用游标条件(seekValue、seekId),不支持游标分页:" + methodName);
+		int size = pageQuery.getPageSize() == null ? pageSize : pageQuery.getPageSize();
+		List results = PageHelper.offsetPage(0,size + 1,false)
+				.doSelectPage(new ISelect() {
+					@Override
+					public void doSelect() {
+						selectListVo(methodName,param);
+					}
+				});
+		boolean hasNextPage = results.size() > size;
+		List data = new ArrayList(hasNextPage ? results.subList(0,size) : results);
+		pageInfoExtend.setData(data);
+		pageInfoExtend.setPageSize(size);
+		pageInfoExtend.setSize(data.size());
+		pageInfoExtend.setHasNextPage(hasNextPage);
+		if(hasNextPage)
+			pageInfoExtend.setNextCursor(PageCursorUtils.encode(data.get(data.size() - 1),pageQuery.getSeekProperty()));
+	}
+
 	/**
 	 * @Title:
 	 * @Description: 如果传递过来的excel最大数量不为空，则判定是生成excel，并限制查询的最大数量
@@ -737,6 +855,35 @@ public abstract class AbstractBaseRepository<T extends BaseDao, K extends BaseEn
 		}
 	}
 
+	/**
+	 * @Title:
+	 * @Description: 封装未执行count的分页参数,总数为-1时页数按是否有下一页计算
+	 * @param data
+	 * @param pageNum
+	 * @param size
+	 * @param hasNextPage
+	 * @param total
+	 * @param pageInfoExtend
+	 * @return
+	 * @throws
+	 * @author qiaomengnan
+	 * @date 2026/10/18 00:33:05
+	 */
+	private void setPageInfoExtend(List data, int pageNum, int size, boolean hasNextPage, long total, PageInfoExtend pageInfoExtend){
+		pageInfoExtend.setData(data);
+		pageInfoExtend.setRecordsTotal(total);
+		pageInfoExtend.setRecordsFiltered(total);
+		pageInfoExtend.setPageNum(pageNum);
+		pageInfoExtend.setPageSize(size);
+		pageInfoExtend.setSize(data.size());
+		pageInfoExtend.setTotal(total);
+		pageInfoExtend.setPages(total < 0 ? (hasNextPage ? pageNum + 1 : pageNum) : (int) ((total + size - 1) / size));
+		pageInfoExtend.setHasPreviousPage(pageNum > 1);
+		pageInfoExtend.setHasNextPage(hasNextPage);
+		pageInfoExtend.setIsFirstPage(pageNum == 1);
+		pageInfoExtend.setIsLastPage(!hasNextPage);
+	}
+
 	private void setClass(PageInfoExtend pageInfoExtend, Class clazz){
 		pageInfoExtend.setClazz(clazz.toString().replace("class ",""));
 	}
@@ -781,9 +928,10 @@ public abstract class AbstractBaseRepository<T extends BaseDao, K extends BaseEn
 
 	private void setIdValue(Example example, List<EntityColumn> pkColumnList,K entity, Class clazz){
 		Example.Criteria criteria = example.createCriteria();
+		EntityMetadata metadata = EntityMetadata.of(clazz);
 		for(EntityColumn entityColumn : pkColumnList){
 			try {
-				criteria.andEqualTo(entityColumn.getProperty(), ReflectUtils.getFieldValue(entityColumn.getProperty(),entity,clazz));
+				criteria.andEqualTo(entityColumn.getProperty(), metadata.get(entityColumn,entity));
 			} catch (Exception ex) {
 				log.error(ex.getMessage());
 				ex.printStackTrace();
@@ -815,7 +963,7 @@ public abstract class AbstractBaseRepository<T extends BaseDao, K extends BaseEn
 		List<Object> deleteIdList = new ArrayList<>();
 		if(ArrayUtils.isNotNullAndLengthNotZero(dataList)) {
 			for (K data : dataList) {
-				Object pkValue = ReflectUtils.getFieldValue(pk, data);
+				Object pkValue = EntityMetadata.of(data.getClass()).get(pk, data);
 				if (StringUtils.isTrimBlank(pkValue)) {
 					saveList.add(data);
 				} else {
@@ -826,7 +974,7 @@ public abstract class AbstractBaseRepository<T extends BaseDao, K extends BaseEn
 		}
 		if(ArrayUtils.isNotNullAndLengthNotZero(existDataList)) {
 			for (K data : existDataList) {
-				Object pkValue = ReflectUtils.getFieldValue(pk, data);
+				Object pkValue = EntityMetadata.of(data.getClass()).get(pk, data);
 				if (!dataIdList.contains(pkValue)) {
 					deleteIdList.add(pkValue);
 				}
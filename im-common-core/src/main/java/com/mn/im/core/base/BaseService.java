@@ -4,12 +4,9 @@ import com.mn.im.core.common.exception.ServiceException;
 import com.mn.im.core.common.utils.ArrayUtils;
 import com.mn.im.core.common.utils.PageInfoExtend;
 import com.mn.im.core.common.utils.PageQuery;
-import com.mn.im.core.common.utils.ReflectUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.transaction.annotation.Transactional;
-import tk.mybatis.mapper.entity.EntityColumn;
-import tk.mybatis.mapper.mapperhelper.EntityHelper;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -153,11 +150,11 @@ public abstract class BaseService<T extends AbstractBaseRepository, K extends Ba
             BaseEntity baseEntity = null;
             for (V v : dataList) {
                 baseEntity = v.getEntity();
-                List<EntityColumn> pkColumnList = new ArrayList<>(EntityHelper.getPKColumns(baseEntity.getClass()));
-                if(pkColumnList == null || pkColumnList.size() != 1) {
+                EntityMetadata metadata = EntityMetadata.of(baseEntity.getClass());
+                if(metadata.getPkColumns().size() != 1) {
                     throw new ServiceException("ID信息不合法");
                 }
-                ids.add(ReflectUtils.getFieldValue(pkColumnList.get(0).getProperty(),baseEntity));
+                ids.add(metadata.getId(baseEntity));
             }
             try {
                 return baseRepository.deleteDataByIds(ids,baseEntity.getClass().newInstance());
@@ -0,0 +1,398 @@
+package com.mn.im.core.base;
+
+import com.mn.im.core.common.exception.ServiceException;
+import com.mn.im.core.common.utils.ReflectUtils;
+import com.mn.im.core.common.utils.SqlUtil;
+import lombok.AccessLevel;
+import lombok.Getter;
+import tk.mybatis.mapper.entity.EntityColumn;
+import tk.mybatis.mapper.mapperhelper.EntityHelper;
+import tk.mybatis.mapper.mapperhelper.SqlHelper;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: EntityMetadata
+ * @Description: 实体类的表结构元数据,每个实体类只解析一次
+ *  包含列顺序、主键、录入sql、按更新列缓存的更新sql,以及属性的MethodHandle读写方法,
+ *  批量录入、批量更新和按主键操作共用,不再每次调用都查询EntityHelper和反射
+ * @date 2026-10-17
+ */
+@Getter
+public class EntityMetadata {
+
+    private static final Map<Class<?>, EntityMetadata> CACHE = new ConcurrentHashMap<>();
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Class<?> entityClass;
+
+    private final String tableName;
+
+    /**
+     * @Fields  : 全部列,顺序与EntityHelper一致
+     * @author qiaomengnan
+     */
+    private final List<EntityColumn> columns;
+
+    private final List<EntityColumn> pkColumns;
+
+    /**
+     * @Fields  : 主键以外的列
+     * @author qiaomengnan
+     */
+    private final List<EntityColumn> updateColumns;
+
+    /**
+     * @Fields  : 按columns顺序录入全部列的预编译sql
+     * @author qiaomengnan
+     */
+    private final String insertSql;
+
+    /**
+     * @Fields  : 多行录入sql的 INSERT INTO table ( 列 ) VALUES 部分
+     * @author qiaomengnan
+     */
+    @Getter(AccessLevel.NONE)
+    private final String insertPrefix;
+
+    /**
+     * @Fields  : 一行的占位符 ( ?, ? )
+     * @author qiaomengnan
+     */
+    @Getter(AccessLevel.NONE)
+    private final String valuesGroup;
+
+    /**
+     * @Fields  : 主键或唯一键冲突时更新的部分,不覆盖创建时间和创建人
+     * @author qiaomengnan
+     */
+    @Getter(AccessLevel.NONE)
+    private final String upsertSuffix;
+
+    /**
+     * @Fields  : 属性名 -> 读写方法,包含父类属性
+     * @author qiaomengnan
+     */
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Accessor> accessors;
+
+    /**
+     * @Fields  : 实际更新的列(排他时多一位) -> 更新sql
+     * @author qiaomengnan
+     */
+    @Getter(AccessLevel.NONE)
+    private final Map<BitSet, String> updateSqls = new ConcurrentHashMap<>();
+
+    private EntityMetadata(Class<?> entityClass) {
+        this.entityClass = entityClass;
+        this.tableName = EntityHelper.getEntityTable(entityClass).getName();
+        this.columns = Collections.unmodifiableList(new ArrayList<>(EntityHelper.getColumns(entityClass)));
+        this.pkColumns = Collections.unmodifiableList(new ArrayList<>(EntityHelper.getPKColumns(entityClass)));
+        List<EntityColumn> updateColumns = new ArrayList<>();
+        for (EntityColumn column : columns) {
+            if (!pkColumns.contains(column)) {
+                updateColumns.add(column);
+            }
+        }
+        this.updateColumns = Collections.unmodifiableList(updateColumns);
+        this.insertPrefix = insertPrefix();
+        this.valuesGroup = valuesGroup();
+        this.insertSql = insertPrefix + valuesGroup;
+        this.upsertSuffix = upsertSuffix();
+        this.accessors = accessors(entityClass);
+    }
+
+    /**
+     * @Title:
+     * @Description:   获取实体类的元数据,首次调用时解析
+     * @param entityClass
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 23:05:12
+     */
+    public static EntityMetadata of(Class<?> entityClass) {
+        EntityMetadata metadata = CACHE.get(entityClass);
+        if (metadata == null) {
+            metadata = CACHE.computeIfAbsent(entityClass, EntityMetadata::new);
+        }
+        return metadata;
+    }
+
+    /**
+     * @Title:
+     * @Description:   唯一的主键列,主键不是一列时抛出异常
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 23:06:20
+     */
+    public EntityColumn getPkColumn() {
+        if (pkColumns.size() != 1) {
+            throw new ServiceException(MarkedWordsConstants.SQL_ID_ONLY_ERROR_MESSAGE);
+        }
+        return pkColumns.get(0);
+    }
+
+    /**
+     * @Title:
+     * @Description:   读取唯一主键的值
+     * @param entity
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 23:06:45
+     */
+    public Object getId(Object entity) {
+        return get(getPkColumn(), entity);
+    }
+
+    public Object get(EntityColumn column, Object entity) {
+        return get(column.getProperty(), entity);
+    }
+
+    /**
+     * @Title:
+     * @Description:   读取属性值,有get方法时调用get方法
+     * @param property
+     * @param entity
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 23:07:30
+     */
+    public Object get(String property, Object entity) {
+        try {
+            return (Object) accessor(property).getter.invokeExact(entity);
+        } catch (ServiceException ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new ServiceException("获取参数出错", ex);
+        }
+    }
+
+    /**
+     * @Title:
+     * @Description:   设置属性值,有set方法时调用set方法
+     * @param property
+     * @param entity
+     * @param value
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 23:08:02
+     */
+    public void set(String property, Object entity, Object value) {
+        MethodHandle setter = accessor(property).setter;
+        if (setter == null) {
+            throw new ServiceException(entityClass.getName() + "属性" + property + "不可修改");
+        }
+        try {
+            setter.invokeExact(entity, value);
+        } catch (ServiceException ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new ServiceException("设置参数出错", ex);
+        }
+    }
+
+    /**
+     * @Title:
+     * @Description:   更新指定列的预编译sql,按 主键 (and update_time) 定位
+     * @param columns 实际更新的列在updateColumns中的下标
+     * @param exclusive 是否根据update_time排他
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 23:09:15
+     */
+    public String getUpdateSql(BitSet columns, boolean exclusive) {
+        BitSet key = (BitSet) columns.clone();
+        if (exclusive) {
+            key.set(updateColumns.size());
+        }
+        String sql = updateSqls.get(key);
+        if (sql == null) {
+            sql = updateSqls.computeIfAbsent(key, data -> updateSql(columns, exclusive));
+        }
+        return sql;
+    }
+
+    /**
+     * @Title:
+     * @Description:   多行录入的sql,INSERT INTO table ( 列 ) VALUES ( ? ),( ? )...
+     * @param rows 行数
+     * @param upsert 主键或唯一键冲突时是否更新已有行
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 23:40:12
+     */
+    public String getInsertValuesSql(int rows, boolean upsert) {
+        StringBuilder sql = new StringBuilder(insertPrefix.length() + (valuesGroup.length() + 1) * rows
+                + (upsert ? upsertSuffix.length() : 0));
+        sql.append(insertPrefix);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(',');
+            }
+            sql.append(valuesGroup);
+        }
+        if (upsert) {
+            sql.append(upsertSuffix);
+        }
+        return sql.toString();
+    }
+
+    private Accessor accessor(String property) {
+        Accessor accessor = accessors.get(property);
+        if (accessor == null) {
+            throw new ServiceException(entityClass.getName() + "不存在属性" + property);
+        }
+        return accessor;
+    }
+
+    private String insertPrefix() {
+        StringBuilder sql = new StringBuilder();
+        sql.append(SqlHelper.insertIntoTable(entityClass, tableName));
+        sql.append(" ( ");
+        for (EntityColumn column : columns) {
+            sql.append(column.getColumn());
+            sql.append(" ,");
+        }
+        sql.deleteCharAt(sql.length() - 1);
+        sql.append(" ) VALUES ");
+        return sql.toString();
+    }
+
+    private String valuesGroup() {
+        StringBuilder val = new StringBuilder("(");
+        for (int i = 0; i < columns.size(); i++) {
+            val.append(i == 0 ? " ?" : ", ?");
+        }
+        val.append(" )");
+        return val.toString();
+    }
+
+    private String upsertSuffix() {
+        StringBuilder sql = new StringBuilder(" ON DUPLICATE KEY UPDATE ");
+        boolean first = true;
+        for (EntityColumn column : updateColumns) {
+            if (SqlUtil.ENTITY_CREATE_TIME.equals(column.getProperty()) || SqlUtil.ENTITY_CREATOR.equals(column.getProperty())) {
+                continue;
+            }
+            sql.append(first ? "" : " ,").append(column.getColumn()).append(" = VALUES(").append(column.getColumn()).append(")");
+            first = false;
+        }
+        if (first) {
+            // 只有主键列时冲突不做修改
+            String column = pkColumns.isEmpty() ? columns.get(0).getColumn() : pkColumns.get(0).getColumn();
+            sql.append(column).append(" = ").append(column);
+        }
+        return sql.toString();
+    }
+
+    private String updateSql(BitSet columns, boolean exclusive) {
+        StringBuilder sql = new StringBuilder();
+        sql.append(SqlHelper.updateTable(entityClass, tableName));
+        sql.append(" SET ");
+        for (int i = columns.nextSetBit(0); i >= 0; i = columns.nextSetBit(i + 1)) {
+            sql.append(updateColumns.get(i).getColumn());
+            sql.append(" = ? ,");
+        }
+        sql.deleteCharAt(sql.length() - 1);
+        sql.append(" WHERE ");
+        for (int i = 0; i < pkColumns.size(); i++) {
+            if (i > 0) {
+                sql.append(" and ");
+            }
+            sql.append(pkColumns.get(i).getColumn());
+            sql.append(" = ? ");
+        }
+        if (exclusive) {
+            sql.append(" and update_time = ? ");
+        }
+        return sql.toString();
+    }
+
+    /**
+     * @Title:
+     * @Description:   解析全部属性的读写方法,子类属性优先
+     * @param entityClass
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 23:10:40
+     */
+    private static Map<String, Accessor> accessors(Class<?> entityClass) {
+        Map<String, Accessor> accessors = new HashMap<>();
+        for (Class<?> clazz = entityClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            for (Field field : clazz.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || accessors.containsKey(field.getName())) {
+                    continue;
+                }
+                try {
+                    accessors.put(field.getName(), new Accessor(getter(entityClass, field), setter(entityClass, field)));
+                } catch (IllegalAccessException ex) {
+                    throw new ServiceException(entityClass.getName() + "无法访问属性" + field.getName(), ex);
+                }
+            }
+        }
+        return Collections.unmodifiableMap(accessors);
+    }
+
+    private static MethodHandle getter(Class<?> entityClass, Field field) throws IllegalAccessException {
+        try {
+            return LOOKUP.unreflect(entityClass.getMethod(ReflectUtils.getMethodGetName(field))).asType(GETTER_TYPE);
+        } catch (NoSuchMethodException ex) {
+            // 没有get方法时直接读字段,getMethodGetName已设置可访问
+            return LOOKUP.unreflectGetter(field).asType(GETTER_TYPE);
+        }
+    }
+
+    private static MethodHandle setter(Class<?> entityClass, Field field) throws IllegalAccessException {
+        try {
+            return LOOKUP.unreflect(entityClass.getMethod(ReflectUtils.getMethodSetName(field), field.getType())).asType(SETTER_TYPE);
+        } catch (NoSuchMethodException ex) {
+            // final字段不可修改
+            return Modifier.isFinal(field.getModifiers()) ? null : LOOKUP.unreflectSetter(field).asType(SETTER_TYPE);
+        }
+    }
+
+    /**
+     * @author qiaomengnan
+     * @ClassName: Accessor
+     * @Description: 属性的读写方法,参数和返回值统一为Object
+     * @date 2026-10-17
+     */
+    private static class Accessor {
+
+        private final MethodHandle getter;
+
+        private final MethodHandle setter;
+
+        private Accessor(MethodHandle getter, MethodHandle setter) {
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+    }
+
+}
@@ -5,17 +5,15 @@ import com.mn.im.core.common.exception.ServiceException;
 import com.mn.im.core.common.utils.*;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 import tk.mybatis.mapper.entity.EntityColumn;
-import tk.mybatis.mapper.entity.EntityTable;
-import tk.mybatis.mapper.mapperhelper.EntityHelper;
-import tk.mybatis.mapper.mapperhelper.SqlHelper;
 
-import java.lang.reflect.Field;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.*;
 
 /**
@@ -28,9 +26,36 @@ import java.util.*;
 @Repository
 public class JdbcTemplateRepository {
 
+    /**
+     * @Fields  : 单条预编译sql最多的占位符数
+     * @author qiaomengnan
+     */
+    private static final int MAX_PLACEHOLDERS = 65535;
+
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    /**
+     * @Fields  : 批量更新每批执行的行数
+     * @author qiaomengnan
+     */
+    @Value("${jdbc.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * @Fields  : 多行录入单条sql最多的行数
+     * @author qiaomengnan
+     */
+    @Value("${jdbc.insert-chunk-size:500}")
+    private int insertChunkSize;
+
+    /**
+     * @Fields  : 多行录入单条sql预估的最大字节数,需小于数据库的 max_allowed_packet
+     * @author qiaomengnan
+     */
+    @Value("${jdbc.max-packet-bytes:4000000}")
+    private int maxPacketBytes;
+
     /**
      * @Title:
      * @Description:   批量录入
@@ -43,46 +68,14 @@ public class JdbcTemplateRepository {
     public int insertList(List params){
         if(ArrayUtils.isNotNullAndLengthNotZero(params)) {
             Map<String, Object> logParams = new HashMap<>();
-            Class<?> entityClass = params.get(0).getClass();
-            StringBuffer sql = new StringBuffer();
-            sql.append(SqlHelper.insertIntoTable(entityClass, tableName(entityClass)));
-            //获取全部列
-            List<EntityColumn> columnList = new ArrayList<>(EntityHelper.getColumns(entityClass));
-            List<EntityColumn> pkColumnList = new ArrayList<>(EntityHelper.getPKColumns(entityClass));
-            //field
-            Map<String, Field> fieldMap = ReflectUtils.getMapField(entityClass);
-            StringBuffer val = new StringBuffer();
-            sql.append(" ( ");
-            val.append(" VALUES ( ");
-            for (EntityColumn entityColumn : columnList){
-                sql.append(entityColumn.getColumn());
-                sql.append(" ,");
-                val.append(" ?,");
-
-            }
-            sql = sql.deleteCharAt(sql.length()-1);
-            sql.append(" ) ");
-            val = val.deleteCharAt(val.length()-1);
-            val.append(" ) ");
-            String insertSql = sql.toString()+val.toString();
+            EntityMetadata metadata = EntityMetadata.of(params.get(0).getClass());
+            String insertSql = metadata.getInsertSql();
             int [] result = jdbcTemplate.batchUpdate(insertSql, new BatchPreparedStatementSetter() {
                 @Override
                 public void setValues(PreparedStatement ps, int i) throws SQLException {
-                    Object param = params.get(i);
-                    for(int k = 0 ; k< columnList.size() ; k++) {
-                        try{
-                            String property = columnList.get(k).getProperty();
-                            Field field = fieldMap.get(property);
-                            Object val = field.get(param);
-                            if(pkColumnList.contains(columnList.get(k))
-                                    && columnList.get(k).getJavaType().equals(String.class)
-                                    && StringUtils.isTrimBlank(val)){
-                                val = UUIDUtils.getUUID();
-                            }
-                            ps.setObject(k + 1, val);
-                        }catch (IllegalAccessException ex){
-                            throw new RuntimeException("获取参数出错");
-                        }
+                    Object[] values = insertValues(metadata, params.get(i));
+                    for(int k = 0 ; k < values.length ; k++) {
+                        ps.setObject(k + 1, values[k]);
                     }
                 }
                 @Override
@@ -100,9 +93,127 @@ public class JdbcTemplateRepository {
         return 0;
     }
 
+    /**
+     * @Title:
+     * @Description:   多行录入,每条sql录入多行 INSERT ... VALUES (...),(...)
+     *  按行数和预估字节数分块,单块不超过 jdbc.insert-chunk-size 行、jdbc.max-packet-bytes 字节
+     * @param params
+     * @param upsert 主键或唯一键冲突时是否更新已有行(ON DUPLICATE KEY UPDATE),不覆盖创建时间和创建人
+     * @return 数据库返回的影响行数,upsert时更新的行按2计
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 23:45:12
+     */
+    public int insertValuesList(List params, boolean upsert){
+        if(ArrayUtils.isNotNullAndLengthNotZero(params)) {
+            EntityMetadata metadata = EntityMetadata.of(params.get(0).getClass());
+            int columnSize = metadata.getColumns().size();
+            int maxRows = Math.max(1, Math.min(insertChunkSize, MAX_PLACEHOLDERS / columnSize));
+            int updates = 0;
+            List<Object[]> chunk = new ArrayList<>();
+            long chunkBytes = 0;
+            for(Object param : params){
+                Object[] values = insertValues(metadata, param);
+                // 占位符和分隔符
+                long rowBytes = columnSize * 3 + 4;
+                for(Object value : values){
+                    rowBytes += estimateBytes(value);
+                }
+                if(!chunk.isEmpty() && (chunk.size() >= maxRows || chunkBytes + rowBytes > maxPacketBytes)){
+                    updates += insertValues(metadata, chunk, upsert);
+                    chunk = new ArrayList<>();
+                    chunkBytes = 0;
+                }
+                chunk.add(values);
+                chunkBytes += rowBytes;
+            }
+            updates += insertValues(metadata, chunk, upsert);
+            return updates;
+        }
+        return 0;
+    }
+
+    /**
+     * @Title:
+     * @Description:   执行一块多行录入
+     * @param metadata
+     * @param chunk
+     * @param upsert
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 23:46:30
+     */
+    private int insertValues(EntityMetadata metadata, List<Object[]> chunk, boolean upsert){
+        String insertSql = metadata.getInsertValuesSql(chunk.size(), upsert);
+        int updates = jdbcTemplate.update(insertSql, ps -> {
+            int index = 1;
+            for(Object[] values : chunk){
+                for(Object value : values){
+                    ps.setObject(index++, value);
+                }
+            }
+        });
+        if(log.isDebugEnabled()) {
+            log.debug("==>  Preparing: " + metadata.getInsertSql() + " x " + chunk.size() + (upsert ? " (upsert)" : ""));
+            log.debug("<==    Updates: " + updates);
+        }
+        return updates;
+    }
+
+    /**
+     * @Title:
+     * @Description:   一行录入的参数,字符串主键为空时生成UUID
+     * @param metadata
+     * @param param
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 23:47:10
+     */
+    private Object[] insertValues(EntityMetadata metadata, Object param){
+        List<EntityColumn> columnList = metadata.getColumns();
+        List<EntityColumn> pkColumnList = metadata.getPkColumns();
+        Object[] values = new Object[columnList.size()];
+        for(int k = 0 ; k < columnList.size() ; k++) {
+            Object val = metadata.get(columnList.get(k), param);
+            if(pkColumnList.contains(columnList.get(k))
+                    && columnList.get(k).getJavaType().equals(String.class)
+                    && StringUtils.isTrimBlank(val)){
+                val = UUIDUtils.getUUID();
+            }
+            values[k] = val;
+        }
+        return values;
+    }
+
+    /**
+     * @Title:
+     * @Description:   预估参数在sql中的字节数,字符串按utf8转义后的上限估算
+     * @param value
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 23:48:02
+     */
+    private long estimateBytes(Object value){
+        if(value == null)
+            return 4;
+        if(value instanceof CharSequence)
+            return ((CharSequence) value).length() * 3L + 2;
+        if(value instanceof byte[])
+            return ((byte[]) value).length * 2L + 3;
+        if(value instanceof Date)
+            return 32;
+        if(value instanceof Number || value instanceof Boolean)
+            return 24;
+        return String.valueOf(value).length() * 3L + 2;
+    }
+
     /**
      * @Title:
      * @Description:   批量更新
+     *  按实际更新的列分组,每组一条预编译sql分批执行,连接串开启 rewriteBatchedStatements 后每批一次往返
      * @param params
      * @param selective 是否只更新不为null的值
      * @param exclusive 是否排他
@@ -115,60 +226,53 @@ public class JdbcTemplateRepository {
 
         if(ArrayUtils.isNotNullAndLengthNotZero(params)) {
             Class<?> entityClass = params.get(0).getClass();
-            //获取全部列
-            List<EntityColumn> columnList = new ArrayList<>(EntityHelper.getColumns(entityClass));
-            List<EntityColumn> pkColumnList = new ArrayList<>(EntityHelper.getPKColumns(entityClass));
+            EntityMetadata metadata = EntityMetadata.of(entityClass);
+            List<EntityColumn> pkColumnList = metadata.getPkColumns();
             if(ArrayUtils.isNullOrLengthZero(pkColumnList))
                 throw new ServiceException("未获取到主键");
-            //field
-            Map<String, Field> fieldMap = ReflectUtils.getMapField(entityClass);
-            List<String> updateSqlList = new ArrayList<>();
+            List<EntityColumn> setColumnList = metadata.getUpdateColumns();
+            //实际更新的列 -> 每行的参数(更新列、主键、排他时间)
+            Map<BitSet, List<Object[]>> groupMap = new LinkedHashMap<>();
             for(Object param : params){
-                StringBuffer updateSql = new StringBuffer();
-                updateSql.append(SqlHelper.updateTable(entityClass, tableName(entityClass)));
-                updateSql.append(" SET ");
-                for (EntityColumn entityColumn : columnList){
-                    if(pkColumnList.contains(entityColumn))
-                        continue;
-                    Object columnVal = getValue(getFieldValue(entityColumn,fieldMap,param));
-                    if(selective == true && columnVal != null) {
-                        updateSql.append(entityColumn.getColumn());
-                        updateSql.append(" = ");
-                        updateSql.append(columnVal);
-                        updateSql.append(" , ");
-                    }
-                    if(selective == false){
-                        updateSql.append(entityColumn.getColumn());
-                        updateSql.append(" = ");
-                        updateSql.append(columnVal);
-                        updateSql.append(" , ");
+                BitSet columns = new BitSet(setColumnList.size());
+                List<Object> values = new ArrayList<>();
+                for(int i = 0 ; i < setColumnList.size() ; i++){
+                    Object columnVal = getValue(metadata.get(setColumnList.get(i),param));
+                    if(selective == false || columnVal != null) {
+                        columns.set(i);
+                        values.add(columnVal);
                     }
                 }
-                updateSql = updateSql.deleteCharAt(updateSql.lastIndexOf(","));
+                if(columns.isEmpty())
+                    throw new ServiceException("没有需要更新的列");
                 for(EntityColumn pkColumn : pkColumnList){
-                    updateSql.append(" WHERE ");
-                    updateSql.append(pkColumn.getColumn());
-                    updateSql.append(" = ");
-                    updateSql.append(getFieldValue(pkColumn,fieldMap,param));
-                    if(pkColumn != pkColumnList.get(pkColumnList.size() - 1))
-                        updateSql.append(" and ");
+                    values.add(getValue(metadata.get(pkColumn,param)));
                 }
                 //根据update_time进行排他
-                if(exclusive){
-                    if(param instanceof BaseEntity){
-                        BaseEntity baseEntity = (BaseEntity)param;
-                        if(baseEntity.getUpdateLastTime() == null){
-                            throw new ServiceException("未获取到最后一次更新时间");
-                        }
-                        updateSql.append(" and update_time = '"+ DateUtils
-                                .dateToStr(baseEntity.getUpdateLastTime(),DateUtils.formatStr_yyyyMMddHHmmssSSS)+"' ");
+                if(exclusive && param instanceof BaseEntity){
+                    BaseEntity baseEntity = (BaseEntity)param;
+                    if(baseEntity.getUpdateLastTime() == null){
+                        throw new ServiceException("未获取到最后一次更新时间");
                     }
+                    values.add(DateUtils.dateToStr(baseEntity.getUpdateLastTime(),DateUtils.formatStr_yyyyMMddHHmmssSSS));
                 }
-                updateSqlList.add(updateSql.toString());
+                groupMap.computeIfAbsent(columns, key -> new ArrayList<>()).add(values.toArray());
+            }
+            int resultValue = 0;
+            for(Map.Entry<BitSet, List<Object[]>> entry : groupMap.entrySet()){
+                String updateSql = metadata.getUpdateSql(entry.getKey(), exclusive && BaseEntity.class.isAssignableFrom(entityClass));
+                int [][] result = jdbcTemplate.batchUpdate(updateSql, entry.getValue(), batchSize, (ps, values) -> {
+                    for(int k = 0 ; k < values.length ; k++){
+                        ps.setObject(k + 1, values[k]);
+                    }
+                });
+                int updates = updates(result, exclusive);
+                log.debug("==>  Preparing: "+ updateSql);
+                if(log.isDebugEnabled())
+                    log.debug("==> Parameters: " + JSON.toJSONString(entry.getValue()));
+                log.debug("<==    Updates: "+ updates);
+                resultValue += updates;
             }
-            int [] result = jdbcTemplate.batchUpdate(updateSqlList.toArray(new String[]{}));
-            log.debug("==>  Executing: "+ JSON.toJSONString(updateSqlList));
-            int resultValue = ArrayUtils.count(result).intValue();
             if(exclusive && resultValue != params.size())
                 throw new ServiceException(MarkedWordsConstants.SQL_EXCLUSIVE_ERROR_MESSAGE);
             return resultValue;
@@ -178,47 +282,25 @@ public class JdbcTemplateRepository {
 
     /**
      * @Title:
-     * @Description:   获取实际值
-     * @param entityColumn
-     * @param fieldMap
-     * @param param
+     * @Description:   汇总分批执行的更新行数,驱动未返回行数(SUCCESS_NO_INFO)时按更新一行计;
+     *  排他更新需要确切的行数才能判断记录是否已被修改,未返回行数时抛出异常,由事务回滚本次更新
+     * @param result
+     * @param exclusive 是否排他更新
      * @return
-     * @throws
+     * @throws ServiceException 排他更新时驱动未返回行数
      * @author qiaomengnan
-     * @date 2018/02/26 11:16:25
+     * @date 2026/10/17 22:52:40
      */
-    private Object getFieldValue(EntityColumn entityColumn, Map<String, Field> fieldMap, Object param){
-        Object columnVal = null;
-        Field field = fieldMap.get(entityColumn.getProperty());
-        try {
-            columnVal = field.get(param);
-            if(columnVal != null)
-                return "'" + getValue(columnVal) + "'";
-//            if(columnVal != null && entityColumn.getJavaType().equals(Date.class))
-//                return "'" + getValue(columnVal) + "'";
-//            else
-//
-//            if(columnVal != null && !entityColumn.getJavaType().equals(Integer.class)
-//                    && !entityColumn.getJavaType().equals(int.class) )
-//                return "'" + columnVal + "'";
-        } catch (IllegalAccessException e) {
-            e.printStackTrace();
+    private int updates(int [][] result, boolean exclusive){
+        int updates = 0;
+        for(int [] batch : result){
+            for(int count : batch){
+                if(count == Statement.SUCCESS_NO_INFO && exclusive)
+                    throw new ServiceException("数据库驱动未返回更新行数,无法进行排他校验");
+                updates += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+            }
         }
-        return columnVal;
-    }
-
-    /**
-     * @Title:
-     * @Description:   获取实体类的表名
-     * @param entityClass
-     * @return
-     * @throws
-     * @author qiaomengnan
-     * @date 2018/02/26 10:41:17
-     */
-    private String tableName(Class<?> entityClass) {
-        EntityTable entityTable = EntityHelper.getEntityTable(entityClass);
-        return entityTable.getName();
+        return updates;
     }
 
     /**
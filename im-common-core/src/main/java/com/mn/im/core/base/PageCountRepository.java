@@ -0,0 +1,230 @@
+package com.mn.im.core.base;
+
+import com.alibaba.fastjson.JSON;
+import com.mn.im.core.common.exception.ServiceException;
+import com.mn.im.core.common.utils.MD5Utils;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.ParamNameResolver;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.lang.reflect.Method;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: PageCountRepository
+ * @Description:    分页总数的估算和缓存
+ *  估算使用mysql执行计划(EXPLAIN)中驱动表的预估行数;缓存以mapper语句、最终sql和参数值为key存入redis;
+ *  同样按mapper语句解析出最终sql,检查游标分页的查询是否使用了游标条件
+ * @date 2026-10-17
+ */
+@Slf4j
+@Repository
+public class PageCountRepository {
+
+    private static final String COUNT_CACHE_KEY = "page:count:";
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RedisService redisService;
+
+    /**
+     * @Fields  : 精确总数的缓存时间(秒)
+     * @author qiaomengnan
+     */
+    @Value("${page.count-cache-seconds:30}")
+    private int countCacheSeconds;
+
+    /**
+     * @Title:
+     * @Description:   根据执行计划估算查询的总行数
+     * @param mapper 查询所在的mapper
+     * @param methodName 查询方法
+     * @param param 查询参数
+     * @return 无法估算时返回null
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/18 00:20:15
+     */
+    public Long explainCount(Object mapper, String methodName, Object param){
+        try {
+            Statement statement = statement(mapper, methodName, param);
+            return jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement("EXPLAIN " + statement.boundSql.getSql());
+                new DefaultParameterHandler(statement.mappedStatement, statement.parameterObject, statement.boundSql)
+                        .setParameters(ps);
+                return ps;
+            }, rs -> {
+                if(!rs.next())
+                    return null;
+                long rows = rs.getLong("rows");
+                return rs.wasNull() ? null : rows;
+            });
+        }catch (Exception ex){
+            log.warn("估算总数失败:" + methodName, ex);
+            return null;
+        }
+    }
+
+    /**
+     * @Title:
+     * @Description:   获取缓存的精确总数
+     * @param mapper
+     * @param methodName
+     * @param param
+     * @return 没有缓存时返回null
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/18 00:21:40
+     */
+    public Long getCachedCount(Object mapper, String methodName, Object param){
+        try {
+            Object count = redisService.get(cacheKey(mapper, methodName, param));
+            return count instanceof Number ? ((Number) count).longValue() : null;
+        }catch (Exception ex){
+            log.warn("获取缓存总数失败:" + methodName, ex);
+            return null;
+        }
+    }
+
+    /**
+     * @Title:
+     * @Description:   缓存精确总数
+     * @param mapper
+     * @param methodName
+     * @param param
+     * @param count
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/18 00:22:05
+     */
+    public void cacheCount(Object mapper, String methodName, Object param, long count){
+        try {
+            redisService.save(cacheKey(mapper, methodName, param), count, countCacheSeconds);
+        }catch (Exception ex){
+            log.warn("缓存总数失败:" + methodName, ex);
+        }
+    }
+
+    /**
+     * @Title:
+     * @Description:   最终sql的参数中是否引用了全部指定属性(属性名本身或以 .属性名 结尾)
+     * @param mapper
+     * @param methodName
+     * @param param
+     * @param properties
+     * @return
+     * @throws ServiceException 未找到查询语句
+     * @author qiaomengnan
+     * @date 2026/10/18 11:50:20
+     */
+    public boolean referencesAll(Object mapper, String methodName, Object param, String... properties){
+        Statement statement = statement(mapper, methodName, param);
+        for(String property : properties){
+            boolean found = false;
+            for(ParameterMapping mapping : statement.boundSql.getParameterMappings()){
+                String name = mapping.getProperty();
+                if(name.equals(property) || name.endsWith("." + property)){
+                    found = true;
+                    break;
+                }
+            }
+            if(!found)
+                return false;
+        }
+        return true;
+    }
+
+    private String cacheKey(Object mapper, String methodName, Object param){
+        Statement statement = statement(mapper, methodName, param);
+        Configuration configuration = statement.mappedStatement.getConfiguration();
+        List<Object> values = new ArrayList<>();
+        for(ParameterMapping mapping : statement.boundSql.getParameterMappings()){
+            if(mapping.getMode() == ParameterMode.OUT)
+                continue;
+            String property = mapping.getProperty();
+            Object parameterObject = statement.parameterObject;
+            if(statement.boundSql.hasAdditionalParameter(property)) {
+                values.add(statement.boundSql.getAdditionalParameter(property));
+            } else if(parameterObject == null) {
+                values.add(null);
+            } else if(configuration.getTypeHandlerRegistry().hasTypeHandler(parameterObject.getClass())) {
+                values.add(parameterObject);
+            } else {
+                MetaObject metaObject = configuration.newMetaObject(parameterObject);
+                values.add(metaObject.getValue(property));
+            }
+        }
+        return COUNT_CACHE_KEY + MD5Utils.MD5(statement.mappedStatement.getId() + "\n" + statement.boundSql.getSql()
+                + "\n" + JSON.toJSONString(values));
+    }
+
+    /**
+     * @Title:
+     * @Description:   按mybatis调用mapper方法的方式解析出语句、参数和最终sql
+     * @param mapper
+     * @param methodName
+     * @param param
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/18 00:23:30
+     */
+    private Statement statement(Object mapper, String methodName, Object param){
+        Configuration configuration = sqlSessionFactory.getConfiguration();
+        for(Class<?> mapperInterface : mapper.getClass().getInterfaces()) {
+            for(Method method : mapperInterface.getMethods()) {
+                if(!method.getName().equals(methodName) || method.getParameterCount() != 1
+                        || (param != null && !method.getParameterTypes()[0].isAssignableFrom(param.getClass())))
+                    continue;
+                String statementId = mapperInterface.getName() + "." + methodName;
+                if(!configuration.hasStatement(statementId))
+                    statementId = method.getDeclaringClass().getName() + "." + methodName;
+                if(!configuration.hasStatement(statementId))
+                    continue;
+                Statement statement = new Statement();
+                statement.mappedStatement = configuration.getMappedStatement(statementId);
+                statement.parameterObject = new ParamNameResolver(configuration, method).getNamedParams(new Object[]{param});
+                statement.boundSql = statement.mappedStatement.getBoundSql(statement.parameterObject);
+                return statement;
+            }
+        }
+        throw new ServiceException("未找到查询语句:" + methodName);
+    }
+
+    /**
+     * @author qiaomengnan
+     * @ClassName: Statement
+     * @Description: mapper方法对应的语句、参数和最终sql
+     * @date 2026-10-17
+     */
+    private static class Statement {
+
+        private MappedStatement mappedStatement;
+
+        private Object parameterObject;
+
+        private BoundSql boundSql;
+
+    }
+
+}
@@ -32,4 +32,76 @@ public class RedisKeys {
      */
     public static final String VISITOR_BIND_PREFIX= "dragon:visitorBind:code:";
 
+    /**
+     * @Fields  : socket用户所在节点 set
+     * @author qiaomengnan
+     */
+    public static final String SOCKET_PRESENCE_PREFIX = "dragon:socket:presence:";
+
+    /**
+     * @Fields  : 已发布的好友在线状态 hash,userId -> 状态,离线时删除
+     * @author qiaomengnan
+     */
+    public static final String SOCKET_PRESENCE_STATUS = "dragon:socket:presence-status";
+
+    /**
+     * @Fields  : socket节点上在线的用户 set,节点失效时据此清理用户所在节点
+     * @author qiaomengnan
+     */
+    public static final String SOCKET_NODE_USERS_PREFIX = "dragon:socket:node:users:";
+
+    /**
+     * @Fields  : 保存了用户离线收件箱的socket节点 set,用户上线时只向这些节点请求补发
+     * @author qiaomengnan
+     */
+    public static final String SOCKET_INBOX_HOLDERS_PREFIX = "dragon:socket:inbox:holders:";
+
+    /**
+     * @Fields  : socket节点消息路由channel
+     * @author qiaomengnan
+     */
+    public static final String SOCKET_ROUTE_CHANNEL_PREFIX = "dragon:socket:route:";
+
+    /**
+     * @Fields  : socket存活节点 zset,score为最后一次心跳时间
+     * @author qiaomengnan
+     */
+    public static final String SOCKET_NODES = "dragon:socket:nodes";
+
+    /**
+     * @Fields  : 会话消息序号,按号段递增
+     * @author qiaomengnan
+     */
+    public static final String SOCKET_SEQ_PREFIX = "dragon:socket:seq:";
+
+    /**
+     * @Fields  : 会话最近消息 zset,score为序号
+     * @author qiaomengnan
+     */
+    public static final String SOCKET_CONVERSATION_PREFIX = "dragon:socket:conversation:";
+
+    /**
+     * @Fields  : 群成员 set
+     * @author qiaomengnan
+     */
+    public static final String SOCKET_GROUP_MEMBERS_PREFIX = "dragon:socket:group:members:";
+
+    /**
+     * @Fields  : 会话同步游标 hash,userId -> 已同步到的序号
+     * @author qiaomengnan
+     */
+    public static final String SOCKET_CURSOR_PREFIX = "dragon:socket:cursor:";
+
+    /**
+     * @Fields  : 会话已读水位 hash,userId -> 已读到的序号
+     * @author qiaomengnan
+     */
+    public static final String SOCKET_READ_PREFIX = "dragon:socket:read:";
+
+    /**
+     * @Fields  : 客户端消息ID hash,按时间窗口分key,clientMsgId -> 序号
+     * @author qiaomengnan
+     */
+    public static final String SOCKET_CLIENT_MSG_PREFIX = "dragon:socket:client-msg:";
+
 }
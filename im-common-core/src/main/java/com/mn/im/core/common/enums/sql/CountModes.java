@@ -0,0 +1,28 @@
+package com.mn.im.core.common.enums.sql;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: CountModes
+ * @Description: 分页查询总数的方式
+ * @date 2026-10-17
+ */
+public enum CountModes {
+
+    EXACT("0","精确总数,每次执行count"),
+    NONE("1","不查询总数,多查一行判断是否有下一页"),
+    APPROXIMATE("2","根据执行计划估算总数"),
+    CACHED("3","精确总数,按查询条件短时间缓存");
+
+    private String flag;
+
+    private String desc;
+
+    CountModes(String flag, String desc){
+        this.flag = flag;
+        this.desc = desc;
+    }
+
+    public String getFlag() {
+        return flag;
+    }
+}
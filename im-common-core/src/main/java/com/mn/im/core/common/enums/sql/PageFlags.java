@@ -10,6 +10,7 @@ public enum PageFlags {
 
     PAGE("0","分页"),
     NOT_PAGE("1","不分页"),
+    SEEK("2","游标分页,按上一页最后一行的排序值和主键定位,不查询总数"),
     PAGE_FLAG("pageFlag","分页参数标识");
 
     private String flag;
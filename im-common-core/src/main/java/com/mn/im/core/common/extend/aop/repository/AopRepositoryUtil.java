@@ -18,31 +18,13 @@ public class AopRepositoryUtil {
 
     public static void insert(Object object){
         if(object instanceof BaseEntity){
-            BaseEntity entity = (BaseEntity) object;
-            Date nowDate = new Date();
-            entity.setCreateTime(nowDate);
-            entity.setUpdateTime(nowDate);
-            if(StringUtils.isNotTrimBlank(UserInfoUtils.getUserName()))
-                entity.setCreator(UserInfoUtils.getUserName());
-            if(StringUtils.isNotTrimBlank(UserInfoUtils.getUserName()))
-                entity.setUpdater(UserInfoUtils.getUserName());
-            if(entity.getDelFlag() == null)
-                entity.setDelFlag(DeleteFlags.EXIST.getFlag());
+            insert((BaseEntity) object, new Date(), UserInfoUtils.getUserName());
         }
     }
 
     public static void update(Object object){
         if(object instanceof BaseEntity){
-            BaseEntity entity = (BaseEntity) object;
-            //保存最后一次更新时间 做排他处理
-            entity.setUpdateLastTime(entity.getUpdateTime());
-            Date nowDate = new Date();
-            //放上本次更新时间
-            entity.setUpdateTime(nowDate);
-            if(StringUtils.isNotTrimBlank(UserInfoUtils.getUserName()))
-                entity.setUpdater(UserInfoUtils.getUserName());
-            if(entity.getDelFlag() == null)
-                entity.setDelFlag(DeleteFlags.EXIST.getFlag());
+            update((BaseEntity) object, new Date(), UserInfoUtils.getUserName());
         }
     }
 
@@ -51,32 +33,77 @@ public class AopRepositoryUtil {
             BaseEntity entity = (BaseEntity) object;
             Date nowDate = new Date();
             entity.setUpdateTime(nowDate);
-            if(StringUtils.isNotTrimBlank(UserInfoUtils.getUserName()))
-                entity.setUpdater(UserInfoUtils.getUserName());
+            String userName = UserInfoUtils.getUserName();
+            if(StringUtils.isNotTrimBlank(userName))
+                entity.setUpdater(userName);
             entity.setDelFlag(DeleteFlags.NOT_EXIST.getFlag());
         }
     }
 
+    /**
+     * @Title:
+     * @Description:   批量录入,时间和当前用户整批只取一次
+     * @param object
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 23:20:12
+     */
     public static void insertList(Object object){
         if(object instanceof List){
             List objectList = (List)object;
+            Date nowDate = new Date();
+            String userName = UserInfoUtils.getUserName();
             for(Object element : objectList){
                 if(element instanceof BaseEntity){
-                    insert(element);
+                    insert((BaseEntity) element, nowDate, userName);
                 }
             }
         }
     }
 
+    /**
+     * @Title:
+     * @Description:   批量更新,时间和当前用户整批只取一次
+     * @param object
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 23:20:40
+     */
     public static void updateList(Object object){
         if(object instanceof List){
             List objectList = (List)object;
+            Date nowDate = new Date();
+            String userName = UserInfoUtils.getUserName();
             for(Object element : objectList){
                 if(element instanceof BaseEntity){
-                    update(element);
+                    update((BaseEntity) element, nowDate, userName);
                 }
             }
         }
     }
 
+    private static void insert(BaseEntity entity, Date nowDate, String userName){
+        entity.setCreateTime(nowDate);
+        entity.setUpdateTime(nowDate);
+        if(StringUtils.isNotTrimBlank(userName)) {
+            entity.setCreator(userName);
+            entity.setUpdater(userName);
+        }
+        if(entity.getDelFlag() == null)
+            entity.setDelFlag(DeleteFlags.EXIST.getFlag());
+    }
+
+    private static void update(BaseEntity entity, Date nowDate, String userName){
+        //保存最后一次更新时间 做排他处理
+        entity.setUpdateLastTime(entity.getUpdateTime());
+        //放上本次更新时间
+        entity.setUpdateTime(nowDate);
+        if(StringUtils.isNotTrimBlank(userName))
+            entity.setUpdater(userName);
+        if(entity.getDelFlag() == null)
+            entity.setDelFlag(DeleteFlags.EXIST.getFlag());
+    }
+
 }
@@ -0,0 +1,82 @@
+package com.mn.im.core.common.utils;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.mn.im.core.common.exception.ServiceException;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: PageCursorUtils
+ * @Description: 游标分页的游标编解码,游标为 [排序值, 主键] 的json再做url安全的base64,
+ *  时间类型的排序值按 yyyy-MM-dd HH:mm:ss.SSS 保存,可以直接和数据库的时间列比较
+ * @date 2026-10-17
+ */
+public class PageCursorUtils {
+
+    /**
+     * @Title:
+     * @Description:   根据一页的最后一行生成下一页的游标
+     * @param row 最后一行
+     * @param seekProperty 排序属性
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 23:58:10
+     */
+    public static String encode(Object row, String seekProperty){
+        Object seekValue = propertyValue(row, seekProperty);
+        Object seekId = propertyValue(row, SqlUtil.ENTITY_ID);
+        if(seekValue == null || seekId == null)
+            throw new ServiceException("游标分页的排序值和主键不能为空");
+        if(seekValue instanceof Date)
+            seekValue = DateUtils.dateToStr((Date) seekValue, DateUtils.formatStr_yyyyMMddHHmmssSSS);
+        String json = JSON.toJSONString(new Object[]{seekValue, seekId});
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @Title:
+     * @Description:   解析游标,写入分页对象的 seekValue 和 seekId
+     * @param pageQuery
+     * @return
+     * @throws ServiceException 游标无效
+     * @author qiaomengnan
+     * @date 2026/10/17 23:59:02
+     */
+    public static void decode(PageQuery pageQuery){
+        if(StringUtils.isTrimBlank(pageQuery.getCursor())) {
+            pageQuery.setSeekValue(null);
+            pageQuery.setSeekId(null);
+            return;
+        }
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(pageQuery.getCursor().trim());
+            JSONArray values = JSON.parseArray(new String(json, StandardCharsets.UTF_8));
+            if(values == null || values.size() != 2 || values.get(0) == null || values.get(1) == null)
+                throw new ServiceException("分页游标无效");
+            pageQuery.setSeekValue(values.get(0));
+            pageQuery.setSeekId(values.get(1));
+        }catch (ServiceException ex){
+            throw ex;
+        }catch (Exception ex){
+            throw new ServiceException("分页游标无效");
+        }
+    }
+
+    private static Object propertyValue(Object row, String property){
+        Field field = ReflectUtils.getMapField(row.getClass()).get(property);
+        if(field == null)
+            throw new ServiceException("游标分页的结果中没有属性:" + property);
+        try {
+            return field.get(row);
+        }catch (IllegalAccessException ex){
+            throw new ServiceException("游标分页获取属性失败:" + property);
+        }
+    }
+
+}
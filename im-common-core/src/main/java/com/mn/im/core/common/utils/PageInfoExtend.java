@@ -28,4 +28,16 @@ public class PageInfoExtend<T> extends PageInfo<T> {
 
     private Object extendData;
 
+    /**
+     * @Fields  : 游标分页时下一页的游标,没有下一页时为null
+     * @author qiaomengnan
+     */
+    private String nextCursor;
+
+    /**
+     * @Fields  : 总数是否为估算值,不查询总数时总数为-1
+     * @author qiaomengnan
+     */
+    private Boolean approximate;
+
 }
@@ -64,7 +64,7 @@ public class PageQuery<T> extends BaseVo<T> implements Page, Serializable {
     }
 
     /**
-     * @Fields  :  是否分页 null、0:分页 , 1:不分页
+     * @Fields  :  是否分页 null、0:分页 , 1:不分页 , 2:游标分页
      * @author qiaomengnan
      */
     private String pageFlag;
@@ -81,10 +81,46 @@ public class PageQuery<T> extends BaseVo<T> implements Page, Serializable {
      */
     private String totalFlag;
 
+    /**
+     * @Fields  :  总数的查询方式 null、0:精确 , 1:不查询总数 , 2:估算 , 3:精确并缓存
+     * @author qiaomengnan
+     */
+    private String countMode;
+
     /**
      * @Fields  : 返回最大行数
      * @author qiaomengnan
      */
     private Integer topLimit;
 
+    /**
+     * @Fields  : 游标分页时上一页返回的 nextCursor,为空查询第一页
+     * @author qiaomengnan
+     */
+    private String cursor;
+
+    /**
+     * @Fields  : 游标分页的排序属性,需与sql的排序列一致,默认按更新时间倒序
+     * @author qiaomengnan
+     */
+    @JsonIgnore
+    @JSONField(serialize = false)
+    private String seekProperty = SqlUtil.ENTITY_UPDATE_TIME;
+
+    /**
+     * @Fields  : 游标解析出的上一页最后一行的排序值,sql中使用 (排序列 < seekValue or (排序列 = seekValue and id < seekId))
+     * @author qiaomengnan
+     */
+    @JsonIgnore
+    @JSONField(serialize = false)
+    private Object seekValue;
+
+    /**
+     * @Fields  : 游标解析出的上一页最后一行的主键
+     * @author qiaomengnan
+     */
+    @JsonIgnore
+    @JSONField(serialize = false)
+    private Object seekId;
+
 }
\ No newline at end of file
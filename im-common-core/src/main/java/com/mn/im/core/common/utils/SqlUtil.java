@@ -27,6 +27,12 @@ public class SqlUtil {
 
     public static final String ENTITY_UPDATE_TIME = "updateTime";
 
+    public static final String ENTITY_CREATE_TIME = "createTime";
+
+    public static final String ENTITY_CREATOR = "creator";
+
+    public static final String ENTITY_ID = "id";
+
     public static String createTimeAsc(){
         return SQL_CREATE_TIME + SQL_ASC;
     }
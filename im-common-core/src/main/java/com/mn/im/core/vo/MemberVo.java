@@ -14,6 +14,12 @@ import lombok.Data;
 @Data
 public class MemberVo extends PageQuery<Member> {
 
+    /**
+     * @Fields  : 主键,游标分页时作为排序的第二列
+     * @author qiaomengnan
+     */
+    private String id;
+
     /**
      * @Fields  : 昵称
      * @author qiaomengnan
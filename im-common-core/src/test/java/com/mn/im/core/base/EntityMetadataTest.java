@@ -0,0 +1,90 @@
+package com.mn.im.core.base;
+
+import com.mn.im.core.common.exception.ServiceException;
+import com.mn.im.core.entity.Member;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import tk.mybatis.mapper.entity.Config;
+import tk.mybatis.mapper.entity.EntityColumn;
+import tk.mybatis.mapper.mapperhelper.EntityHelper;
+
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: EntityMetadataTest
+ * @Description: 实体元数据生成的sql和属性读写
+ * @date 2026-10-17
+ */
+public class EntityMetadataTest {
+
+    private static final String COLUMNS = "( id ,create_time ,creator ,update_time ,updater ,del_flag ,nick_name ,head_img_url ,mobile ,password ,wx_id ,im_no ,member_no  )";
+
+    private static final String VALUES = "( ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ? )";
+
+    @BeforeAll
+    public static void initEntity() {
+        EntityHelper.initEntityNameMap(Member.class, new Config());
+    }
+
+    @Test
+    public void insertSqlListsEveryColumn() {
+        EntityMetadata metadata = EntityMetadata.of(Member.class);
+        assertEquals("member", metadata.getTableName());
+        assertEquals("INSERT INTO member  " + COLUMNS + " VALUES " + VALUES, metadata.getInsertSql());
+        assertEquals("id", metadata.getPkColumn().getProperty());
+        assertEquals(metadata.getColumns().size() - 1, metadata.getUpdateColumns().size());
+    }
+
+    @Test
+    public void multiRowInsertRepeatsValueGroups() {
+        EntityMetadata metadata = EntityMetadata.of(Member.class);
+        assertEquals("INSERT INTO member  " + COLUMNS + " VALUES " + VALUES + "," + VALUES,
+                metadata.getInsertValuesSql(2, false));
+        String upsert = metadata.getInsertValuesSql(1, true);
+        assertTrue(upsert.startsWith(metadata.getInsertSql() + " ON DUPLICATE KEY UPDATE update_time = VALUES(update_time) ,"), upsert);
+        // 冲突更新不覆盖创建时间和创建人
+        assertFalse(upsert.contains("create_time = VALUES") || upsert.contains("creator = VALUES"), upsert);
+    }
+
+    @Test
+    public void updateSqlCoversSelectedColumnsOnly() {
+        EntityMetadata metadata = EntityMetadata.of(Member.class);
+        BitSet columns = new BitSet();
+        columns.set(metadata.getUpdateColumns().indexOf(column(metadata, "nickName")));
+        columns.set(metadata.getUpdateColumns().indexOf(column(metadata, "mobile")));
+        assertEquals("UPDATE member  SET nick_name = ? ,mobile = ?  WHERE id = ? ", metadata.getUpdateSql(columns, false));
+        assertEquals("UPDATE member  SET nick_name = ? ,mobile = ?  WHERE id = ?  and update_time = ? ",
+                metadata.getUpdateSql(columns, true));
+        // 按更新列缓存
+        assertSame(metadata.getUpdateSql(columns, false), metadata.getUpdateSql((BitSet) columns.clone(), false));
+    }
+
+    @Test
+    public void accessorsReadAndWriteProperties() {
+        EntityMetadata metadata = EntityMetadata.of(Member.class);
+        Member member = new Member();
+        metadata.set("mobile", member, "13800000000");
+        metadata.set("id", member, "m1");
+        assertEquals("13800000000", member.getMobile());
+        assertEquals("13800000000", metadata.get("mobile", member));
+        assertEquals("m1", metadata.getId(member));
+        assertThrows(ServiceException.class, () -> metadata.get("missing", member));
+    }
+
+    private static EntityColumn column(EntityMetadata metadata, String property) {
+        for (EntityColumn column : metadata.getUpdateColumns()) {
+            if (column.getProperty().equals(property)) {
+                return column;
+            }
+        }
+        throw new IllegalArgumentException(property);
+    }
+
+}
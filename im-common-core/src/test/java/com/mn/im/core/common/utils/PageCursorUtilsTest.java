@@ -0,0 +1,84 @@
+package com.mn.im.core.common.utils;
+
+import com.mn.im.core.common.exception.ServiceException;
+import com.mn.im.core.entity.Member;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: PageCursorUtilsTest
+ * @Description: 游标分页的游标编解码
+ * @date 2026-10-17
+ */
+public class PageCursorUtilsTest {
+
+    @Test
+    public void dateCursorRoundTrips() {
+        Member member = new Member();
+        member.setId("m100");
+        Date updateTime = new Date(1760700000123L);
+        member.setUpdateTime(updateTime);
+        String cursor = PageCursorUtils.encode(member, SqlUtil.ENTITY_UPDATE_TIME);
+        // url安全且不带填充
+        assertFalse(cursor.contains("+") || cursor.contains("/") || cursor.contains("="), cursor);
+        PageQuery<Member> pageQuery = new PageQuery<>();
+        pageQuery.setCursor(cursor);
+        PageCursorUtils.decode(pageQuery);
+        assertEquals(DateUtils.dateToStr(updateTime, DateUtils.formatStr_yyyyMMddHHmmssSSS), pageQuery.getSeekValue());
+        assertEquals("m100", pageQuery.getSeekId());
+    }
+
+    @Test
+    public void numericCursorRoundTrips() {
+        Member member = new Member();
+        member.setId("m7");
+        member.setMemberNo(9000000001L);
+        PageQuery<Member> pageQuery = new PageQuery<>();
+        pageQuery.setCursor(PageCursorUtils.encode(member, "memberNo"));
+        PageCursorUtils.decode(pageQuery);
+        assertEquals(9000000001L, ((Number) pageQuery.getSeekValue()).longValue());
+        assertEquals("m7", pageQuery.getSeekId());
+    }
+
+    @Test
+    public void blankCursorClearsSeek() {
+        PageQuery<Member> pageQuery = new PageQuery<>();
+        pageQuery.setSeekValue("stale");
+        pageQuery.setSeekId("stale");
+        pageQuery.setCursor("  ");
+        PageCursorUtils.decode(pageQuery);
+        assertNull(pageQuery.getSeekValue());
+        assertNull(pageQuery.getSeekId());
+    }
+
+    @Test
+    public void invalidCursorIsRejected() {
+        for (String cursor : new String[]{"not base64!", encode("[1]"), encode("{\"a\":1}"), encode("[null,1]")}) {
+            PageQuery<Member> pageQuery = new PageQuery<>();
+            pageQuery.setCursor(cursor);
+            assertThrows(ServiceException.class, () -> PageCursorUtils.decode(pageQuery), cursor);
+        }
+    }
+
+    @Test
+    public void missingSortValueIsRejected() {
+        Member member = new Member();
+        member.setId("m1");
+        assertThrows(ServiceException.class, () -> PageCursorUtils.encode(member, SqlUtil.ENTITY_UPDATE_TIME));
+        assertThrows(ServiceException.class, () -> PageCursorUtils.encode(member, "missing"));
+    }
+
+    private static String encode(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
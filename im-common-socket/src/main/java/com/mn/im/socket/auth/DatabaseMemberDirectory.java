@@ -0,0 +1,83 @@
+package com.mn.im.socket.auth;
+
+import com.mn.im.core.common.constant.common.RedisKeys;
+import com.mn.im.core.common.enums.sql.DeleteFlags;
+import com.mn.im.core.common.utils.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: DatabaseMemberDirectory
+ * @Description: 登录token从redis读取,会员、好友从数据库查询
+ * @date 2026-10-17
+ */
+@Component
+@ConditionalOnProperty(prefix = "im.socket", name = "store", havingValue = "redis", matchIfMissing = true)
+public class DatabaseMemberDirectory implements MemberDirectory {
+
+    /**
+     * @Fields  : 好友状态 正常
+     * @author qiaomengnan
+     */
+    private static final String FRIEND_NORMAL = "0";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RedisTemplate<Object, Object> redisTemplate;
+
+    @Override
+    public String findIdByToken(String token) {
+        Object userName = redisTemplate.opsForValue().get(StringUtils.join(RedisKeys.USER_TOKEN_PREFIX, token));
+        return StringUtils.isTrimBlank(userName) ? null : findIdByMobile(userName.toString());
+    }
+
+    /**
+     * @Title:
+     * @Description:   根据手机号查询会员ID
+     * @param mobile
+     * @return 不存在时返回null
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 18:05:12
+     */
+    private String findIdByMobile(String mobile) {
+        List<String> ids = jdbcTemplate.queryForList("select id from member where mobile = ? and del_flag = ? limit 1",
+                String.class, mobile, DeleteFlags.EXIST.getFlag());
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+
+    @Override
+    public Map<String, List<String>> findFriendWatchers(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        StringBuilder sql = new StringBuilder("select member_id, friend_id from member_friend where status = ? and del_flag = ? and friend_id in (");
+        List<Object> args = new ArrayList<>(userIds.size() + 2);
+        args.add(FRIEND_NORMAL);
+        args.add(DeleteFlags.EXIST.getFlag());
+        for (String userId : userIds) {
+            sql.append(args.size() > 2 ? ",?" : "?");
+            args.add(userId);
+        }
+        sql.append(")");
+        Map<String, List<String>> watchers = new HashMap<>();
+        jdbcTemplate.query(sql.toString(), args.toArray(), resultSet -> {
+            watchers.computeIfAbsent(resultSet.getString("friend_id"), key -> new ArrayList<>()).add(resultSet.getString("member_id"));
+        });
+        return watchers;
+    }
+
+}
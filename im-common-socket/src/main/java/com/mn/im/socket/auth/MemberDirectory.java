@@ -0,0 +1,37 @@
+package com.mn.im.socket.auth;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: MemberDirectory
+ * @Description: socket节点查询会员信息
+ * @date 2026-10-17
+ */
+public interface MemberDirectory {
+
+    /**
+     * @Title:
+     * @Description:   根据登录token查询会员ID
+     * @param token
+     * @return token无效或会员不存在时返回null
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 18:05:12
+     */
+    String findIdByToken(String token);
+
+    /**
+     * @Title:
+     * @Description:   批量查询把这些用户加为好友(正常状态)的会员
+     * @param userIds
+     * @return userId -> 好友列表中有该用户的会员ID
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 19:36:20
+     */
+    Map<String, List<String>> findFriendWatchers(Collection<String> userIds);
+
+}
@@ -0,0 +1,79 @@
+package com.mn.im.socket.auth;
+
+import com.mn.im.socket.netty.SocketProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: MemoryMemberDirectory
+ * @Description: 内存会员信息,同一个JVM内的多个节点共享,用于测试和压测
+ * @date 2026-10-17
+ */
+@Component
+@ConditionalOnProperty(prefix = "im.socket", name = "store", havingValue = SocketProperties.STORE_MEMORY)
+public class MemoryMemberDirectory implements MemberDirectory {
+
+    private static final Map<String, String> TOKENS = new ConcurrentHashMap<>();
+
+    /**
+     * @Fields  : userId -> 把该用户加为好友的会员
+     * @author qiaomengnan
+     */
+    private static final Map<String, Set<String>> WATCHERS = new ConcurrentHashMap<>();
+
+    /**
+     * @Title:
+     * @Description:   登记token
+     * @param token
+     * @param userId
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 21:05:12
+     */
+    public static void login(String token, String userId) {
+        TOKENS.put(token, userId);
+    }
+
+    /**
+     * @Title:
+     * @Description:   互加好友
+     * @param userId
+     * @param friendId
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 21:05:40
+     */
+    public static void addFriend(String userId, String friendId) {
+        WATCHERS.computeIfAbsent(userId, key -> ConcurrentHashMap.newKeySet()).add(friendId);
+        WATCHERS.computeIfAbsent(friendId, key -> ConcurrentHashMap.newKeySet()).add(userId);
+    }
+
+    @Override
+    public String findIdByToken(String token) {
+        return TOKENS.get(token);
+    }
+
+    @Override
+    public Map<String, List<String>> findFriendWatchers(Collection<String> userIds) {
+        Map<String, List<String>> watchers = new HashMap<>();
+        for (String userId : userIds) {
+            Set<String> members = WATCHERS.get(userId);
+            if (members != null && !members.isEmpty()) {
+                watchers.put(userId, new ArrayList<>(members));
+            }
+        }
+        return watchers;
+    }
+
+}
@@ -0,0 +1,99 @@
+package com.mn.im.socket.auth;
+
+import com.corundumstudio.socketio.AuthorizationListener;
+import com.corundumstudio.socketio.HandshakeData;
+import com.mn.im.core.common.utils.StringUtils;
+import com.mn.im.socket.constant.SocketParams;
+import com.mn.im.socket.netty.SocketProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.regex.Pattern;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: TokenAuthorizationListener
+ * @Description: 握手时校验登录token
+ *  token -> 用户名 由登录接口写入redis,这里通过会员信息解析出会员ID;
+ *  结果在本地缓存一段时间,无效token也缓存,避免重连风暴和无效请求每次都访问redis
+ * @date 2026-10-17
+ */
+@Slf4j
+@Component
+public class TokenAuthorizationListener implements AuthorizationListener {
+
+    /**
+     * @Fields  : 登录接口生成的token格式,不符合的直接拒绝
+     * @author qiaomengnan
+     */
+    private static final Pattern TOKEN_PATTERN = Pattern.compile("[0-9a-f]{32}");
+
+    @Autowired
+    private SocketProperties socketProperties;
+
+    @Autowired
+    private MemberDirectory memberDirectory;
+
+    private TokenCache tokenCache;
+
+    @PostConstruct
+    public void init() {
+        tokenCache = new TokenCache(socketProperties.getAuth().getCacheSize());
+    }
+
+    @Override
+    public boolean isAuthorized(HandshakeData data) {
+        if (!socketProperties.getAuth().isEnabled()) {
+            return true;
+        }
+        return resolve(data.getSingleUrlParam(SocketParams.TOKEN)) != null;
+    }
+
+    /**
+     * @Title:
+     * @Description:   解析token对应的用户ID
+     * @param token
+     * @return token无效时返回null
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 18:12:40
+     */
+    public String resolve(String token) {
+        if (StringUtils.isTrimBlank(token) || !TOKEN_PATTERN.matcher(token).matches()) {
+            return null;
+        }
+        TokenCache.Entry entry = tokenCache.get(token);
+        if (entry != null) {
+            return entry.userId;
+        }
+        SocketProperties.Auth auth = socketProperties.getAuth();
+        String userId = null;
+        try {
+            userId = memberDirectory.findIdByToken(token);
+        } catch (Exception ex) {
+            // 查询失败不做缓存,下次重试
+            log.error("socket token校验失败", ex);
+            return null;
+        }
+        tokenCache.put(token, userId, userId == null ? auth.getNegativeTtl() * 1000L : auth.getTtl() * 1000L);
+        return userId;
+    }
+
+    /**
+     * @Title:
+     * @Description:   注销时清除本地缓存
+     * @param token
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 18:13:20
+     */
+    public void invalidate(String token) {
+        if (token != null) {
+            tokenCache.remove(token);
+        }
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.mn.im.socket.auth;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: TokenCache
+ * @Description: 本地token缓存,容量有上限,按访问顺序淘汰;
+ *  无效token同样缓存(userId为null),时间更短
+ * @date 2026-10-17
+ */
+class TokenCache {
+
+    private final Map<String, Entry> entries;
+
+    TokenCache(int maxSize) {
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * @Title:
+     * @Description:   查询缓存
+     * @param token
+     * @return 未缓存或已过期返回null
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 18:08:30
+     */
+    synchronized Entry get(String token) {
+        Entry entry = entries.get(token);
+        if (entry != null && entry.expireTime < System.currentTimeMillis()) {
+            entries.remove(token);
+            return null;
+        }
+        return entry;
+    }
+
+    synchronized void put(String token, String userId, long ttl) {
+        entries.put(token, new Entry(userId, System.currentTimeMillis() + ttl));
+    }
+
+    synchronized void remove(String token) {
+        entries.remove(token);
+    }
+
+    static class Entry {
+
+        /**
+         * @Fields  : 用户ID,为null表示token无效
+         * @author qiaomengnan
+         */
+        final String userId;
+
+        final long expireTime;
+
+        Entry(String userId, long expireTime) {
+            this.userId = userId;
+            this.expireTime = expireTime;
+        }
+
+    }
+
+}
@@ -0,0 +1,189 @@
+package com.mn.im.socket.codec;
+
+import com.mn.im.core.common.exception.ServiceException;
+import com.mn.im.socket.netty.Message;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: MessageCodec
+ * @Description: 消息二进制编解码
+ *  格式: 版本(1字节) 后依次为 type、msgId、conversationId、seq、fromUserId、toUserId、sendTime、msg、syncSeqs、groupId、clientMsgId;
+ *  字符串为 varint(字节长度+1) + utf-8,0表示null;数字为 varint(值+1),0表示null;
+ *  syncSeqs 为 varint(条数+1) 后跟 会话ID、序号 对
+ *  直接在字节数组上解析,不经过json字符串和Map中间对象
+ * @date 2026-10-17
+ */
+public class MessageCodec {
+
+    /**
+     * @Fields  : 当前格式版本
+     * @author qiaomengnan
+     */
+    public static final byte VERSION = 1;
+
+    /**
+     * @Title:
+     * @Description:   编码
+     * @param message
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 16:05:20
+     */
+    public static byte[] encode(Message message) {
+        Writer writer = new Writer();
+        writer.buf[writer.pos++] = VERSION;
+        writer.writeString(message.getType());
+        writer.writeString(message.getMsgId());
+        writer.writeString(message.getConversationId());
+        writer.writeLong(message.getSeq());
+        writer.writeString(message.getFromUserId());
+        writer.writeString(message.getToUserId());
+        writer.writeLong(message.getSendTime());
+        writer.writeString(message.getMsg());
+        Map<String, Long> syncSeqs = message.getSyncSeqs();
+        if (syncSeqs == null) {
+            writer.writeVarLong(0);
+        } else {
+            writer.writeVarLong(syncSeqs.size() + 1L);
+            for (Map.Entry<String, Long> entry : syncSeqs.entrySet()) {
+                writer.writeString(entry.getKey());
+                writer.writeLong(entry.getValue());
+            }
+        }
+        writer.writeString(message.getGroupId());
+        writer.writeString(message.getClientMsgId());
+        return Arrays.copyOf(writer.buf, writer.pos);
+    }
+
+    /**
+     * @Title:
+     * @Description:   解码
+     * @param data
+     * @return
+     * @throws ServiceException 格式错误
+     * @author qiaomengnan
+     * @date 2026/10/17 16:06:02
+     */
+    public static Message decode(byte[] data) {
+        if (data == null || data.length == 0 || data[0] != VERSION) {
+            throw new ServiceException("不支持的消息格式");
+        }
+        Reader reader = new Reader(data);
+        try {
+            Message message = new Message();
+            message.setType(reader.readString());
+            message.setMsgId(reader.readString());
+            message.setConversationId(reader.readString());
+            message.setSeq(reader.readLong());
+            message.setFromUserId(reader.readString());
+            message.setToUserId(reader.readString());
+            message.setSendTime(reader.readLong());
+            message.setMsg(reader.readString());
+            long count = reader.readVarLong();
+            if (count > 0) {
+                Map<String, Long> syncSeqs = new HashMap<>((int) Math.min(count * 2, 1024));
+                for (long i = 1; i < count; i++) {
+                    syncSeqs.put(reader.readString(), reader.readLong());
+                }
+                message.setSyncSeqs(syncSeqs);
+            }
+            message.setGroupId(reader.readString());
+            // 末尾新增的字段,兼容不带该字段的数据
+            if (reader.pos < data.length) {
+                message.setClientMsgId(reader.readString());
+            }
+            return message;
+        } catch (ArrayIndexOutOfBoundsException ex) {
+            throw new ServiceException("消息数据不完整");
+        }
+    }
+
+    private static class Writer {
+
+        private byte[] buf = new byte[128];
+
+        private int pos;
+
+        private void ensure(int size) {
+            if (pos + size > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length << 1, pos + size));
+            }
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[pos++] = (byte) value;
+        }
+
+        void writeLong(Long value) {
+            writeVarLong(value == null ? 0 : value + 1);
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length + 1L);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, pos, bytes.length);
+            pos += bytes.length;
+        }
+
+    }
+
+    private static class Reader {
+
+        private final byte[] buf;
+
+        private int pos = 1;
+
+        Reader(byte[] buf) {
+            this.buf = buf;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buf[pos++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new ServiceException("消息数据格式错误");
+        }
+
+        Long readLong() {
+            long value = readVarLong();
+            return value == 0 ? null : value - 1;
+        }
+
+        String readString() {
+            long length = readVarLong();
+            if (length == 0) {
+                return null;
+            }
+            int size = (int) (length - 1);
+            if (size < 0 || size > buf.length - pos) {
+                throw new ServiceException("消息数据不完整");
+            }
+            String value = new String(buf, pos, size, StandardCharsets.UTF_8);
+            pos += size;
+            return value;
+        }
+
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.mn.im.socket.constant;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: MessageTypes
+ * @Description: USER_MSG 消息类型
+ * @date 2026-10-17
+ */
+public class MessageTypes {
+
+    /**
+     * @Fields  : 聊天消息
+     * @author qiaomengnan
+     */
+    public static final String CHAT = "chat";
+
+    /**
+     * @Fields  : 断线重连后增量同步
+     * @author qiaomengnan
+     */
+    public static final String SYNC = "sync";
+
+    /**
+     * @Fields  : 群聊消息
+     * @author qiaomengnan
+     */
+    public static final String GROUP = "group";
+
+    /**
+     * @Fields  : 客户端上报在线状态(online、away),状态放在msg中
+     * @author qiaomengnan
+     */
+    public static final String PRESENCE = "presence";
+
+    /**
+     * @Fields  : 临时信号,信号类型(typing、recording等)放在msg中
+     * @author qiaomengnan
+     */
+    public static final String SIGNAL = "signal";
+
+    /**
+     * @Fields  : 已读上报,conversationId中已读到seq(包含)
+     * @author qiaomengnan
+     */
+    public static final String READ = "read";
+
+}
@@ -0,0 +1,29 @@
+package com.mn.im.socket.constant;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: PresenceStatus
+ * @Description: 在线状态
+ * @date 2026-10-17
+ */
+public class PresenceStatus {
+
+    /**
+     * @Fields  : 在线
+     * @author qiaomengnan
+     */
+    public static final String ONLINE = "online";
+
+    /**
+     * @Fields  : 离开,客户端切到后台或长时间无操作时上报
+     * @author qiaomengnan
+     */
+    public static final String AWAY = "away";
+
+    /**
+     * @Fields  : 离线
+     * @author qiaomengnan
+     */
+    public static final String OFFLINE = "offline";
+
+}
@@ -0,0 +1,72 @@
+package com.mn.im.socket.constant;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: SocketEvents
+ * @Description: socket事件名称
+ * @date 2026-10-17
+ */
+public class SocketEvents {
+
+    /**
+     * @Fields  : 用户消息
+     * @author qiaomengnan
+     */
+    public static final String USER_MSG = "USER_MSG";
+
+    /**
+     * @Fields  : 任务通知
+     * @author qiaomengnan
+     */
+    public static final String TASK_CAST = "TASK_CAST";
+
+    /**
+     * @Fields  : 广播消息
+     * @author qiaomengnan
+     */
+    public static final String BROADCAST = "BROADCAST";
+
+    /**
+     * @Fields  : 注销通知,客户端收到后不再自动重连
+     * @author qiaomengnan
+     */
+    public static final String LOGOUT = "LOGOUT";
+
+    /**
+     * @Fields  : 增量同步的消息批次
+     * @author qiaomengnan
+     */
+    public static final String USER_MSG_SYNC = "USER_MSG_SYNC";
+
+    /**
+     * @Fields  : 合并后的多条下行消息,数据为 [{event, data}] 数组;
+     *  批内有需要确认的消息时BATCH带ack,客户端处理完整批后确认一次
+     * @author qiaomengnan
+     */
+    public static final String BATCH = "BATCH";
+
+    /**
+     * @Fields  : 二进制编码的用户消息
+     * @author qiaomengnan
+     */
+    public static final String USER_MSG_BIN = "USER_MSG_BIN";
+
+    /**
+     * @Fields  : 好友在线状态变化,数据为 {userId: status},周期合并后下发
+     * @author qiaomengnan
+     */
+    public static final String PRESENCE = "PRESENCE";
+
+    /**
+     * @Fields  : 临时信号(正在输入等),不保存不重发,按会话限流
+     * @author qiaomengnan
+     */
+    public static final String SIGNAL = "SIGNAL";
+
+    /**
+     * @Fields  : 已读水位变化,数据为 [{conversationId, userId, seq}],周期合并后下发
+     * @author qiaomengnan
+     */
+    public static final String READ = "READ";
+
+}
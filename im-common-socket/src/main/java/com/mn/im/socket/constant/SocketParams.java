@@ -0,0 +1,47 @@
+package com.mn.im.socket.constant;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: SocketParams
+ * @Description: socket握手时携带的参数名称
+ * @date 2026-10-17
+ */
+public class SocketParams {
+
+    /**
+     * @Fields  : 登录token
+     * @author qiaomengnan
+     */
+    public static final String TOKEN = "token";
+
+    /**
+     * @Fields  : 用户ID
+     * @author qiaomengnan
+     */
+    public static final String USER_ID = "userId";
+
+    /**
+     * @Fields  : 设备类型 android、ios、pc、web
+     * @author qiaomengnan
+     */
+    public static final String DEVICE = "device";
+
+    /**
+     * @Fields  : 未传设备类型时的默认值
+     * @author qiaomengnan
+     */
+    public static final String DEFAULT_DEVICE = "web";
+
+    /**
+     * @Fields  : 消息编码方式
+     * @author qiaomengnan
+     */
+    public static final String CODEC = "codec";
+
+    /**
+     * @Fields  : 二进制编码,未指定时使用json
+     * @author qiaomengnan
+     */
+    public static final String CODEC_BINARY = "binary";
+
+}
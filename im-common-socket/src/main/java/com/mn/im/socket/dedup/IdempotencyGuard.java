@@ -0,0 +1,187 @@
+package com.mn.im.socket.dedup;
+
+import com.corundumstudio.socketio.AckRequest;
+import com.mn.im.socket.message.MessageStore;
+import com.mn.im.socket.netty.Message;
+import com.mn.im.socket.netty.SocketProperties;
+import com.mn.im.socket.session.SocketSession;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: IdempotencyGuard
+ * @Description: 按客户端消息ID去重
+ *  同一连接上的重发先查会话内的最近确认信息,在收到消息的节点上检查,命中时不再转发;
+ *  换连接后的重发在会话所属节点上查 会话ID+clientMsgId 的布隆过滤器,命中时到消息存储中确认,不命中时不单独访问存储;
+ *  布隆过滤器只记录本节点接受的消息,会话归属变化前由其它节点接受的消息不在其中,
+ *  由消息存储在写入时原子登记clientMsgId兜底(append返回false),已登记的按重发处理;
+ *  重复的消息只回复原来的确认信息,不再保存和推送
+ * @date 2026-10-17
+ */
+@Slf4j
+@Component
+public class IdempotencyGuard {
+
+    @Autowired
+    private SocketProperties socketProperties;
+
+    @Autowired
+    private MessageStore messageStore;
+
+    private RotatingBloomFilter bloomFilter;
+
+    @PostConstruct
+    public void init() {
+        SocketProperties.Dedup dedup = socketProperties.getDedup();
+        bloomFilter = new RotatingBloomFilter(dedup.getExpectedInsertions(), dedup.getFpp(), dedup.getWindow());
+    }
+
+    /**
+     * @Title:
+     * @Description:   是否为同一连接上重发的消息,是则回复原确认信息
+     * @param session
+     * @param clientMsgId
+     * @param ackRequest
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 20:40:12
+     */
+    public boolean isRetry(SocketSession session, String clientMsgId, AckRequest ackRequest) {
+        if (clientMsgId == null) {
+            return false;
+        }
+        Map<String, Message> recentAcks = session.getRecentAcks();
+        Message ack;
+        synchronized (recentAcks) {
+            ack = recentAcks.get(clientMsgId);
+        }
+        if (ack == null) {
+            return false;
+        }
+        log.debug("重复消息,只回复确认:{} {}", session, clientMsgId);
+        if (ackRequest.isAckRequested()) {
+            ackRequest.sendAckData(ack);
+        }
+        return true;
+    }
+
+    /**
+     * @Title:
+     * @Description:   查询会话已接受的同一客户端消息,需要在会话所属节点的会话线程上调用
+     * @param conversationId
+     * @param clientMsgId
+     * @return 原确认信息,新消息返回null
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/18 14:40:20
+     */
+    public Message findAccepted(String conversationId, String clientMsgId) {
+        if (clientMsgId == null || !bloomFilter.mightContain(key(conversationId, clientMsgId))) {
+            return null;
+        }
+        Message message = messageStore.findByClientMsgId(conversationId, clientMsgId);
+        if (message == null) {
+            return null;
+        }
+        log.debug("重复消息,只回复确认:{} {}", conversationId, clientMsgId);
+        return ack(message);
+    }
+
+    /**
+     * @Title:
+     * @Description:   写入时发现去重窗口内已保存过同一clientMsgId,查询原消息并记录到布隆过滤器
+     * @param conversationId
+     * @param clientMsgId
+     * @return 原确认信息,原消息已被裁剪时返回null
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/18 16:40:30
+     */
+    public Message duplicated(String conversationId, String clientMsgId) {
+        bloomFilter.put(key(conversationId, clientMsgId));
+        Message message = messageStore.findByClientMsgId(conversationId, clientMsgId);
+        log.debug("重复消息,写入时发现已保存:{} {}", conversationId, clientMsgId);
+        return message == null ? null : ack(message);
+    }
+
+    /**
+     * @Title:
+     * @Description:   消息保存后记录客户端消息ID
+     * @param message
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 20:41:30
+     */
+    public void accepted(Message message) {
+        if (message.getClientMsgId() != null) {
+            bloomFilter.put(key(message.getConversationId(), message.getClientMsgId()));
+        }
+    }
+
+    /**
+     * @Title:
+     * @Description:   回复发送方的回调,同时记录到连接的最近确认信息中
+     * @param session
+     * @param ackRequest
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/18 14:42:05
+     */
+    public Consumer<Message> acknowledger(SocketSession session, AckRequest ackRequest) {
+        return ack -> {
+            if (ack.getClientMsgId() != null) {
+                remember(session, ack.getClientMsgId(), ack);
+            }
+            if (ackRequest.isAckRequested()) {
+                ackRequest.sendAckData(ack);
+            }
+        };
+    }
+
+    /**
+     * @Title:
+     * @Description:   发送方确认信息
+     * @param message
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 20:42:05
+     */
+    public static Message ack(Message message) {
+        Message ack = new Message();
+        ack.setMsgId(message.getMsgId());
+        ack.setClientMsgId(message.getClientMsgId());
+        ack.setConversationId(message.getConversationId());
+        ack.setSeq(message.getSeq());
+        ack.setSendTime(message.getSendTime());
+        return ack;
+    }
+
+    private void remember(SocketSession session, String clientMsgId, Message ack) {
+        Map<String, Message> recentAcks = session.getRecentAcks();
+        int capacity = socketProperties.getDedup().getSessionCapacity();
+        synchronized (recentAcks) {
+            recentAcks.put(clientMsgId, ack);
+            Iterator<Map.Entry<String, Message>> iterator = recentAcks.entrySet().iterator();
+            while (recentAcks.size() > capacity && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+    }
+
+    private static String key(String conversationId, String clientMsgId) {
+        return conversationId + ":" + clientMsgId;
+    }
+
+}
@@ -0,0 +1,128 @@
+package com.mn.im.socket.dedup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: RotatingBloomFilter
+ * @Description: 按时间窗口轮换的布隆过滤器
+ *  保留当前和上一代两个位图,查询时两代都检查,轮换时丢弃上一代,
+ *  因此写入的元素至少保留一个窗口、最多两个窗口,内存固定
+ * @date 2026-10-17
+ */
+public class RotatingBloomFilter {
+
+    private final int bits;
+
+    private final int hashes;
+
+    private final long window;
+
+    private long[] current;
+
+    private long[] previous;
+
+    private long rotateTime;
+
+    /**
+     * @param expectedInsertions 每个窗口预计写入数
+     * @param fpp 期望误判率
+     * @param window 窗口时长(毫秒)
+     */
+    public RotatingBloomFilter(int expectedInsertions, double fpp, long window) {
+        long size = (long) (-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        this.bits = (int) Math.max(64, Math.min(Integer.MAX_VALUE - 63, size));
+        this.hashes = Math.max(1, (int) Math.round((double) bits / expectedInsertions * Math.log(2)));
+        this.window = window;
+        this.current = new long[(bits + 63) >>> 6];
+        this.previous = new long[current.length];
+        this.rotateTime = System.currentTimeMillis() + window;
+    }
+
+    /**
+     * @Title:
+     * @Description:   写入
+     * @param key
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 20:35:10
+     */
+    public synchronized void put(String key) {
+        rotate();
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashes; i++) {
+            int index = ((h1 + i * h2) & Integer.MAX_VALUE) % bits;
+            current[index >>> 6] |= 1L << index;
+        }
+    }
+
+    /**
+     * @Title:
+     * @Description:   是否可能写入过,返回false时一定没有写入过
+     * @param key
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 20:35:42
+     */
+    public synchronized boolean mightContain(String key) {
+        rotate();
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        return contains(current, h1, h2) || contains(previous, h1, h2);
+    }
+
+    private boolean contains(long[] words, int h1, int h2) {
+        for (int i = 1; i <= hashes; i++) {
+            int index = ((h1 + i * h2) & Integer.MAX_VALUE) % bits;
+            if ((words[index >>> 6] & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rotate() {
+        long now = System.currentTimeMillis();
+        if (now < rotateTime) {
+            return;
+        }
+        if (now - rotateTime >= window) {
+            // 超过两个窗口没有访问,两代都已过期
+            Arrays.fill(current, 0L);
+        }
+        long[] recycled = previous;
+        Arrays.fill(recycled, 0L);
+        previous = current;
+        current = recycled;
+        rotateTime = now + window;
+    }
+
+    /**
+     * @Title:
+     * @Description:   64位FNV-1a,高低32位作为两个独立的哈希
+     * @param key
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 20:36:20
+     */
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        // 混合高位,避免短key的低位分布不均
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+}
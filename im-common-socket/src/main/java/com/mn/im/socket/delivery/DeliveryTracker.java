@@ -0,0 +1,241 @@
+package com.mn.im.socket.delivery;
+
+import com.corundumstudio.socketio.AckCallback;
+import com.mn.im.socket.metrics.SocketMetrics;
+import com.mn.im.socket.netty.SocketProperties;
+import com.mn.im.socket.session.SocketSession;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: DeliveryTracker
+ * @Description: 下行消息可靠投递
+ *  消息经下行队列发送后等待客户端ack,与其它消息合并成BATCH时由BATCH的一次确认同时确认批内全部消息;
+ *  超时按退避时间重发,超过重试次数后放弃(客户端重连时由增量同步补齐);
+ *  所有超时由一个时间轮驱动,不为每条消息创建定时任务
+ * @date 2026-10-17
+ */
+@Slf4j
+@Component
+public class DeliveryTracker {
+
+    @Autowired
+    private SocketProperties socketProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private SocketMetrics socketMetrics;
+
+    /**
+     * @Fields  : sessionId -> (msgId -> 待确认消息)
+     * @author qiaomengnan
+     */
+    private final Map<UUID, Map<String, Pending>> pending = new ConcurrentHashMap<>();
+
+    /**
+     * @Fields  : 待确认消息总数
+     * @author qiaomengnan
+     */
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    private HashedWheelTimer timer;
+
+    private Counter retryCounter;
+
+    private Counter ackCounter;
+
+    private Counter expireCounter;
+
+    @PostConstruct
+    public void init() {
+        SocketProperties.Delivery delivery = socketProperties.getDelivery();
+        timer = new HashedWheelTimer(new DefaultThreadFactory("socket-delivery", true),
+                delivery.getTickDuration(), TimeUnit.MILLISECONDS, delivery.getTicksPerWheel());
+        Gauge.builder("im.socket.delivery.pending", pendingCount, AtomicInteger::get).register(meterRegistry);
+        retryCounter = meterRegistry.counter("im.socket.delivery.retry");
+        ackCounter = meterRegistry.counter("im.socket.delivery.ack");
+        expireCounter = meterRegistry.counter("im.socket.delivery.expire");
+    }
+
+    @PreDestroy
+    public void destroy() {
+        timer.stop();
+    }
+
+    /**
+     * @Title:
+     * @Description:   发送并跟踪消息,直到客户端确认
+     * @param session
+     * @param event
+     * @param data
+     * @param msgId
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 14:40:12
+     */
+    public void deliver(SocketSession session, String event, Object data, String msgId) {
+        Pending message = new Pending(msgId, session, event, data);
+        boolean[] added = new boolean[1];
+        pending.compute(session.getSessionId(), (key, messages) -> {
+            if (messages == null) {
+                messages = new ConcurrentHashMap<>();
+            }
+            added[0] = messages.putIfAbsent(msgId, message) == null;
+            return messages;
+        });
+        if (added[0]) {
+            pendingCount.incrementAndGet();
+            send(message);
+        }
+    }
+
+    /**
+     * @Title:
+     * @Description:   连接断开,丢弃该连接的待确认消息
+     * @param session
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 14:41:30
+     */
+    public void discard(SocketSession session) {
+        Map<String, Pending> messages = pending.remove(session.getSessionId());
+        if (messages == null) {
+            return;
+        }
+        for (Pending message : messages.values()) {
+            if (messages.remove(message.msgId, message)) {
+                message.cancel();
+                pendingCount.decrementAndGet();
+            }
+        }
+    }
+
+    public int pendingCount() {
+        return pendingCount.get();
+    }
+
+    private void send(Pending message) {
+        schedule(message);
+        message.attempts++;
+        // 经下行队列写出,连接不可写时由慢连接策略处理;不设置超时,超时由时间轮统一处理
+        message.session.send(message.event, message.data, new AckCallback<Object>(Object.class) {
+            @Override
+            public void onSuccess(Object result) {
+                if (remove(message)) {
+                    message.cancel();
+                    ackCounter.increment();
+                    socketMetrics.delivered(message.createTime);
+                }
+            }
+        });
+    }
+
+    private void schedule(Pending message) {
+        SocketProperties.Delivery delivery = socketProperties.getDelivery();
+        long delay = Math.min((long) (delivery.getAckTimeout() * Math.pow(delivery.getBackoffMultiplier(), message.attempts)),
+                delivery.getMaxAckTimeout());
+        message.timeout = timer.newTimeout(timeout -> retry(message), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void retry(Pending message) {
+        Map<String, Pending> messages = pending.get(message.session.getSessionId());
+        if (messages == null || messages.get(message.msgId) != message) {
+            return;
+        }
+        if (!message.session.isOpen() || message.attempts > socketProperties.getDelivery().getMaxRetries()) {
+            if (remove(message)) {
+                expireCounter.increment();
+                log.debug("消息投递未确认,放弃重发:{} {}", message.session, message.msgId);
+            }
+            return;
+        }
+        if (!message.session.isWritable()) {
+            // 连接不可写,上一次推送还积压在下行队列中,推迟重发且不计入重试次数
+            schedule(message);
+            return;
+        }
+        retryCounter.increment();
+        send(message);
+    }
+
+    private boolean remove(Pending message) {
+        boolean[] removed = new boolean[1];
+        // 与deliver在同一个key上互斥,避免空表被移除时新消息写入旧表
+        pending.computeIfPresent(message.session.getSessionId(), (key, messages) -> {
+            removed[0] = messages.remove(message.msgId, message);
+            return messages.isEmpty() ? null : messages;
+        });
+        if (removed[0]) {
+            pendingCount.decrementAndGet();
+        }
+        return removed[0];
+    }
+
+    /**
+     * @author qiaomengnan
+     * @ClassName: Pending
+     * @Description: 待确认消息
+     * @date 2026-10-17
+     */
+    private static class Pending {
+
+        private final String msgId;
+
+        private final SocketSession session;
+
+        private final String event;
+
+        private final Object data;
+
+        /**
+         * @Fields  : 首次推送时间,用于统计投递耗时
+         * @author qiaomengnan
+         */
+        private final long createTime;
+
+        /**
+         * @Fields  : 已发送次数
+         * @author qiaomengnan
+         */
+        private volatile int attempts;
+
+        private volatile Timeout timeout;
+
+        Pending(String msgId, SocketSession session, String event, Object data) {
+            this.msgId = msgId;
+            this.session = session;
+            this.event = event;
+            this.data = data;
+            this.createTime = System.currentTimeMillis();
+        }
+
+        void cancel() {
+            Timeout current = timeout;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,302 @@
+package com.mn.im.socket.group;
+
+import com.alibaba.fastjson.JSON;
+import com.corundumstudio.socketio.AckRequest;
+import com.mn.im.core.common.utils.StringUtils;
+import com.mn.im.core.common.utils.UUIDUtils;
+import com.mn.im.socket.constant.MessageTypes;
+import com.mn.im.socket.constant.SocketEvents;
+import com.mn.im.socket.dedup.IdempotencyGuard;
+import com.mn.im.socket.message.ConversationExecutor;
+import com.mn.im.socket.message.ConversationIds;
+import com.mn.im.socket.message.MessageStore;
+import com.mn.im.socket.message.SequenceAllocator;
+import com.mn.im.socket.metrics.SocketMetrics;
+import com.mn.im.socket.netty.Message;
+import com.mn.im.socket.netty.SocketProperties;
+import com.mn.im.socket.route.ConversationForwarder;
+import com.mn.im.socket.route.ConversationOwner;
+import com.mn.im.socket.route.MessageRouter;
+import com.mn.im.socket.route.RouteEnvelope;
+import com.mn.im.socket.session.SocketSession;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: GroupFanoutService
+ * @Description: 群消息扩散
+ *  消息先在群会话所属节点上分配序号写入群时间线;
+ *  小群(成员数不超过阈值)再为每个成员分配收件箱序号并批量写入收件箱,成员只需同步自己的收件箱(写扩散),
+ *  收件箱按所属节点分组,其它节点的收件箱转发过去写入;
+ *  大群只保存一份,成员按自己的游标增量拉取群时间线(读扩散);
+ *  会话线程只负责序号分配和保存,查询成员、写扩散和在线推送都在扩散线程池上执行,
+ *  在线推送按成员分批,各批在扩散线程上并行查询所在节点,按节点合并到路由周期中发布
+ * @date 2026-10-17
+ */
+@Slf4j
+@Service
+public class GroupFanoutService {
+
+    /**
+     * @Fields  : 转发给收件箱所属节点的写扩散,payload为群消息,userIds为收件箱所属用户
+     * @author qiaomengnan
+     */
+    private static final String INBOX_WRITE = "$INBOX_WRITE";
+
+    @Autowired
+    private SocketProperties socketProperties;
+
+    @Autowired
+    private GroupMemberSource groupMemberSource;
+
+    @Autowired
+    private SequenceAllocator sequenceAllocator;
+
+    @Autowired
+    private MessageStore messageStore;
+
+    @Autowired
+    private ConversationExecutor conversationExecutor;
+
+    @Autowired
+    private MessageRouter messageRouter;
+
+    @Autowired
+    private IdempotencyGuard idempotencyGuard;
+
+    @Autowired
+    private SocketMetrics socketMetrics;
+
+    @Autowired
+    private ConversationOwner conversationOwner;
+
+    @Autowired
+    private ConversationForwarder conversationForwarder;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger index = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(Math.max(1, socketProperties.getGroup().getFanoutThreads()), runnable -> {
+            Thread thread = new Thread(runnable, "socket-fanout-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        conversationForwarder.register(MessageTypes.GROUP, (message, ack) -> accept(message, ack, System.nanoTime()));
+        messageRouter.register(INBOX_WRITE, envelope ->
+                writeLocalInboxes(JSON.parseObject(envelope.getPayload(), Message.class), envelope.getUserIds()));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    /**
+     * @Title:
+     * @Description:   发送群消息,处理完成后通过ack返回服务端消息ID和序号
+     * @param session
+     * @param data
+     * @param ackRequest
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 19:10:20
+     */
+    public void send(SocketSession session, Message data, AckRequest ackRequest) {
+        long start = System.nanoTime();
+        if (StringUtils.isTrimBlank(data.getGroupId())) {
+            log.warn("群消息未指定群ID,忽略:{}", session);
+            return;
+        }
+        Message message = new Message();
+        message.setType(MessageTypes.GROUP);
+        message.setFromUserId(session.getUserId());
+        message.setGroupId(data.getGroupId());
+        message.setConversationId(ConversationIds.group(data.getGroupId()));
+        message.setMsg(data.getMsg());
+        message.setClientMsgId(data.getClientMsgId());
+        if (idempotencyGuard.isRetry(session, message.getClientMsgId(), ackRequest)) {
+            return;
+        }
+        Consumer<Message> ack = idempotencyGuard.acknowledger(session, ackRequest);
+        String owner = conversationOwner.owner(message.getConversationId());
+        if (!owner.equals(socketProperties.getNodeId())) {
+            conversationForwarder.forward(owner, message, ack);
+            return;
+        }
+        accept(message, ack, start);
+    }
+
+    /**
+     * @Title:
+     * @Description:   在群会话所属节点上保存并扩散消息
+     * @param message 发送方、群ID、会话ID等已填好
+     * @param ack 回复发送方的确认信息
+     * @param start 开始处理的时间(纳秒)
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/18 14:55:30
+     */
+    private void accept(Message message, Consumer<Message> ack, long start) {
+        conversationExecutor.execute(message.getConversationId(), () -> {
+            try {
+                if (!groupMemberSource.isMember(message.getGroupId(), message.getFromUserId())) {
+                    log.warn("用户{}不是群{}的成员,忽略消息", message.getFromUserId(), message.getGroupId());
+                    return;
+                }
+                Message accepted = idempotencyGuard.findAccepted(message.getConversationId(), message.getClientMsgId());
+                if (accepted != null) {
+                    ack.accept(accepted);
+                    return;
+                }
+                message.setMsgId(UUIDUtils.getUUID());
+                message.setSeq(sequenceAllocator.next(message.getConversationId()));
+                message.setSendTime(System.currentTimeMillis());
+                if (!messageStore.append(message)) {
+                    // 布隆过滤器不命中,但归属变化前其它节点已经接受过,分配的序号作废
+                    Message original = idempotencyGuard.duplicated(message.getConversationId(), message.getClientMsgId());
+                    if (original != null) {
+                        ack.accept(original);
+                    }
+                    return;
+                }
+                idempotencyGuard.accepted(message);
+                ack.accept(IdempotencyGuard.ack(message));
+                // 查询成员、写扩散和推送都不占用会话线程
+                executor.execute(() -> diffuse(message));
+            } finally {
+                socketMetrics.handled(MessageTypes.GROUP, start);
+            }
+        });
+    }
+
+    /**
+     * @Title:
+     * @Description:   在扩散线程上查询成员,小群写入成员收件箱,再分批在线推送
+     * @param message
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/18 16:20:05
+     */
+    private void diffuse(Message message) {
+        try {
+            List<String> members = groupMemberSource.members(message.getGroupId());
+            if (members.size() <= socketProperties.getGroup().getWriteDiffusionThreshold()) {
+                writeInboxes(message, members);
+            }
+            fanout(message, members);
+        } catch (Exception ex) {
+            log.error("群{}消息扩散失败", message.getGroupId(), ex);
+        }
+    }
+
+    /**
+     * @Title:
+     * @Description:   写扩散: 复制到每个成员的收件箱
+     *  收件箱的序号只在其所属节点上分配,按所属节点分组,本节点的直接写入,其它节点的合并转发
+     * @param message
+     * @param members
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 19:12:05
+     */
+    private void writeInboxes(Message message, List<String> members) {
+        Map<String, List<String>> byOwner = conversationOwner.byOwner(members, ConversationIds::inbox);
+        String payload = null;
+        for (Map.Entry<String, List<String>> entry : byOwner.entrySet()) {
+            if (entry.getKey().equals(socketProperties.getNodeId())) {
+                writeLocalInboxes(message, entry.getValue());
+                continue;
+            }
+            if (payload == null) {
+                payload = JSON.toJSONString(message);
+            }
+            RouteEnvelope envelope = new RouteEnvelope(null, INBOX_WRITE, payload, true, null);
+            envelope.setUserIds(entry.getValue());
+            messageRouter.send(entry.getKey(), envelope);
+        }
+    }
+
+    /**
+     * @Title:
+     * @Description:   写入本节点所属的收件箱
+     *  收件箱会被多个群同时写入,序号分配和写入都在收件箱所属的会话线程上执行(与增量同步同一线程),
+     *  同一线程上的收件箱一次批量写入
+     * @param message
+     * @param userIds
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/18 14:58:12
+     */
+    private void writeLocalInboxes(Message message, List<String> userIds) {
+        conversationExecutor.executeAll(userIds, ConversationIds::inbox, group -> writeInbox(message, group));
+    }
+
+    private void writeInbox(Message message, List<String> userIds) {
+        List<String> inboxes = new ArrayList<>(userIds.size());
+        for (String userId : userIds) {
+            inboxes.add(ConversationIds.inbox(userId));
+        }
+        // 本线程上的收件箱一次批量申请号段
+        List<Long> seqs = sequenceAllocator.nextAll(inboxes);
+        List<Message> copies = new ArrayList<>(userIds.size());
+        for (int i = 0; i < userIds.size(); i++) {
+            Message copy = new Message();
+            copy.setType(message.getType());
+            copy.setMsgId(message.getMsgId());
+            copy.setFromUserId(message.getFromUserId());
+            copy.setToUserId(userIds.get(i));
+            copy.setGroupId(message.getGroupId());
+            copy.setConversationId(inboxes.get(i));
+            copy.setSeq(seqs.get(i));
+            copy.setSendTime(message.getSendTime());
+            copy.setMsg(message.getMsg());
+            copies.add(copy);
+        }
+        messageStore.appendAll(copies);
+    }
+
+    /**
+     * @Title:
+     * @Description:   在线推送,成员按批提交到扩散线程池并行路由,推送的是群时间线上的消息
+     * @param message
+     * @param members
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 19:13:30
+     */
+    private void fanout(Message message, List<String> members) {
+        String payload = JSON.toJSONString(message);
+        int chunk = Math.max(1, socketProperties.getGroup().getFanoutChunk());
+        for (int from = 0; from < members.size(); from += chunk) {
+            List<String> userIds = members.subList(from, Math.min(members.size(), from + chunk));
+            executor.execute(() -> {
+                try {
+                    messageRouter.routeMany(userIds, SocketEvents.USER_MSG, payload, true, message.getMsgId());
+                } catch (Exception ex) {
+                    log.error("群{}消息推送失败", message.getGroupId(), ex);
+                }
+            });
+        }
+    }
+
+}
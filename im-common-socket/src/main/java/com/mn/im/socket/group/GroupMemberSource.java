@@ -0,0 +1,61 @@
+package com.mn.im.socket.group;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: GroupMemberSource
+ * @Description: 群成员,由群管理服务维护,socket节点只读
+ * @date 2026-10-17
+ */
+public interface GroupMemberSource {
+
+    /**
+     * @Title:
+     * @Description:   群全部成员
+     * @param groupId
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 18:50:12
+     */
+    List<String> members(String groupId);
+
+    /**
+     * @Title:
+     * @Description:   是否为群成员
+     * @param groupId
+     * @param userId
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 18:50:31
+     */
+    boolean isMember(String groupId, String userId);
+
+    /**
+     * @Title:
+     * @Description:   加入群成员
+     * @param groupId
+     * @param userIds
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 18:50:50
+     */
+    void addMembers(String groupId, Collection<String> userIds);
+
+    /**
+     * @Title:
+     * @Description:   移除群成员
+     * @param groupId
+     * @param userIds
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 18:51:06
+     */
+    void removeMembers(String groupId, Collection<String> userIds);
+
+}
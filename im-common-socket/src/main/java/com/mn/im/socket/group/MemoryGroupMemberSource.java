@@ -0,0 +1,51 @@
+package com.mn.im.socket.group;
+
+import com.mn.im.socket.netty.SocketProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: MemoryGroupMemberSource
+ * @Description: 内存群成员,同一个JVM内的多个节点共享,用于测试
+ * @date 2026-10-17
+ */
+@Component
+@ConditionalOnProperty(prefix = "im.socket", name = "store", havingValue = SocketProperties.STORE_MEMORY)
+public class MemoryGroupMemberSource implements GroupMemberSource {
+
+    private static final Map<String, Set<String>> GROUPS = new ConcurrentHashMap<>();
+
+    @Override
+    public List<String> members(String groupId) {
+        Set<String> members = GROUPS.get(groupId);
+        return members == null ? new ArrayList<>() : new ArrayList<>(members);
+    }
+
+    @Override
+    public boolean isMember(String groupId, String userId) {
+        Set<String> members = GROUPS.get(groupId);
+        return members != null && members.contains(userId);
+    }
+
+    @Override
+    public void addMembers(String groupId, Collection<String> userIds) {
+        GROUPS.computeIfAbsent(groupId, key -> ConcurrentHashMap.newKeySet()).addAll(userIds);
+    }
+
+    @Override
+    public void removeMembers(String groupId, Collection<String> userIds) {
+        Set<String> members = GROUPS.get(groupId);
+        if (members != null) {
+            members.removeAll(userIds);
+        }
+    }
+
+}
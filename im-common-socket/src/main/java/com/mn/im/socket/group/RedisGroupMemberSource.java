@@ -0,0 +1,57 @@
+package com.mn.im.socket.group;
+
+import com.mn.im.core.common.constant.common.RedisKeys;
+import com.mn.im.core.common.utils.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: RedisGroupMemberSource
+ * @Description: redis set 保存群成员
+ * @date 2026-10-17
+ */
+@Component
+@ConditionalOnProperty(prefix = "im.socket", name = "store", havingValue = "redis", matchIfMissing = true)
+public class RedisGroupMemberSource implements GroupMemberSource {
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Override
+    public List<String> members(String groupId) {
+        Set<String> members = stringRedisTemplate.opsForSet().members(key(groupId));
+        return members == null ? new ArrayList<>() : new ArrayList<>(members);
+    }
+
+    @Override
+    public boolean isMember(String groupId, String userId) {
+        return Boolean.TRUE.equals(stringRedisTemplate.opsForSet().isMember(key(groupId), userId));
+    }
+
+    @Override
+    public void addMembers(String groupId, Collection<String> userIds) {
+        if (!userIds.isEmpty()) {
+            stringRedisTemplate.opsForSet().add(key(groupId), userIds.toArray(new String[0]));
+        }
+    }
+
+    @Override
+    public void removeMembers(String groupId, Collection<String> userIds) {
+        if (!userIds.isEmpty()) {
+            stringRedisTemplate.opsForSet().remove(key(groupId), userIds.toArray());
+        }
+    }
+
+    private String key(String groupId) {
+        return StringUtils.join(RedisKeys.SOCKET_GROUP_MEMBERS_PREFIX, groupId);
+    }
+
+}
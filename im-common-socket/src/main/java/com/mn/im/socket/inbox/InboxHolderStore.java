@@ -0,0 +1,50 @@
+package com.mn.im.socket.inbox;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: InboxHolderStore
+ * @Description: 用户 -> 保存了其离线收件箱的节点 映射
+ * @date 2026-10-17
+ */
+public interface InboxHolderStore {
+
+    /**
+     * @Title:
+     * @Description:   登记节点保存了这些用户的离线消息
+     * @param userIds
+     * @param nodeId
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/18 15:30:12
+     */
+    void add(Collection<String> userIds, String nodeId);
+
+    /**
+     * @Title:
+     * @Description:   节点已补发完这些用户的离线消息
+     * @param userIds
+     * @param nodeId
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/18 15:30:40
+     */
+    void remove(Collection<String> userIds, String nodeId);
+
+    /**
+     * @Title:
+     * @Description:   批量查询保存了用户离线消息的节点
+     * @param userIds
+     * @return userId -> nodeId集合,没有离线消息的用户不返回
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/18 15:31:05
+     */
+    Map<String, Set<String>> locate(Collection<String> userIds);
+
+}
@@ -0,0 +1,55 @@
+package com.mn.im.socket.inbox;
+
+import com.mn.im.socket.netty.SocketProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: MemoryInboxHolderStore
+ * @Description: 内存离线收件箱节点映射,同一个JVM内的多个节点共享,用于测试
+ * @date 2026-10-17
+ */
+@Component
+@ConditionalOnProperty(prefix = "im.socket", name = "store", havingValue = SocketProperties.STORE_MEMORY)
+public class MemoryInboxHolderStore implements InboxHolderStore {
+
+    private static final Map<String, Set<String>> HOLDERS = new ConcurrentHashMap<>();
+
+    @Override
+    public void add(Collection<String> userIds, String nodeId) {
+        for (String userId : userIds) {
+            HOLDERS.computeIfAbsent(userId, key -> ConcurrentHashMap.newKeySet()).add(nodeId);
+        }
+    }
+
+    @Override
+    public void remove(Collection<String> userIds, String nodeId) {
+        for (String userId : userIds) {
+            HOLDERS.computeIfPresent(userId, (key, nodes) -> {
+                nodes.remove(nodeId);
+                return nodes.isEmpty() ? null : nodes;
+            });
+        }
+    }
+
+    @Override
+    public Map<String, Set<String>> locate(Collection<String> userIds) {
+        Map<String, Set<String>> result = new HashMap<>();
+        for (String userId : userIds) {
+            Set<String> nodes = HOLDERS.get(userId);
+            if (nodes != null && !nodes.isEmpty()) {
+                result.put(userId, new HashSet<>(nodes));
+            }
+        }
+        return result;
+    }
+
+}
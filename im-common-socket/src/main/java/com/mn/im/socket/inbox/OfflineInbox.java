@@ -0,0 +1,386 @@
+package com.mn.im.socket.inbox;
+
+import com.mn.im.core.common.exception.ServiceException;
+import com.mn.im.socket.netty.SocketProperties;
+import com.mn.im.socket.route.RouteEnvelope;
+import io.netty.util.internal.PlatformDependent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: OfflineInbox
+ * @Description: 本节点的离线收件箱
+ *  不在线用户的通知顺序追加到内存映射的段文件中,内存里只保存 userId -> 记录偏移量 的索引;
+ *  用户重连时按索引读取属于自己的记录,读取量只与该用户的新数据有关;
+ *  段写满后滚动新段,超过保留时间的段整段删除
+ * @date 2026-10-17
+ */
+@Slf4j
+@Component
+public class OfflineInbox {
+
+    private static final String SUFFIX = ".seg";
+
+    /**
+     * @Fields  : 记录头: 长度(int),已取出的记录长度置为负数
+     * @author qiaomengnan
+     */
+    private static final int HEADER = 4;
+
+    @Autowired
+    private SocketProperties socketProperties;
+
+    /**
+     * @Fields  : 按起始偏移量升序的段
+     * @author qiaomengnan
+     */
+    private final List<Segment> segments = new ArrayList<>();
+
+    /**
+     * @Fields  : userId -> 未读记录的全局偏移量
+     * @author qiaomengnan
+     */
+    private final Map<String, Offsets> index = new HashMap<>();
+
+    private File dir;
+
+    private int segmentSize;
+
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    public void init() throws IOException {
+        SocketProperties.Inbox inbox = socketProperties.getInbox();
+        dir = new File(inbox.getDir());
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("无法创建离线收件箱目录:" + dir.getAbsolutePath());
+        }
+        segmentSize = inbox.getSegmentSize();
+        recover();
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "socket-inbox");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::retain, 1, 1, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public synchronized void destroy() {
+        executor.shutdown();
+        for (Segment segment : segments) {
+            segment.close();
+        }
+        segments.clear();
+    }
+
+    /**
+     * @Title:
+     * @Description:   追加一条离线消息
+     * @param envelope
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 16:40:12
+     */
+    public synchronized void append(RouteEnvelope envelope) {
+        byte[] userId = envelope.getUserId().getBytes(StandardCharsets.UTF_8);
+        byte[] event = envelope.getEvent().getBytes(StandardCharsets.UTF_8);
+        byte[] payload = envelope.getPayload() == null ? new byte[0] : envelope.getPayload().getBytes(StandardCharsets.UTF_8);
+        int length = 8 + 1 + 2 + userId.length + 2 + event.length + 4 + payload.length;
+        if (HEADER + length > segmentSize) {
+            throw new ServiceException("离线消息超过段大小");
+        }
+        Segment segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (segment == null || segment.remaining() < HEADER + length) {
+            segment = roll(segment);
+        }
+        MappedByteBuffer buffer = segment.buffer;
+        int position = segment.writePosition;
+        buffer.position(position + HEADER);
+        buffer.putLong(System.currentTimeMillis());
+        buffer.put((byte) (envelope.isJson() ? 1 : 0));
+        buffer.putShort((short) userId.length).put(userId);
+        buffer.putShort((short) event.length).put(event);
+        buffer.putInt(payload.length).put(payload);
+        // 最后写长度,崩溃时未写完的记录在恢复时被忽略
+        buffer.putInt(position, length);
+        segment.writePosition = position + HEADER + length;
+        segment.lastWrite = System.currentTimeMillis();
+        index.computeIfAbsent(envelope.getUserId(), key -> new Offsets()).add(segment.base + position);
+    }
+
+    /**
+     * @Title:
+     * @Description:   取出用户全部离线消息
+     * @param userId
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 16:41:30
+     */
+    public synchronized List<RouteEnvelope> drain(String userId) {
+        Offsets offsets = index.remove(userId);
+        if (offsets == null || segments.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<RouteEnvelope> envelopes = new ArrayList<>(offsets.size);
+        int segmentIndex = 0;
+        for (int i = 0; i < offsets.size; i++) {
+            long offset = offsets.values[i];
+            // 偏移量递增,段也只需向后查找
+            while (segmentIndex < segments.size() && offset >= segments.get(segmentIndex).end()) {
+                segmentIndex++;
+            }
+            if (segmentIndex == segments.size()) {
+                break;
+            }
+            Segment segment = segments.get(segmentIndex);
+            if (offset < segment.base) {
+                // 所在段已过期删除
+                continue;
+            }
+            int position = (int) (offset - segment.base);
+            envelopes.add(read(segment.buffer.duplicate(), position));
+            // 标记为已取出,重启恢复时跳过
+            segment.buffer.putInt(position, -segment.buffer.getInt(position));
+        }
+        return envelopes;
+    }
+
+    /**
+     * @Title:
+     * @Description:   当前有离线消息的用户数
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 16:42:05
+     */
+    public synchronized int userCount() {
+        return index.size();
+    }
+
+    /**
+     * @Title:
+     * @Description:   滚动到新段
+     * @param current
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 16:43:10
+     */
+    private Segment roll(Segment current) {
+        long base = current == null ? 0 : current.base + current.writePosition;
+        if (current != null) {
+            current.buffer.force();
+        }
+        try {
+            Segment segment = Segment.open(new File(dir, name(base)), base, segmentSize);
+            segments.add(segment);
+            return segment;
+        } catch (IOException ex) {
+            throw new ServiceException("创建离线收件箱段失败", ex);
+        }
+    }
+
+    /**
+     * @Title:
+     * @Description:   删除超过保留时间的段,并清理指向这些段的索引
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 16:44:21
+     */
+    private synchronized void retain() {
+        try {
+            long expireTime = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(socketProperties.getInbox().getRetainHours());
+            boolean removed = false;
+            // 保留正在写入的最后一段
+            while (segments.size() > 1 && segments.get(0).lastWrite < expireTime) {
+                Segment segment = segments.remove(0);
+                segment.close();
+                if (!segment.file.delete()) {
+                    log.warn("删除离线收件箱段失败:{}", segment.file);
+                }
+                removed = true;
+            }
+            if (removed) {
+                long base = segments.get(0).base;
+                Iterator<Offsets> iterator = index.values().iterator();
+                while (iterator.hasNext()) {
+                    Offsets offsets = iterator.next();
+                    offsets.removeBefore(base);
+                    if (offsets.size == 0) {
+                        iterator.remove();
+                    }
+                }
+            }
+            if (!segments.isEmpty()) {
+                segments.get(segments.size() - 1).buffer.force();
+            }
+        } catch (Exception ex) {
+            log.error("离线收件箱清理失败", ex);
+        }
+    }
+
+    /**
+     * @Title:
+     * @Description:   启动时加载已有的段并重建索引
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 16:45:40
+     */
+    private void recover() throws IOException {
+        File[] files = dir.listFiles((file, name) -> name.endsWith(SUFFIX));
+        if (files == null || files.length == 0) {
+            return;
+        }
+        Arrays.sort(files);
+        for (File file : files) {
+            long base = Long.parseLong(file.getName().substring(0, file.getName().length() - SUFFIX.length()));
+            Segment segment = Segment.open(file, base, (int) Math.max(file.length(), segmentSize));
+            segment.lastWrite = file.lastModified();
+            MappedByteBuffer buffer = segment.buffer;
+            int position = 0;
+            while (position + HEADER <= buffer.capacity()) {
+                int length = buffer.getInt(position);
+                if (length == 0 || position + HEADER + Math.abs(length) > buffer.capacity()) {
+                    break;
+                }
+                if (length > 0) {
+                    RouteEnvelope envelope = read(buffer.duplicate(), position);
+                    index.computeIfAbsent(envelope.getUserId(), key -> new Offsets()).add(base + position);
+                }
+                position += HEADER + Math.abs(length);
+            }
+            segment.writePosition = position;
+            segments.add(segment);
+        }
+        log.info("离线收件箱加载{}个段,{}个用户", segments.size(), index.size());
+    }
+
+    private static RouteEnvelope read(ByteBuffer buffer, int position) {
+        // 跳过写入时间
+        buffer.position(position + HEADER + 8);
+        boolean json = buffer.get() == 1;
+        String userId = readString(buffer, buffer.getShort() & 0xFFFF);
+        String event = readString(buffer, buffer.getShort() & 0xFFFF);
+        String payload = readString(buffer, buffer.getInt());
+        return new RouteEnvelope(userId, event, payload, json, null);
+    }
+
+    private static String readString(ByteBuffer buffer, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String name(long base) {
+        return String.format("%020d", base) + SUFFIX;
+    }
+
+    /**
+     * @author qiaomengnan
+     * @ClassName: Segment
+     * @Description: 内存映射的段文件
+     * @date 2026-10-17
+     */
+    private static class Segment {
+
+        private final File file;
+
+        /**
+         * @Fields  : 段内第一条记录的全局偏移量
+         * @author qiaomengnan
+         */
+        private final long base;
+
+        private final MappedByteBuffer buffer;
+
+        private int writePosition;
+
+        private long lastWrite = System.currentTimeMillis();
+
+        private Segment(File file, long base, MappedByteBuffer buffer) {
+            this.file = file;
+            this.base = base;
+            this.buffer = buffer;
+        }
+
+        static Segment open(File file, long base, int size) throws IOException {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw"); FileChannel channel = raf.getChannel()) {
+                return new Segment(file, base, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            }
+        }
+
+        int remaining() {
+            return buffer.capacity() - writePosition;
+        }
+
+        long end() {
+            return base + writePosition;
+        }
+
+        void close() {
+            buffer.force();
+            PlatformDependent.freeDirectBuffer(buffer);
+        }
+
+    }
+
+    /**
+     * @author qiaomengnan
+     * @ClassName: Offsets
+     * @Description: 递增的偏移量列表
+     * @date 2026-10-17
+     */
+    private static class Offsets {
+
+        private long[] values = new long[4];
+
+        private int size;
+
+        void add(long offset) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size << 1);
+            }
+            values[size++] = offset;
+        }
+
+        void removeBefore(long base) {
+            int from = 0;
+            while (from < size && values[from] < base) {
+                from++;
+            }
+            if (from > 0) {
+                System.arraycopy(values, from, values, 0, size - from);
+                size -= from;
+            }
+        }
+
+    }
+
+}
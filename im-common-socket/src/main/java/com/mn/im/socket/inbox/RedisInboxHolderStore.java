@@ -0,0 +1,101 @@
+package com.mn.im.socket.inbox;
+
+import com.mn.im.core.common.constant.common.RedisKeys;
+import com.mn.im.core.common.utils.StringUtils;
+import com.mn.im.socket.netty.SocketProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: RedisInboxHolderStore
+ * @Description: redis set 保存每个用户的离线收件箱所在节点,批量读写使用pipeline,
+ *  过期时间与离线消息保留时间一致,每次写入离线消息时刷新
+ * @date 2026-10-17
+ */
+@Component
+@ConditionalOnProperty(prefix = "im.socket", name = "store", havingValue = "redis", matchIfMissing = true)
+public class RedisInboxHolderStore implements InboxHolderStore {
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private SocketProperties socketProperties;
+
+    @Override
+    public void add(Collection<String> userIds, String nodeId) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        long expire = TimeUnit.HOURS.toSeconds(socketProperties.getInbox().getRetainHours());
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (String userId : userIds) {
+                stringConnection.sAdd(key(userId), nodeId);
+                stringConnection.expire(key(userId), expire);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void remove(Collection<String> userIds, String nodeId) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (String userId : userIds) {
+                stringConnection.sRem(key(userId), nodeId);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public Map<String, Set<String>> locate(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<String> users = new ArrayList<>(userIds);
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (String userId : users) {
+                stringConnection.sMembers(key(userId));
+            }
+            return null;
+        });
+        Map<String, Set<String>> located = new HashMap<>();
+        for (int i = 0; i < users.size(); i++) {
+            Object nodes = results.get(i);
+            if (nodes instanceof Collection && !((Collection<?>) nodes).isEmpty()) {
+                Set<String> res = new HashSet<>();
+                for (Object node : (Collection<?>) nodes) {
+                    res.add(node.toString());
+                }
+                located.put(users.get(i), res);
+            }
+        }
+        return located;
+    }
+
+    private String key(String userId) {
+        return StringUtils.join(RedisKeys.SOCKET_INBOX_HOLDERS_PREFIX, userId);
+    }
+
+}
@@ -0,0 +1,112 @@
+package com.mn.im.socket.message;
+
+import com.mn.im.socket.netty.SocketProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: ConversationExecutor
+ * @Description: 消息处理线程池
+ *  同一会话的任务固定分配到同一个单线程执行器,保证顺序;
+ *  访问redis等阻塞操作不在netty的IO线程上执行
+ * @date 2026-10-17
+ */
+@Slf4j
+@Component
+public class ConversationExecutor {
+
+    @Autowired
+    private SocketProperties socketProperties;
+
+    private ExecutorService[] executors;
+
+    @PostConstruct
+    public void init() {
+        int threads = Math.max(1, socketProperties.getConversation().getWorkerThreads());
+        AtomicInteger index = new AtomicInteger();
+        executors = new ExecutorService[threads];
+        for (int i = 0; i < threads; i++) {
+            executors[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "socket-conversation-" + index.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        for (ExecutorService executor : executors) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * @Title:
+     * @Description:   在会话所属线程上执行任务
+     * @param conversationId
+     * @param task
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 11:40:12
+     */
+    public void execute(String conversationId, Runnable task) {
+        executors[index(conversationId)].execute(() -> {
+            try {
+                task.run();
+            } catch (Exception ex) {
+                log.error("会话{}消息处理失败", conversationId, ex);
+            }
+        });
+    }
+
+    /**
+     * @Title:
+     * @Description:   按会话所属线程分组,在每个线程上批量执行一次任务
+     *  任务收到的元素对应的会话都属于当前线程,与这些会话的其他任务互斥
+     * @param items
+     * @param conversationId 元素对应的会话ID
+     * @param task
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/18 10:40:15
+     */
+    public <T> void executeAll(List<T> items, Function<T, String> conversationId, Consumer<List<T>> task) {
+        Map<Integer, List<T>> groups = new HashMap<>();
+        for (T item : items) {
+            groups.computeIfAbsent(index(conversationId.apply(item)), key -> new ArrayList<>()).add(item);
+        }
+        for (Map.Entry<Integer, List<T>> entry : groups.entrySet()) {
+            List<T> group = entry.getValue();
+            executors[entry.getKey()].execute(() -> {
+                try {
+                    task.accept(group);
+                } catch (Exception ex) {
+                    log.error("会话批量处理失败,共{}个", group.size(), ex);
+                }
+            });
+        }
+    }
+
+    private int index(String conversationId) {
+        int h = conversationId.hashCode();
+        return ((h ^ (h >>> 16)) & 0x7fffffff) % executors.length;
+    }
+
+}
@@ -0,0 +1,151 @@
+package com.mn.im.socket.message;
+
+import com.mn.im.core.common.utils.StringUtils;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: ConversationIds
+ * @Description: 会话ID规则 单聊: s_小ID_大ID 群聊: g_群ID 收件箱: i_用户ID
+ * @date 2026-10-17
+ */
+public class ConversationIds {
+
+    /**
+     * @Fields  : 单聊前缀
+     * @author qiaomengnan
+     */
+    public static final String SINGLE_PREFIX = "s_";
+
+    /**
+     * @Fields  : 群聊会话前缀
+     * @author qiaomengnan
+     */
+    public static final String GROUP_PREFIX = "g_";
+
+    /**
+     * @Fields  : 用户收件箱前缀,小群消息写扩散到每个成员的收件箱
+     * @author qiaomengnan
+     */
+    public static final String INBOX_PREFIX = "i_";
+
+    public static final String DELIMITER = "_";
+
+    /**
+     * @Title:
+     * @Description:   单聊会话ID,两个用户无论谁发送都得到同一个ID
+     * @param userId
+     * @param otherUserId
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 11:30:20
+     */
+    public static String single(String userId, String otherUserId) {
+        if (userId.compareTo(otherUserId) <= 0) {
+            return StringUtils.join(SINGLE_PREFIX, userId, DELIMITER, otherUserId);
+        }
+        return StringUtils.join(SINGLE_PREFIX, otherUserId, DELIMITER, userId);
+    }
+
+    /**
+     * @Title:
+     * @Description:   是否为单聊会话
+     * @param conversationId
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 11:31:02
+     */
+    public static boolean isSingle(String conversationId) {
+        return conversationId != null && conversationId.startsWith(SINGLE_PREFIX);
+    }
+
+    /**
+     * @Title:
+     * @Description:   用户是否属于该单聊会话
+     * @param conversationId
+     * @param userId
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 11:31:40
+     */
+    public static boolean isSingleMember(String conversationId, String userId) {
+        if (!isSingle(conversationId) || StringUtils.isTrimBlank(userId)) {
+            return false;
+        }
+        String members = conversationId.substring(SINGLE_PREFIX.length());
+        return members.startsWith(userId + DELIMITER) || members.endsWith(DELIMITER + userId);
+    }
+
+    /**
+     * @Title:
+     * @Description:   单聊会话中的另一个用户
+     * @param conversationId
+     * @param userId
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 11:32:15
+     */
+    public static String singlePeer(String conversationId, String userId) {
+        String members = conversationId.substring(SINGLE_PREFIX.length());
+        if (members.startsWith(userId + DELIMITER)) {
+            return members.substring(userId.length() + DELIMITER.length());
+        }
+        return members.substring(0, members.length() - userId.length() - DELIMITER.length());
+    }
+
+    /**
+     * @Title:
+     * @Description:   群聊会话ID
+     * @param groupId
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 18:40:10
+     */
+    public static String group(String groupId) {
+        return StringUtils.join(GROUP_PREFIX, groupId);
+    }
+
+    /**
+     * @Title:
+     * @Description:   是否为群聊会话
+     * @param conversationId
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 18:40:25
+     */
+    public static boolean isGroup(String conversationId) {
+        return conversationId != null && conversationId.startsWith(GROUP_PREFIX);
+    }
+
+    /**
+     * @Title:
+     * @Description:   从群聊会话ID中取出群ID
+     * @param conversationId
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 18:40:42
+     */
+    public static String groupId(String conversationId) {
+        return conversationId.substring(GROUP_PREFIX.length());
+    }
+
+    /**
+     * @Title:
+     * @Description:   用户收件箱会话ID
+     * @param userId
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 18:41:15
+     */
+    public static String inbox(String userId) {
+        return StringUtils.join(INBOX_PREFIX, userId);
+    }
+
+}
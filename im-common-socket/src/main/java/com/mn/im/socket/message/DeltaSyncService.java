@@ -0,0 +1,138 @@
+package com.mn.im.socket.message;
+
+import com.corundumstudio.socketio.AckCallback;
+import com.mn.im.socket.constant.SocketEvents;
+import com.mn.im.socket.group.GroupMemberSource;
+import com.mn.im.socket.netty.Message;
+import com.mn.im.socket.netty.SocketProperties;
+import com.mn.im.socket.session.SocketSession;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: DeltaSyncService
+ * @Description: 断线重连后的增量同步
+ *  客户端上报每个会话已收到的最大序号,服务端只推送之后的消息;
+ *  每批等待客户端确认后再推送下一批,单个会话推送总量有上限;
+ *  群会话未上报序号时从服务端保存的游标开始,客户端确认后前移游标
+ * @date 2026-10-17
+ */
+@Slf4j
+@Service
+public class DeltaSyncService {
+
+    @Autowired
+    private SocketProperties socketProperties;
+
+    @Autowired
+    private MessageStore messageStore;
+
+    @Autowired
+    private ConversationExecutor conversationExecutor;
+
+    @Autowired
+    private GroupMemberSource groupMemberSource;
+
+    @Autowired
+    private SyncCursorStore syncCursorStore;
+
+    /**
+     * @Title:
+     * @Description:   增量同步
+     * @param session
+     * @param syncSeqs 会话ID -> 客户端已收到的最大序号
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 12:10:05
+     */
+    public void sync(SocketSession session, Map<String, Long> syncSeqs) {
+        if (syncSeqs == null || syncSeqs.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<String, Long> entry : syncSeqs.entrySet()) {
+            String conversationId = entry.getKey();
+            Long syncSeq = entry.getValue();
+            if (ConversationIds.isGroup(conversationId)) {
+                conversationExecutor.execute(conversationId, () -> {
+                    String userId = session.getUserId();
+                    if (!groupMemberSource.isMember(ConversationIds.groupId(conversationId), userId)) {
+                        log.warn("用户{}无权同步会话{}", userId, conversationId);
+                        return;
+                    }
+                    long afterSeq = syncSeq == null ? syncCursorStore.get(conversationId, userId) : syncSeq;
+                    push(session, conversationId, afterSeq, 0);
+                });
+                continue;
+            }
+            if (!ConversationIds.isSingleMember(conversationId, session.getUserId())
+                    && !ConversationIds.inbox(session.getUserId()).equals(conversationId)) {
+                log.warn("用户{}无权同步会话{}", session.getUserId(), conversationId);
+                continue;
+            }
+            long afterSeq = syncSeq == null ? 0 : syncSeq;
+            conversationExecutor.execute(conversationId, () -> push(session, conversationId, afterSeq, 0));
+        }
+    }
+
+    /**
+     * @Title:
+     * @Description:   推送一批消息,客户端确认后继续推送下一批
+     * @param session
+     * @param conversationId
+     * @param afterSeq
+     * @param pushed 已推送条数
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 12:12:40
+     */
+    private void push(SocketSession session, String conversationId, long afterSeq, int pushed) {
+        if (!session.isOpen()) {
+            return;
+        }
+        SocketProperties.Conversation conversation = socketProperties.getConversation();
+        int limit = Math.min(conversation.getSyncBatchSize(), conversation.getSyncMaxCount() - pushed);
+        if (limit <= 0) {
+            return;
+        }
+        List<Message> messages = messageStore.range(conversationId, afterSeq, limit);
+        if (messages.isEmpty()) {
+            return;
+        }
+        int total = pushed + messages.size();
+        boolean more = messages.size() == limit && total < conversation.getSyncMaxCount();
+        long lastSeq = messages.get(messages.size() - 1).getSeq();
+        SyncBatch batch = new SyncBatch(conversationId, messages, more);
+        boolean group = ConversationIds.isGroup(conversationId);
+        // 经下行队列写出,连接不可写时积压超限的批次按确认超时处理,客户端下次同步时补齐
+        if (!more && !group) {
+            session.send(SocketEvents.USER_MSG_SYNC, batch);
+            return;
+        }
+        session.send(SocketEvents.USER_MSG_SYNC, batch, new AckCallback<Object>(Object.class, conversation.getSyncAckTimeout()) {
+            @Override
+            public void onSuccess(Object result) {
+                conversationExecutor.execute(conversationId, () -> {
+                    if (group) {
+                        syncCursorStore.advance(conversationId, session.getUserId(), lastSeq);
+                    }
+                    if (more) {
+                        push(session, conversationId, lastSeq, total);
+                    }
+                });
+            }
+
+            @Override
+            public void onTimeout() {
+                log.debug("增量同步等待确认超时,停止推送:{} {}", session, conversationId);
+            }
+        });
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.mn.im.socket.message;
+
+import com.mn.im.socket.netty.Message;
+import com.mn.im.socket.netty.SocketProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: MemoryMessageStore
+ * @Description: 内存会话消息存储,同一个JVM内的多个节点共享,用于测试
+ * @date 2026-10-17
+ */
+@Component
+@ConditionalOnProperty(prefix = "im.socket", name = "store", havingValue = SocketProperties.STORE_MEMORY)
+public class MemoryMessageStore implements MessageStore {
+
+    private static final Map<String, ConcurrentNavigableMap<Long, Message>> CONVERSATIONS = new ConcurrentHashMap<>();
+
+    @Autowired
+    private SocketProperties socketProperties;
+
+    @Override
+    public boolean append(Message message) {
+        ConcurrentNavigableMap<Long, Message> messages = CONVERSATIONS
+                .computeIfAbsent(message.getConversationId(), key -> new ConcurrentSkipListMap<>());
+        synchronized (messages) {
+            if (message.getClientMsgId() != null && findByClientMsgId(message.getConversationId(), message.getClientMsgId()) != null) {
+                return false;
+            }
+            messages.put(message.getSeq(), message);
+            while (messages.size() > socketProperties.getConversation().getRetainCount()) {
+                messages.pollFirstEntry();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void appendAll(List<Message> messages) {
+        for (Message message : messages) {
+            append(message);
+        }
+    }
+
+    @Override
+    public List<Message> range(String conversationId, long afterSeq, int limit) {
+        List<Message> result = new ArrayList<>();
+        ConcurrentNavigableMap<Long, Message> messages = CONVERSATIONS.get(conversationId);
+        if (messages == null) {
+            return result;
+        }
+        for (Message message : messages.tailMap(afterSeq, false).values()) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(message);
+        }
+        return result;
+    }
+
+    @Override
+    public Message findByClientMsgId(String conversationId, String clientMsgId) {
+        ConcurrentNavigableMap<Long, Message> messages = CONVERSATIONS.get(conversationId);
+        if (messages == null) {
+            return null;
+        }
+        for (Message message : messages.descendingMap().values()) {
+            if (clientMsgId.equals(message.getClientMsgId())) {
+                return message;
+            }
+        }
+        return null;
+    }
+
+}
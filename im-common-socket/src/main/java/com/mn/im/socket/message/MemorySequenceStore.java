@@ -0,0 +1,39 @@
+package com.mn.im.socket.message;
+
+import com.mn.im.socket.netty.SocketProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: MemorySequenceStore
+ * @Description: 内存会话序号,同一个JVM内的多个节点共享,用于测试
+ * @date 2026-10-17
+ */
+@Component
+@ConditionalOnProperty(prefix = "im.socket", name = "store", havingValue = SocketProperties.STORE_MEMORY)
+public class MemorySequenceStore implements SequenceStore {
+
+    private static final Map<String, AtomicLong> SEQUENCES = new ConcurrentHashMap<>();
+
+    @Override
+    public long incrementBy(String conversationId, int delta) {
+        return SEQUENCES.computeIfAbsent(conversationId, key -> new AtomicLong()).addAndGet(delta);
+    }
+
+    @Override
+    public List<Long> incrementAll(List<String> conversationIds, int delta) {
+        List<Long> values = new ArrayList<>(conversationIds.size());
+        for (String conversationId : conversationIds) {
+            values.add(incrementBy(conversationId, delta));
+        }
+        return values;
+    }
+
+}
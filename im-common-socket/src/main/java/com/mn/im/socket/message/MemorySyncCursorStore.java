@@ -0,0 +1,34 @@
+package com.mn.im.socket.message;
+
+import com.mn.im.socket.netty.SocketProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: MemorySyncCursorStore
+ * @Description: 内存同步游标,同一个JVM内的多个节点共享,用于测试
+ * @date 2026-10-17
+ */
+@Component
+@ConditionalOnProperty(prefix = "im.socket", name = "store", havingValue = SocketProperties.STORE_MEMORY)
+public class MemorySyncCursorStore implements SyncCursorStore {
+
+    private static final Map<String, Map<String, Long>> CURSORS = new ConcurrentHashMap<>();
+
+    @Override
+    public long get(String conversationId, String userId) {
+        Map<String, Long> cursors = CURSORS.get(conversationId);
+        Long seq = cursors == null ? null : cursors.get(userId);
+        return seq == null ? 0 : seq;
+    }
+
+    @Override
+    public void advance(String conversationId, String userId, long seq) {
+        CURSORS.computeIfAbsent(conversationId, key -> new ConcurrentHashMap<>()).merge(userId, seq, Math::max);
+    }
+
+}
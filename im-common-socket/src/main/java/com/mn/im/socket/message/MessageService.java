@@ -0,0 +1,144 @@
+package com.mn.im.socket.message;
+
+import com.alibaba.fastjson.JSON;
+import com.corundumstudio.socketio.AckRequest;
+import com.mn.im.core.common.utils.StringUtils;
+import com.mn.im.core.common.utils.UUIDUtils;
+import com.mn.im.socket.constant.MessageTypes;
+import com.mn.im.socket.constant.SocketEvents;
+import com.mn.im.socket.dedup.IdempotencyGuard;
+import com.mn.im.socket.metrics.SocketMetrics;
+import com.mn.im.socket.netty.Message;
+import com.mn.im.socket.netty.SocketProperties;
+import com.mn.im.socket.route.ConversationForwarder;
+import com.mn.im.socket.route.ConversationOwner;
+import com.mn.im.socket.route.MessageRouter;
+import com.mn.im.socket.session.SocketSession;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.function.Consumer;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: MessageService
+ * @Description: 聊天消息处理: 分配序号、保存、投递
+ *  会话不属于本节点时转发给所属节点处理,所属节点处理完成后经本节点回复客户端
+ * @date 2026-10-17
+ */
+@Slf4j
+@Service
+public class MessageService {
+
+    @Autowired
+    private SocketProperties socketProperties;
+
+    @Autowired
+    private SequenceAllocator sequenceAllocator;
+
+    @Autowired
+    private MessageStore messageStore;
+
+    @Autowired
+    private ConversationExecutor conversationExecutor;
+
+    @Autowired
+    private MessageRouter messageRouter;
+
+    @Autowired
+    private IdempotencyGuard idempotencyGuard;
+
+    @Autowired
+    private SocketMetrics socketMetrics;
+
+    @Autowired
+    private ConversationOwner conversationOwner;
+
+    @Autowired
+    private ConversationForwarder conversationForwarder;
+
+    @PostConstruct
+    public void init() {
+        conversationForwarder.register(MessageTypes.CHAT, (message, ack) -> accept(message, ack, System.nanoTime()));
+    }
+
+    /**
+     * @Title:
+     * @Description:   发送单聊消息,处理完成后通过ack返回服务端消息ID和序号
+     * @param session
+     * @param data
+     * @param ackRequest
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 11:50:31
+     */
+    public void send(SocketSession session, Message data, AckRequest ackRequest) {
+        long start = System.nanoTime();
+        if (StringUtils.isTrimBlank(data.getToUserId())) {
+            log.warn("消息未指定接收人,忽略:{}", session);
+            return;
+        }
+        Message message = new Message();
+        message.setType(MessageTypes.CHAT);
+        message.setFromUserId(session.getUserId());
+        message.setToUserId(data.getToUserId());
+        message.setConversationId(ConversationIds.single(session.getUserId(), data.getToUserId()));
+        message.setMsg(data.getMsg());
+        message.setClientMsgId(data.getClientMsgId());
+        if (idempotencyGuard.isRetry(session, message.getClientMsgId(), ackRequest)) {
+            return;
+        }
+        Consumer<Message> ack = idempotencyGuard.acknowledger(session, ackRequest);
+        String owner = conversationOwner.owner(message.getConversationId());
+        if (!owner.equals(socketProperties.getNodeId())) {
+            conversationForwarder.forward(owner, message, ack);
+            return;
+        }
+        accept(message, ack, start);
+    }
+
+    /**
+     * @Title:
+     * @Description:   在会话所属节点上保存并投递消息
+     * @param message 发送方、接收方、会话ID等已填好
+     * @param ack 回复发送方的确认信息
+     * @param start 开始处理的时间(纳秒)
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/18 14:50:10
+     */
+    private void accept(Message message, Consumer<Message> ack, long start) {
+        conversationExecutor.execute(message.getConversationId(), () -> {
+            try {
+                Message accepted = idempotencyGuard.findAccepted(message.getConversationId(), message.getClientMsgId());
+                if (accepted != null) {
+                    ack.accept(accepted);
+                    return;
+                }
+                message.setMsgId(UUIDUtils.getUUID());
+                message.setSeq(sequenceAllocator.next(message.getConversationId()));
+                message.setSendTime(System.currentTimeMillis());
+                if (!messageStore.append(message)) {
+                    // 布隆过滤器不命中,但归属变化前其它节点已经接受过,分配的序号作废
+                    Message original = idempotencyGuard.duplicated(message.getConversationId(), message.getClientMsgId());
+                    if (original != null) {
+                        ack.accept(original);
+                    }
+                    return;
+                }
+                idempotencyGuard.accepted(message);
+                ack.accept(IdempotencyGuard.ack(message));
+                String payload = JSON.toJSONString(message);
+                messageRouter.route(message.getToUserId(), SocketEvents.USER_MSG, payload, true, message.getMsgId());
+                messageRouter.route(message.getFromUserId(), SocketEvents.USER_MSG, payload, true, message.getMsgId());
+            } finally {
+                socketMetrics.handled(MessageTypes.CHAT, start);
+            }
+        });
+    }
+
+}
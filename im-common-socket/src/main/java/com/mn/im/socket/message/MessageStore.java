@@ -0,0 +1,62 @@
+package com.mn.im.socket.message;
+
+import com.mn.im.socket.netty.Message;
+
+import java.util.List;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: MessageStore
+ * @Description: 会话最近消息存储,用于断线重连后的增量同步
+ * @date 2026-10-17
+ */
+public interface MessageStore {
+
+    /**
+     * @Title:
+     * @Description:   保存消息,带clientMsgId的消息与登记clientMsgId原子完成
+     * @param message
+     * @return false表示去重窗口内已保存过同一clientMsgId的消息,本次未保存
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 11:15:02
+     */
+    boolean append(Message message);
+
+    /**
+     * @Title:
+     * @Description:   批量追加消息,消息可以属于不同会话
+     * @param messages
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 18:45:02
+     */
+    void appendAll(List<Message> messages);
+
+    /**
+     * @Title:
+     * @Description:   按序号升序查询 afterSeq 之后的消息
+     * @param conversationId
+     * @param afterSeq 不包含
+     * @param limit
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 11:15:30
+     */
+    List<Message> range(String conversationId, long afterSeq, int limit);
+
+    /**
+     * @Title:
+     * @Description:   按客户端消息ID查询最近一个去重窗口内保存的消息
+     * @param conversationId
+     * @param clientMsgId
+     * @return 不存在时返回null
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 20:30:12
+     */
+    Message findByClientMsgId(String conversationId, String clientMsgId);
+
+}
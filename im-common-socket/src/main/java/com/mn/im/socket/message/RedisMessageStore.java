@@ -0,0 +1,135 @@
+package com.mn.im.socket.message;
+
+import com.alibaba.fastjson.JSON;
+import com.mn.im.core.common.constant.common.RedisKeys;
+import com.mn.im.core.common.utils.StringUtils;
+import com.mn.im.socket.netty.Message;
+import com.mn.im.socket.netty.SocketProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: RedisMessageStore
+ * @Description: redis zset 保存会话最近消息,score为序号,写入和裁剪在一次pipeline中完成;
+ *  clientMsgId按去重窗口分hash保存,带clientMsgId的消息在脚本中先HSETNX登记,已存在时不写入
+ * @date 2026-10-17
+ */
+@Component
+@ConditionalOnProperty(prefix = "im.socket", name = "store", havingValue = "redis", matchIfMissing = true)
+public class RedisMessageStore implements MessageStore {
+
+    /**
+     * @Fields  : 上一个窗口没有且当前窗口HSETNX成功时写入并裁剪消息,返回1,否则返回0
+     *  KEYS为 会话消息,当前窗口clientMsgId,上一个窗口clientMsgId,
+     *  ARGV为 clientMsgId,序号,消息,保留条数,消息过期时间(秒),clientMsgId过期时间(毫秒)
+     * @author qiaomengnan
+     */
+    private static final RedisScript<Long> APPEND = new DefaultRedisScript<>(
+            "if redis.call('HEXISTS', KEYS[3], ARGV[1]) == 1 "
+                    + "or redis.call('HSETNX', KEYS[2], ARGV[1], ARGV[2]) == 0 then return 0 end "
+                    + "redis.call('PEXPIRE', KEYS[2], ARGV[6]) "
+                    + "redis.call('ZADD', KEYS[1], ARGV[2], ARGV[3]) "
+                    + "redis.call('ZREMRANGEBYRANK', KEYS[1], 0, -tonumber(ARGV[4]) - 1) "
+                    + "redis.call('EXPIRE', KEYS[1], ARGV[5]) "
+                    + "return 1", Long.class);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private SocketProperties socketProperties;
+
+    @Override
+    public boolean append(Message message) {
+        if (message.getClientMsgId() == null) {
+            appendAll(Collections.singletonList(message));
+            return true;
+        }
+        SocketProperties.Conversation conversation = socketProperties.getConversation();
+        long window = socketProperties.getDedup().getWindow();
+        long bucket = message.getSendTime() / window;
+        List<String> keys = Arrays.asList(key(message.getConversationId()),
+                clientKey(message.getConversationId(), bucket), clientKey(message.getConversationId(), bucket - 1));
+        Long appended = stringRedisTemplate.execute(APPEND, keys, message.getClientMsgId(), String.valueOf(message.getSeq()),
+                JSON.toJSONString(message), String.valueOf(conversation.getRetainCount()),
+                String.valueOf(TimeUnit.DAYS.toSeconds(conversation.getRetainDays())), String.valueOf(window * 2));
+        return appended != null && appended == 1;
+    }
+
+    @Override
+    public void appendAll(List<Message> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        SocketProperties.Conversation conversation = socketProperties.getConversation();
+        long expire = TimeUnit.DAYS.toSeconds(conversation.getRetainDays());
+        long window = socketProperties.getDedup().getWindow();
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (Message message : messages) {
+                String key = key(message.getConversationId());
+                stringConnection.zAdd(key, message.getSeq(), JSON.toJSONString(message));
+                stringConnection.zRemRange(key, 0, -conversation.getRetainCount() - 1);
+                stringConnection.expire(key, expire);
+                if (message.getClientMsgId() != null) {
+                    String clientKey = clientKey(message.getConversationId(), message.getSendTime() / window);
+                    stringConnection.hSet(clientKey, message.getClientMsgId(), String.valueOf(message.getSeq()));
+                    stringConnection.pExpire(clientKey, window * 2);
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public List<Message> range(String conversationId, long afterSeq, int limit) {
+        Set<String> values = stringRedisTemplate.opsForZSet()
+                .rangeByScore(key(conversationId), afterSeq + 1, Double.MAX_VALUE, 0, limit);
+        List<Message> messages = new ArrayList<>();
+        if (values != null) {
+            for (String value : values) {
+                messages.add(JSON.parseObject(value, Message.class));
+            }
+        }
+        return messages;
+    }
+
+    @Override
+    public Message findByClientMsgId(String conversationId, String clientMsgId) {
+        long window = socketProperties.getDedup().getWindow();
+        long bucket = System.currentTimeMillis() / window;
+        // 当前窗口和上一个窗口
+        for (long i = bucket; i >= bucket - 1; i--) {
+            Object seq = stringRedisTemplate.opsForHash().get(clientKey(conversationId, i), clientMsgId);
+            if (seq != null) {
+                long value = Long.parseLong(seq.toString());
+                Set<String> values = stringRedisTemplate.opsForZSet().rangeByScore(key(conversationId), value, value);
+                return values == null || values.isEmpty() ? null : JSON.parseObject(values.iterator().next(), Message.class);
+            }
+        }
+        return null;
+    }
+
+    private String clientKey(String conversationId, long bucket) {
+        return StringUtils.join(RedisKeys.SOCKET_CLIENT_MSG_PREFIX, conversationId, ":", String.valueOf(bucket));
+    }
+
+    private String key(String conversationId) {
+        return StringUtils.join(RedisKeys.SOCKET_CONVERSATION_PREFIX, conversationId);
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.mn.im.socket.message;
+
+import com.mn.im.core.common.constant.common.RedisKeys;
+import com.mn.im.core.common.utils.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: RedisSequenceStore
+ * @Description: redis INCRBY 申请号段,多个会话一起申请时使用pipeline
+ * @date 2026-10-17
+ */
+@Component
+@ConditionalOnProperty(prefix = "im.socket", name = "store", havingValue = "redis", matchIfMissing = true)
+public class RedisSequenceStore implements SequenceStore {
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Override
+    public long incrementBy(String conversationId, int delta) {
+        return stringRedisTemplate.opsForValue().increment(StringUtils.join(RedisKeys.SOCKET_SEQ_PREFIX, conversationId), delta);
+    }
+
+    @Override
+    public List<Long> incrementAll(List<String> conversationIds, int delta) {
+        if (conversationIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (String conversationId : conversationIds) {
+                stringConnection.incrBy(StringUtils.join(RedisKeys.SOCKET_SEQ_PREFIX, conversationId), delta);
+            }
+            return null;
+        });
+        List<Long> values = new ArrayList<>(results.size());
+        for (Object result : results) {
+            values.add(((Number) result).longValue());
+        }
+        return values;
+    }
+
+}
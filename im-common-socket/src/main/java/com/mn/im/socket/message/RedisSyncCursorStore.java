@@ -0,0 +1,51 @@
+package com.mn.im.socket.message;
+
+import com.mn.im.core.common.constant.common.RedisKeys;
+import com.mn.im.core.common.utils.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: RedisSyncCursorStore
+ * @Description: redis hash 保存同步游标,每个会话一个hash
+ * @date 2026-10-17
+ */
+@Component
+@ConditionalOnProperty(prefix = "im.socket", name = "store", havingValue = "redis", matchIfMissing = true)
+public class RedisSyncCursorStore implements SyncCursorStore {
+
+    /**
+     * @Fields  : 新值更大时才写入
+     * @author qiaomengnan
+     */
+    private static final RedisScript<Long> ADVANCE = new DefaultRedisScript<>(
+            "local old = tonumber(redis.call('HGET', KEYS[1], ARGV[1]) or '0') "
+                    + "if tonumber(ARGV[2]) > old then redis.call('HSET', KEYS[1], ARGV[1], ARGV[2]) return 1 end "
+                    + "return 0", Long.class);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Override
+    public long get(String conversationId, String userId) {
+        Object value = stringRedisTemplate.opsForHash().get(key(conversationId), userId);
+        return value == null ? 0 : Long.parseLong(value.toString());
+    }
+
+    @Override
+    public void advance(String conversationId, String userId, long seq) {
+        stringRedisTemplate.execute(ADVANCE, Collections.singletonList(key(conversationId)), userId, String.valueOf(seq));
+    }
+
+    private String key(String conversationId) {
+        return StringUtils.join(RedisKeys.SOCKET_CURSOR_PREFIX, conversationId);
+    }
+
+}
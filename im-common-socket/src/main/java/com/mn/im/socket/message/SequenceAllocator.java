@@ -0,0 +1,179 @@
+package com.mn.im.socket.message;
+
+import com.mn.im.socket.netty.SocketProperties;
+import com.mn.im.socket.route.ConversationOwner;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: SequenceAllocator
+ * @Description: 会话序号分配
+ *  每次预取一个号段,号段用完之前不访问存储。只在会话所属节点(ConversationOwner)上调用,
+ *  同一会话同一时间只有一个节点持有号段,序号不会在节点间交错;
+ *  存活节点变化后会话可能换了所属节点,之前预取的号段全部作废,重新申请的号段一定大于其它节点已分配的序号。
+ *  号段按会话LRU缓存,被淘汰的号段作废后不再分配,未用完的序号形成空洞,客户端需容忍空洞
+ * @date 2026-10-17
+ */
+@Component
+public class SequenceAllocator {
+
+    @Autowired
+    private SocketProperties socketProperties;
+
+    @Autowired
+    private SequenceStore sequenceStore;
+
+    @Autowired
+    private ConversationOwner conversationOwner;
+
+    /**
+     * @Fields  : 会话 -> 号段,按访问顺序淘汰,读写都在map的锁内
+     * @author qiaomengnan
+     */
+    private Map<String, Range> ranges;
+
+    @PostConstruct
+    public void init() {
+        int cacheSize = socketProperties.getConversation().getSeqCacheSize();
+        ranges = new LinkedHashMap<String, Range>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Range> eldest) {
+                if (size() <= cacheSize) {
+                    return false;
+                }
+                Range range = eldest.getValue();
+                synchronized (range) {
+                    range.retired = true;
+                }
+                return true;
+            }
+        };
+    }
+
+    /**
+     * @Title:
+     * @Description:   分配会话的下一个序号,需要在会话所属节点上调用
+     * @param conversationId
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 11:10:42
+     */
+    public long next(String conversationId) {
+        return next(conversationId, blockSize(), conversationOwner.epoch(), null);
+    }
+
+    /**
+     * @Title:
+     * @Description:   批量分配多个会话的下一个序号,需要申请号段的会话一次批量申请
+     * @param conversationIds
+     * @return 与conversationIds顺序对应的序号
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/18 16:10:32
+     */
+    public List<Long> nextAll(List<String> conversationIds) {
+        int blockSize = blockSize();
+        long epoch = conversationOwner.epoch();
+        List<String> exhausted = new ArrayList<>();
+        for (String conversationId : conversationIds) {
+            Range range = range(conversationId);
+            synchronized (range) {
+                if (range.retired || range.exhausted(epoch)) {
+                    exhausted.add(conversationId);
+                }
+            }
+        }
+        Map<String, Long> leased = new HashMap<>();
+        if (!exhausted.isEmpty()) {
+            List<Long> maxes = sequenceStore.incrementAll(exhausted, blockSize);
+            for (int i = 0; i < exhausted.size(); i++) {
+                leased.put(exhausted.get(i), maxes.get(i));
+            }
+        }
+        List<Long> seqs = new ArrayList<>(conversationIds.size());
+        for (String conversationId : conversationIds) {
+            seqs.add(next(conversationId, blockSize, epoch, leased.remove(conversationId)));
+        }
+        return seqs;
+    }
+
+    /**
+     * @Title:
+     * @Description:   分配下一个序号,号段用完时优先使用预先申请的号段
+     * @param conversationId
+     * @param blockSize
+     * @param epoch
+     * @param leased 预先申请的号段上限,只有大于当前号段时才使用,否则重新申请
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/18 16:12:10
+     */
+    private long next(String conversationId, int blockSize, long epoch, Long leased) {
+        while (true) {
+            Range range = range(conversationId);
+            synchronized (range) {
+                // 取出后到加锁前已被淘汰,淘汰后的号段不能再分配,否则会小于新号段的序号
+                if (range.retired) {
+                    continue;
+                }
+                if (range.exhausted(epoch)) {
+                    long max = leased != null && leased > range.max ? leased : sequenceStore.incrementBy(conversationId, blockSize);
+                    leased = null;
+                    range.next = max - blockSize + 1;
+                    range.max = max;
+                    range.epoch = epoch;
+                }
+                return range.next++;
+            }
+        }
+    }
+
+    private Range range(String conversationId) {
+        synchronized (ranges) {
+            return ranges.computeIfAbsent(conversationId, key -> new Range());
+        }
+    }
+
+    private int blockSize() {
+        return Math.max(1, socketProperties.getConversation().getSeqBlockSize());
+    }
+
+    private static class Range {
+
+        private long next = 1;
+
+        private long max = 0;
+
+        /**
+         * @Fields  : 预取号段时的归属代次
+         * @author qiaomengnan
+         */
+        private long epoch;
+
+        /**
+         * @Fields  : 是否已被淘汰
+         * @author qiaomengnan
+         */
+        private boolean retired;
+
+        // 号段用完,或者是归属变化之前预取的
+        private boolean exhausted(long epoch) {
+            return next > max || this.epoch < epoch;
+        }
+
+    }
+
+}
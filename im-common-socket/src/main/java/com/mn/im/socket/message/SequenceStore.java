@@ -0,0 +1,37 @@
+package com.mn.im.socket.message;
+
+import java.util.List;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: SequenceStore
+ * @Description: 会话序号持久化,只在申请号段时访问
+ * @date 2026-10-17
+ */
+public interface SequenceStore {
+
+    /**
+     * @Title:
+     * @Description:   会话序号增加delta,返回增加后的值
+     * @param conversationId
+     * @param delta
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 11:02:15
+     */
+    long incrementBy(String conversationId, int delta);
+
+    /**
+     * @Title:
+     * @Description:   多个会话序号各增加delta,一次批量访问存储
+     * @param conversationIds
+     * @param delta
+     * @return 与conversationIds顺序对应的增加后的值
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/18 16:05:20
+     */
+    List<Long> incrementAll(List<String> conversationIds, int delta);
+
+}
@@ -0,0 +1,39 @@
+package com.mn.im.socket.message;
+
+import com.mn.im.socket.netty.Message;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: SyncBatch
+ * @Description: 增量同步推送的一批消息
+ * @date 2026-10-17
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncBatch {
+
+    /**
+     * @Fields  : 会话ID
+     * @author qiaomengnan
+     */
+    private String conversationId;
+
+    /**
+     * @Fields  : 按序号升序的消息
+     * @author qiaomengnan
+     */
+    private List<Message> messages;
+
+    /**
+     * @Fields  : 是否还有后续批次,为false且未追平时客户端改走历史消息接口
+     * @author qiaomengnan
+     */
+    private boolean more;
+
+}
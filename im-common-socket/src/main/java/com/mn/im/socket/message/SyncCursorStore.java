@@ -0,0 +1,36 @@
+package com.mn.im.socket.message;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: SyncCursorStore
+ * @Description: 成员在会话中已同步到的序号,读扩散的大群按游标拉取群时间线
+ * @date 2026-10-17
+ */
+public interface SyncCursorStore {
+
+    /**
+     * @Title:
+     * @Description:   查询游标
+     * @param conversationId
+     * @param userId
+     * @return 没有记录时返回0
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 18:55:20
+     */
+    long get(String conversationId, String userId);
+
+    /**
+     * @Title:
+     * @Description:   前移游标,只会变大
+     * @param conversationId
+     * @param userId
+     * @param seq
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 18:55:41
+     */
+    void advance(String conversationId, String userId, long seq);
+
+}
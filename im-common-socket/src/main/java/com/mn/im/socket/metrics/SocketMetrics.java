@@ -0,0 +1,272 @@
+package com.mn.im.socket.metrics;
+
+import com.mn.im.socket.constant.MessageTypes;
+import com.mn.im.socket.netty.SocketProperties;
+import com.mn.im.socket.session.SessionRegistry;
+import com.mn.im.socket.session.SocketSession;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: SocketMetrics
+ * @Description: socket节点运行指标
+ *  计数使用LongAdder,耗时使用HdrHistogram的Recorder,记录时无锁,可以在netty的IO线程上调用;
+ *  统计线程按周期切换Recorder的区间直方图并生成快照,由actuator的socket端点返回
+ * @date 2026-10-17
+ */
+@Slf4j
+@Component
+public class SocketMetrics {
+
+    /**
+     * @Fields  : 直方图有效数字位数
+     * @author qiaomengnan
+     */
+    private static final int DIGITS = 2;
+
+    /**
+     * @Fields  : 处理耗时上限(微秒),超过按上限记录
+     * @author qiaomengnan
+     */
+    private static final long MAX_HANDLER_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    /**
+     * @Fields  : 投递耗时上限(毫秒),超过按上限记录
+     * @author qiaomengnan
+     */
+    private static final long MAX_DELIVERY_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    @Autowired
+    private SocketProperties socketProperties;
+
+    @Autowired
+    private SessionRegistry sessionRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Rate connects = new Rate();
+
+    private final Rate disconnects = new Rate();
+
+    private final Rate inbound = new Rate();
+
+    private final Rate outbound = new Rate();
+
+    /**
+     * @Fields  : 消息类型 -> 处理耗时,初始化后只读
+     * @author qiaomengnan
+     */
+    private final Map<String, Recorder> handlers = new LinkedHashMap<>();
+
+    /**
+     * @Fields  : 推送到客户端ack确认的耗时
+     * @author qiaomengnan
+     */
+    private final Recorder delivery = new Recorder(MAX_DELIVERY_MILLIS, DIGITS);
+
+    /**
+     * @Fields  : 上一个周期的处理耗时(全部类型)和投递耗时,供micrometer读取
+     * @author qiaomengnan
+     */
+    private volatile Histogram lastHandler = new Histogram(MAX_HANDLER_MICROS, DIGITS);
+
+    private volatile Histogram lastDelivery = new Histogram(MAX_DELIVERY_MILLIS, DIGITS);
+
+    private volatile Map<String, Object> snapshot = Collections.emptyMap();
+
+    private long lastSampleTime = System.currentTimeMillis();
+
+    private ScheduledExecutorService executor;
+
+    public SocketMetrics() {
+        for (String type : Arrays.asList(MessageTypes.CHAT, MessageTypes.GROUP, MessageTypes.SYNC, MessageTypes.READ,
+                MessageTypes.SIGNAL, MessageTypes.PRESENCE)) {
+            handlers.put(type, new Recorder(MAX_HANDLER_MICROS, DIGITS));
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        FunctionCounter.builder("im.socket.connect", connects.adder, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("im.socket.disconnect", disconnects.adder, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("im.socket.inbound", inbound.adder, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("im.socket.outbound", outbound.adder, LongAdder::sum).register(meterRegistry);
+        Gauge.builder("im.socket.connections", sessionRegistry, SessionRegistry::sessionCount).register(meterRegistry);
+        Gauge.builder("im.socket.handler.time", this, metrics -> metrics.lastHandler.getValueAtPercentile(99))
+                .tag("percentile", "0.99").baseUnit("microseconds").register(meterRegistry);
+        Gauge.builder("im.socket.delivery.latency", this, metrics -> metrics.lastDelivery.getValueAtPercentile(99))
+                .tag("percentile", "0.99").baseUnit("milliseconds").register(meterRegistry);
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "socket-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = socketProperties.getMetrics().getInterval();
+        executor.scheduleWithFixedDelay(this::sample, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    public void connected() {
+        connects.adder.increment();
+    }
+
+    public void disconnected() {
+        disconnects.adder.increment();
+    }
+
+    public void inbound() {
+        inbound.adder.increment();
+    }
+
+    public void outbound(int count) {
+        outbound.adder.add(count);
+    }
+
+    /**
+     * @Title:
+     * @Description:   记录一次上行消息的处理耗时,未知类型按普通聊天消息统计;
+     *  聊天和群消息在会话线程上处理完成时记录,包含排队等待的时间
+     * @param type 消息类型
+     * @param startNanos 开始处理时的 System.nanoTime()
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 22:30:12
+     */
+    public void handled(String type, long startNanos) {
+        Recorder recorder = handlers.get(type);
+        if (recorder == null) {
+            recorder = handlers.get(MessageTypes.CHAT);
+        }
+        recorder.recordValue(Math.min(Math.max(0, (System.nanoTime() - startNanos) / 1000), MAX_HANDLER_MICROS));
+    }
+
+    /**
+     * @Title:
+     * @Description:   记录一次推送到客户端确认的耗时
+     * @param startMillis 开始推送时的 System.currentTimeMillis()
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 22:31:40
+     */
+    public void delivered(long startMillis) {
+        delivery.recordValue(Math.min(Math.max(0, System.currentTimeMillis() - startMillis), MAX_DELIVERY_MILLIS));
+    }
+
+    /**
+     * @Title:
+     * @Description:   最近一个统计周期的快照
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 22:32:05
+     */
+    public Map<String, Object> snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * @Title:
+     * @Description:   切换区间直方图,计算速率和连接的下行队列深度分布
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 22:33:20
+     */
+    private void sample() {
+        try {
+            long now = System.currentTimeMillis();
+            double seconds = Math.max(1, now - lastSampleTime) / 1000.0;
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("time", now);
+            data.put("window", now - lastSampleTime);
+            lastSampleTime = now;
+            data.put("connections", sessionRegistry.sessionCount());
+            data.put("users", sessionRegistry.userCount());
+            data.put("connect", connects.sample(seconds));
+            data.put("disconnect", disconnects.sample(seconds));
+            data.put("inbound", inbound.sample(seconds));
+            data.put("outbound", outbound.sample(seconds));
+            Histogram depth = new Histogram(DIGITS);
+            for (SocketSession session : sessionRegistry.sessions()) {
+                depth.recordValue(session.getOutbound().size());
+            }
+            data.put("queueDepth", summary(depth));
+            Histogram handlerTotal = new Histogram(MAX_HANDLER_MICROS, DIGITS);
+            Map<String, Object> handlerData = new LinkedHashMap<>();
+            for (Map.Entry<String, Recorder> entry : handlers.entrySet()) {
+                Histogram histogram = entry.getValue().getIntervalHistogram();
+                handlerTotal.add(histogram);
+                handlerData.put(entry.getKey(), summary(histogram));
+            }
+            data.put("handlerMicros", handlerData);
+            Histogram deliveryHistogram = delivery.getIntervalHistogram();
+            data.put("deliveryMillis", summary(deliveryHistogram));
+            lastHandler = handlerTotal;
+            lastDelivery = deliveryHistogram;
+            snapshot = Collections.unmodifiableMap(data);
+        } catch (Exception ex) {
+            log.error("socket指标统计失败", ex);
+        }
+    }
+
+    private static Map<String, Object> summary(Histogram histogram) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("count", histogram.getTotalCount());
+        data.put("mean", Math.round(histogram.getMean() * 100) / 100.0);
+        data.put("p50", histogram.getValueAtPercentile(50));
+        data.put("p90", histogram.getValueAtPercentile(90));
+        data.put("p99", histogram.getValueAtPercentile(99));
+        data.put("p999", histogram.getValueAtPercentile(99.9));
+        data.put("max", histogram.getMaxValue());
+        return data;
+    }
+
+    /**
+     * @author qiaomengnan
+     * @ClassName: Rate
+     * @Description: 累计计数及每个统计周期的速率,sample只在统计线程上调用
+     * @date 2026-10-17
+     */
+    private static class Rate {
+
+        private final LongAdder adder = new LongAdder();
+
+        private long last;
+
+        Map<String, Object> sample(double seconds) {
+            long total = adder.sum();
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("total", total);
+            data.put("perSecond", Math.round((total - last) / seconds * 100) / 100.0);
+            last = total;
+            return data;
+        }
+
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.mn.im.socket.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: SocketMetricsEndpoint
+ * @Description: actuator端点 /actuator/socket,返回最近一个统计周期的连接数、速率、下行队列深度和耗时分布
+ * @date 2026-10-17
+ */
+@Component
+@Endpoint(id = "socket")
+public class SocketMetricsEndpoint {
+
+    @Autowired
+    private SocketMetrics socketMetrics;
+
+    @ReadOperation
+    public Map<String, Object> snapshot() {
+        return socketMetrics.snapshot();
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.mn.im.socket.netty;
+
+import com.corundumstudio.socketio.handler.ClientHead;
+import com.mn.im.socket.session.SessionRegistry;
+import com.mn.im.socket.session.SlowConsumerPolicy;
+import com.mn.im.socket.session.SocketSession;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: BackpressureHandler
+ * @Description: 监听连接可写状态,同步到会话并交给慢连接策略
+ * @date 2026-10-17
+ */
+@Component
+@ChannelHandler.Sharable
+public class BackpressureHandler extends ChannelInboundHandlerAdapter {
+
+    @Autowired
+    private SessionRegistry sessionRegistry;
+
+    @Autowired
+    private SlowConsumerPolicy slowConsumerPolicy;
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        ClientHead client = ctx.channel().attr(ClientHead.CLIENT).get();
+        if (client != null) {
+            SocketSession session = sessionRegistry.getBySessionId(client.getSessionId());
+            if (session != null) {
+                slowConsumerPolicy.writabilityChanged(session, ctx.channel().isWritable());
+            }
+        }
+        super.channelWritabilityChanged(ctx);
+    }
+
+}
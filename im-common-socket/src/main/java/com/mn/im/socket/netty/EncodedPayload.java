@@ -0,0 +1,87 @@
+package com.mn.im.socket.netty;
+
+import com.alibaba.fastjson.JSON;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+import java.io.IOException;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: EncodedPayload
+ * @Description: 预先编码好的事件数据
+ *  同一份数据推送给多个连接时只做一次json序列化,
+ *  netty-socketio编码每个连接的数据包时直接拷贝已编码的字节
+ * @date 2026-10-17
+ */
+public final class EncodedPayload {
+
+    /**
+     * @Fields  : 已编码的json,内部缓存utf-8字节,只读共享
+     * @author qiaomengnan
+     */
+    private final SerializedString json;
+
+    private EncodedPayload(String json) {
+        this.json = new SerializedString(json);
+        // 提前生成utf-8字节,避免各IO线程各自转换
+        this.json.asUnquotedUTF8();
+    }
+
+    /**
+     * @Title:
+     * @Description:   编码对象
+     * @param data
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 14:02:10
+     */
+    public static EncodedPayload of(Object data) {
+        if (data instanceof EncodedPayload) {
+            return (EncodedPayload) data;
+        }
+        return new EncodedPayload(JSON.toJSONString(data));
+    }
+
+    /**
+     * @Title:
+     * @Description:   使用已经是json格式的字符串
+     * @param json
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 14:02:45
+     */
+    public static EncodedPayload ofJson(String json) {
+        return new EncodedPayload(json);
+    }
+
+    @Override
+    public String toString() {
+        return json.getValue();
+    }
+
+    /**
+     * @Title:
+     * @Description:   注册到netty-socketio的jackson序列化模块
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 14:03:30
+     */
+    public static SimpleModule module() {
+        SimpleModule module = new SimpleModule("EncodedPayload");
+        module.addSerializer(EncodedPayload.class, new JsonSerializer<EncodedPayload>() {
+            @Override
+            public void serialize(EncodedPayload value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+                gen.writeRawValue(value.json);
+            }
+        });
+        return module;
+    }
+
+}
@@ -0,0 +1,186 @@
+package com.mn.im.socket.netty;
+
+import com.corundumstudio.socketio.SocketIOServer;
+import com.mn.im.socket.delivery.DeliveryTracker;
+import com.mn.im.socket.presence.PresenceService;
+import com.mn.im.socket.route.MessageRouter;
+import com.mn.im.socket.session.SessionRegistry;
+import com.mn.im.socket.session.SlowConsumerPolicy;
+import com.mn.im.socket.session.SocketSession;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: IdleReaper
+ * @Description: 空闲连接清理
+ *  全部会话挂在一个时间轮上,按预计超时时间放入对应的槽;
+ *  每个刻度只检查到期槽中的会话,期间有心跳的会话按最新活跃时间挪到后面的槽,
+ *  真正超时的会话批量从注册表、在线状态中移除后断开
+ * @date 2026-10-17
+ */
+@Slf4j
+@Component
+public class IdleReaper {
+
+    @Autowired
+    private SocketProperties socketProperties;
+
+    @Autowired
+    private SocketIOServer socketIOServer;
+
+    @Autowired
+    private SessionRegistry sessionRegistry;
+
+    @Autowired
+    private MessageRouter messageRouter;
+
+    @Autowired
+    private DeliveryTracker deliveryTracker;
+
+    @Autowired
+    private PresenceService presenceService;
+
+    @Autowired
+    private SlowConsumerPolicy slowConsumerPolicy;
+
+    private List<Queue<SocketSession>> wheel;
+
+    private long tick;
+
+    private long timeout;
+
+    /**
+     * @Fields  : 已处理到的刻度
+     * @author qiaomengnan
+     */
+    private volatile long processedTick;
+
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        SocketProperties.Heartbeat heartbeat = socketProperties.getHeartbeat();
+        tick = Math.max(10, heartbeat.getReapTick());
+        timeout = heartbeat.getPingTimeout();
+        int slots = (int) (timeout / tick) + 2;
+        wheel = new ArrayList<>(slots);
+        for (int i = 0; i < slots; i++) {
+            wheel.add(new ConcurrentLinkedQueue<>());
+        }
+        processedTick = System.currentTimeMillis() / tick;
+        socketIOServer.addPingListener(client -> {
+            SocketSession session = sessionRegistry.getBySessionId(client.getSessionId());
+            if (session != null) {
+                session.touch();
+            }
+        });
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "socket-idle");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(this::advance, tick, tick, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    /**
+     * @Title:
+     * @Description:   开始检测会话空闲
+     * @param session
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 15:30:12
+     */
+    public void watch(SocketSession session) {
+        schedule(session, processedTick);
+    }
+
+    private void schedule(SocketSession session, long currentTick) {
+        long deadlineTick = Math.max((session.getLastActive() + timeout) / tick, currentTick + 1);
+        wheel.get((int) (deadlineTick % wheel.size())).offer(session);
+    }
+
+    /**
+     * @Title:
+     * @Description:   处理到当前时间为止的所有刻度
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 15:31:40
+     */
+    private void advance() {
+        try {
+            long now = System.currentTimeMillis();
+            long nowTick = now / tick;
+            List<SocketSession> expired = new ArrayList<>();
+            for (long current = processedTick + 1; current <= nowTick; current++) {
+                Queue<SocketSession> slot = wheel.get((int) (current % wheel.size()));
+                int size = slot.size();
+                SocketSession session;
+                // 只处理本刻度开始时已在槽中的会话,期间新加入的留给下一圈
+                while (size-- > 0 && (session = slot.poll()) != null) {
+                    if (sessionRegistry.getBySessionId(session.getSessionId()) != session) {
+                        continue;
+                    }
+                    if (session.getLastActive() + timeout <= now) {
+                        expired.add(session);
+                    } else {
+                        schedule(session, current);
+                    }
+                }
+                processedTick = current;
+            }
+            if (!expired.isEmpty()) {
+                reap(expired);
+            }
+        } catch (Exception ex) {
+            log.error("空闲连接清理失败", ex);
+        }
+    }
+
+    /**
+     * @Title:
+     * @Description:   批量移除超时会话并断开连接
+     * @param expired
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 15:33:02
+     */
+    private void reap(List<SocketSession> expired) {
+        Set<String> offline = new LinkedHashSet<>();
+        for (SocketSession session : expired) {
+            deliveryTracker.discard(session);
+            slowConsumerPolicy.discard(session);
+            if (sessionRegistry.unregister(session)) {
+                offline.add(session.getUserId());
+            }
+        }
+        messageRouter.offline(offline);
+        presenceService.offline(offline);
+        for (SocketSession session : expired) {
+            session.getClient().disconnect();
+        }
+        log.info("清理空闲连接{}个", expired.size());
+    }
+
+}
@@ -2,9 +2,71 @@ package com.mn.im.socket.netty;
 
 import lombok.Data;
 
+import java.util.Map;
+
 @Data
 public class Message {
 
+    /**
+     * @Fields  : 消息类型 chat:聊天 sync:断线重连后增量同步
+     * @author qiaomengnan
+     */
+    private String type;
+
+    /**
+     * @Fields  : 服务端生成的消息ID
+     * @author qiaomengnan
+     */
+    private String msgId;
+
+    /**
+     * @Fields  : 会话ID
+     * @author qiaomengnan
+     */
+    private String conversationId;
+
+    /**
+     * @Fields  : 会话内序号,单调递增
+     * @author qiaomengnan
+     */
+    private Long seq;
+
+    /**
+     * @Fields  : 发送人
+     * @author qiaomengnan
+     */
+    private String fromUserId;
+
+    /**
+     * @Fields  : 接收人
+     * @author qiaomengnan
+     */
+    private String toUserId;
+
+    /**
+     * @Fields  : 发送时间戳
+     * @author qiaomengnan
+     */
+    private Long sendTime;
+
     private String msg;
 
+    /**
+     * @Fields  : 增量同步时客户端各会话已收到的最大序号 conversationId -> seq
+     * @author qiaomengnan
+     */
+    private Map<String, Long> syncSeqs;
+
+    /**
+     * @Fields  : 群ID,群聊消息使用
+     * @author qiaomengnan
+     */
+    private String groupId;
+
+    /**
+     * @Fields  : 客户端生成的消息ID,重发时保持不变,服务端据此去重
+     * @author qiaomengnan
+     */
+    private String clientMsgId;
+
 }
@@ -2,18 +2,88 @@ package com.mn.im.socket.netty;
 
 import com.corundumstudio.socketio.AckRequest;
 import com.corundumstudio.socketio.SocketIOClient;
+import com.corundumstudio.socketio.SocketIOServer;
 import com.corundumstudio.socketio.annotation.OnConnect;
 import com.corundumstudio.socketio.annotation.OnDisconnect;
 import com.corundumstudio.socketio.annotation.OnEvent;
+import com.mn.im.core.common.exception.ServiceException;
+import com.mn.im.core.common.utils.StringUtils;
+import com.mn.im.socket.auth.TokenAuthorizationListener;
+import com.mn.im.socket.codec.MessageCodec;
+import com.mn.im.socket.constant.MessageTypes;
+import com.mn.im.socket.constant.PresenceStatus;
+import com.mn.im.socket.constant.SocketEvents;
+import com.mn.im.socket.constant.SocketParams;
+import com.mn.im.socket.delivery.DeliveryTracker;
+import com.mn.im.socket.group.GroupFanoutService;
+import com.mn.im.socket.message.DeltaSyncService;
+import com.mn.im.socket.message.MessageService;
+import com.mn.im.socket.metrics.SocketMetrics;
+import com.mn.im.socket.presence.PresenceService;
+import com.mn.im.socket.receipt.ReadReceiptService;
+import com.mn.im.socket.route.MessageRouter;
+import com.mn.im.socket.signal.SignalService;
+import com.mn.im.socket.session.OutboundExecutors;
+import com.mn.im.socket.session.SessionRegistry;
+import com.mn.im.socket.session.SlowConsumerPolicy;
+import com.mn.im.socket.session.SocketSession;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Slf4j
 @Component
 public class MessageEventHandler {
 
+    @Autowired
+    private SocketIOServer socketIOServer;
+
+    @Autowired
+    private SessionRegistry sessionRegistry;
+
+    @Autowired
+    private MessageRouter messageRouter;
+
+    @Autowired
+    private OutboundExecutors outboundExecutors;
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private DeliveryTracker deliveryTracker;
+
+    @Autowired
+    private IdleReaper idleReaper;
+
+    @Autowired
+    private SocketProperties socketProperties;
+
+    @Autowired
+    private TokenAuthorizationListener tokenAuthorizationListener;
 
+    @Autowired
+    private DeltaSyncService deltaSyncService;
 
+    @Autowired
+    private GroupFanoutService groupFanoutService;
+
+    @Autowired
+    private PresenceService presenceService;
+
+    @Autowired
+    private SignalService signalService;
+
+    @Autowired
+    private ReadReceiptService readReceiptService;
+
+    @Autowired
+    private SocketMetrics socketMetrics;
+
+    @Autowired
+    private SlowConsumerPolicy slowConsumerPolicy;
 
     /**
      * @Title:
@@ -26,7 +96,26 @@ public class MessageEventHandler {
      */
     @OnConnect
     public void onConnect(SocketIOClient client) {
-
+        String token = client.getHandshakeData().getSingleUrlParam(SocketParams.TOKEN);
+        // 握手时已校验并缓存,这里直接取缓存结果
+        String userId = socketProperties.getAuth().isEnabled() ? tokenAuthorizationListener.resolve(token)
+                : client.getHandshakeData().getSingleUrlParam(SocketParams.USER_ID);
+        if (StringUtils.isTrimBlank(userId)) {
+            log.warn("socket连接未携带用户信息,断开连接:{}", client.getRemoteAddress());
+            client.disconnect();
+            return;
+        }
+        String device = StringUtils.getValue(client.getHandshakeData().getSingleUrlParam(SocketParams.DEVICE),
+                SocketParams.DEFAULT_DEVICE);
+        boolean binary = SocketParams.CODEC_BINARY.equals(client.getHandshakeData().getSingleUrlParam(SocketParams.CODEC));
+        SocketSession session = new SocketSession(client, userId, token, device, binary, outboundExecutors.newQueue());
+        socketMetrics.connected();
+        if (sessionRegistry.register(session)) {
+            messageRouter.online(userId);
+            presenceService.update(userId, PresenceStatus.ONLINE);
+        }
+        idleReaper.watch(session);
+        log.debug("socket连接:{}", session);
     }
 
     /**
@@ -40,7 +129,18 @@ public class MessageEventHandler {
      */
     @OnDisconnect
     public void onDisconnect(SocketIOClient client) {
-
+        // 空闲清理等主动断开时会话已先移除,断开次数仍要统计
+        socketMetrics.disconnected();
+        SocketSession session = sessionRegistry.getBySessionId(client.getSessionId());
+        if (session != null) {
+            deliveryTracker.discard(session);
+            slowConsumerPolicy.discard(session);
+            if (sessionRegistry.unregister(session)) {
+                messageRouter.offline(session.getUserId());
+                presenceService.update(session.getUserId(), PresenceStatus.OFFLINE);
+            }
+            log.debug("socket断开:{}", session);
+        }
     }
 
     /**
@@ -56,7 +156,57 @@ public class MessageEventHandler {
      */
     @OnEvent(value = "USER_MSG")
     public void onEvent(SocketIOClient client, AckRequest request, Message data) {
+        dispatch(client, request, data);
+    }
 
+    /**
+     * @Title:
+     * @Description:   客户端发来二进制编码的请求
+     * @param client 客户端信息
+     * @param request 请求信息
+     * @param data 客户端发送数据
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 16:15:40
+     */
+    @OnEvent(value = "USER_MSG_BIN")
+    public void onBinaryEvent(SocketIOClient client, AckRequest request, byte[] data) {
+        Message message;
+        try {
+            message = MessageCodec.decode(data);
+        } catch (ServiceException ex) {
+            log.warn("二进制消息解析失败:{} {}", client.getSessionId(), ex.getMessage());
+            return;
+        }
+        dispatch(client, request, message);
+    }
+
+    private void dispatch(SocketIOClient client, AckRequest request, Message data) {
+        SocketSession session = sessionRegistry.getBySessionId(client.getSessionId());
+        if (session == null || data == null) {
+            return;
+        }
+        session.touch();
+        socketMetrics.inbound();
+        long start = System.nanoTime();
+        if (MessageTypes.SYNC.equals(data.getType())) {
+            deltaSyncService.sync(session, data.getSyncSeqs());
+        } else if (MessageTypes.READ.equals(data.getType())) {
+            readReceiptService.read(session, data);
+        } else if (MessageTypes.SIGNAL.equals(data.getType())) {
+            signalService.send(session, data);
+        } else if (MessageTypes.PRESENCE.equals(data.getType())) {
+            presenceService.update(session.getUserId(), data.getMsg());
+        } else if (MessageTypes.GROUP.equals(data.getType())) {
+            // 群消息和单聊消息在会话线程上处理完成时记录耗时
+            groupFanoutService.send(session, data, request);
+            return;
+        } else {
+            messageService.send(session, data, request);
+            return;
+        }
+        socketMetrics.handled(data.getType(), start);
     }
 
     /**
@@ -70,7 +220,10 @@ public class MessageEventHandler {
      * @date 2019/12/17 10:35:19
      */
     public void sendMsg(String token , String msg) {
-
+        EncodedPayload payload = EncodedPayload.of(msg);
+        for (SocketSession session : sessionRegistry.getByToken(token)) {
+            session.send(SocketEvents.USER_MSG, payload);
+        }
     }
 
     /**
@@ -84,7 +237,7 @@ public class MessageEventHandler {
      * @date 2019/12/17 01:01:22
      */
     public void sendMsgToUserId(String userId , String msg) {
-
+        messageRouter.route(userId, SocketEvents.USER_MSG, msg, false);
     }
 
 
@@ -99,7 +252,7 @@ public class MessageEventHandler {
      * @date 2019/12/17 01:01:22
      */
     public void sendTaskCastToUserId(String userId , String msg) {
-
+        messageRouter.route(userId, SocketEvents.TASK_CAST, msg, false);
     }
 
     /**
@@ -112,7 +265,7 @@ public class MessageEventHandler {
      * @date 2019/12/17 10:32:35
      */
     public void sendBroadcast(String msg) {
-
+        socketIOServer.getBroadcastOperations().sendEvent(SocketEvents.BROADCAST, EncodedPayload.of(msg));
     }
 
 
@@ -126,9 +279,13 @@ public class MessageEventHandler {
      * @date 2020/02/02 08:54:31
      */
     public void logout(String token) {
-
+        tokenAuthorizationListener.invalidate(token);
+        List<SocketSession> sessions = sessionRegistry.getByToken(token);
+        for (SocketSession session : sessions) {
+            // 经下行队列写出,保证在已入队的消息之后
+            session.send(SocketEvents.LOGOUT, null);
+            session.close();
+        }
     }
 
-
-
 }
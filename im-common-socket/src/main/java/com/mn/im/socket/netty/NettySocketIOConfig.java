@@ -1,21 +1,85 @@
 package com.mn.im.socket.netty;
 
+import com.corundumstudio.socketio.SocketIOChannelInitializer;
 import com.corundumstudio.socketio.SocketIOServer;
 import com.corundumstudio.socketio.annotation.SpringAnnotationScanner;
+import com.corundumstudio.socketio.protocol.JacksonJsonSupport;
+import com.mn.im.socket.auth.TokenAuthorizationListener;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+@Slf4j
 @Configuration
 public class NettySocketIOConfig {
 
+    @Autowired
+    private SocketProperties socketProperties;
+
+    @Autowired
+    private BackpressureHandler backpressureHandler;
+
+    @Autowired
+    private TokenAuthorizationListener tokenAuthorizationListener;
+
     @Bean
     public SocketIOServer socketIOServer() {
         com.corundumstudio.socketio.Configuration configuration = new com.corundumstudio.socketio.Configuration();
-        //configuration.setHostname("localhost");
-        configuration.setPort(9874);
-        configuration.setMaxFramePayloadLength(1024 * 1024 * 1024);
-        configuration.setMaxHttpContentLength(1024 * 1024 * 1024);
-        SocketIOServer socketIOServer = new SocketIOServer(configuration);
+        SocketProperties.Server server = socketProperties.getServer();
+        configuration.setHostname(server.getHostname());
+        configuration.setPort(server.getPort());
+        configuration.setBossThreads(server.getBossThreads());
+        configuration.setWorkerThreads(server.getWorkerThreads());
+        boolean epoll = server.isEpoll() && Epoll.isAvailable();
+        if (server.isEpoll() && !epoll) {
+            log.warn("epoll不可用,使用nio传输", Epoll.unavailabilityCause());
+        }
+        configuration.setUseLinuxNativeEpoll(epoll);
+        configuration.setPreferDirectBuffer(server.isPreferDirectBuffer());
+        configuration.getSocketConfig().setReuseAddress(true);
+        configuration.getSocketConfig().setTcpNoDelay(true);
+        configuration.getSocketConfig().setAcceptBackLog(server.getAcceptBacklog());
+        // 限制单帧大小,大文件走http上传,避免整帧缓存在堆内存里
+        configuration.setMaxFramePayloadLength(server.getMaxFramePayloadLength());
+        configuration.setMaxHttpContentLength(server.getMaxHttpContentLength());
+        SocketProperties.Heartbeat heartbeat = socketProperties.getHeartbeat();
+        configuration.setPingInterval(heartbeat.getPingInterval());
+        // 空闲连接由IdleReaper统一清理,框架自带的单连接超时只作为兜底
+        configuration.setPingTimeout(heartbeat.getPingTimeout() * 2);
+        // 广播等多接收者的数据预先编码一次
+        configuration.setJsonSupport(new JacksonJsonSupport(EncodedPayload.module()));
+        // 握手时校验token,未通过不创建会话
+        configuration.setAuthorizationListener(tokenAuthorizationListener);
+        boolean reusePort = epoll && server.isReusePort();
+        SocketIOServer socketIOServer = new SocketIOServer(configuration) {
+            @Override
+            protected void applyConnectionOptions(ServerBootstrap bootstrap) {
+                super.applyConnectionOptions(bootstrap);
+                bootstrap.childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
+                if (reusePort) {
+                    bootstrap.option(EpollChannelOption.SO_REUSEPORT, true);
+                }
+            }
+        };
+        SocketProperties.Backpressure backpressure = socketProperties.getBackpressure();
+        WriteBufferWaterMark waterMark = new WriteBufferWaterMark(backpressure.getLowWaterMark(), backpressure.getHighWaterMark());
+        socketIOServer.setPipelineFactory(new SocketIOChannelInitializer() {
+            @Override
+            protected void initChannel(Channel ch) throws Exception {
+                super.initChannel(ch);
+                // 超过高水位后连接不可写,由下行队列暂停写出
+                ch.config().setWriteBufferWaterMark(waterMark);
+                ch.pipeline().addFirst(backpressureHandler);
+            }
+        });
         return socketIOServer;
     }
 
@@ -0,0 +1,579 @@
+package com.mn.im.socket.netty;
+
+import com.mn.im.core.common.utils.UUIDUtils;
+import com.mn.im.socket.constant.SocketEvents;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: SocketProperties
+ * @Description: socket节点配置
+ * @date 2026-10-17
+ */
+@ConfigurationProperties(prefix = "im.socket")
+@Component
+@Data
+public class SocketProperties {
+
+    /**
+     * @Fields  : redis 集群存储
+     * @author qiaomengnan
+     */
+    public static final String STORE_REDIS = "redis";
+
+    /**
+     * @Fields  : memory 单机内存存储,用于测试
+     * @author qiaomengnan
+     */
+    public static final String STORE_MEMORY = "memory";
+
+    /**
+     * @Fields  : 慢连接积压超限时转存到离线收件箱
+     * @author qiaomengnan
+     */
+    public static final String POLICY_BUFFER = "buffer";
+
+    /**
+     * @Fields  : 慢连接积压超限时断开连接
+     * @author qiaomengnan
+     */
+    public static final String POLICY_DISCONNECT = "disconnect";
+
+    /**
+     * @Fields  : 节点ID,未配置时启动随机生成
+     * @author qiaomengnan
+     */
+    private String nodeId = UUIDUtils.getUUID();
+
+    /**
+     * @Fields  : 集群数据存储方式 redis、memory
+     * @author qiaomengnan
+     */
+    private String store = STORE_REDIS;
+
+    /**
+     * @Fields  : socket服务端
+     * @author qiaomengnan
+     */
+    private Server server = new Server();
+
+    /**
+     * @Fields  : 握手鉴权
+     * @author qiaomengnan
+     */
+    private Auth auth = new Auth();
+
+    /**
+     * @Fields  : 跨节点路由
+     * @author qiaomengnan
+     */
+    private Route route = new Route();
+
+    /**
+     * @Fields  : 会话消息存储与增量同步
+     * @author qiaomengnan
+     */
+    private Conversation conversation = new Conversation();
+
+    /**
+     * @Fields  : 下行消息合并写出
+     * @author qiaomengnan
+     */
+    private Outbound outbound = new Outbound();
+
+    /**
+     * @Fields  : 可靠投递
+     * @author qiaomengnan
+     */
+    private Delivery delivery = new Delivery();
+
+    /**
+     * @Fields  : 心跳与空闲连接清理
+     * @author qiaomengnan
+     */
+    private Heartbeat heartbeat = new Heartbeat();
+
+    /**
+     * @Fields  : 离线收件箱
+     * @author qiaomengnan
+     */
+    private Inbox inbox = new Inbox();
+
+    /**
+     * @Fields  : 慢连接背压
+     * @author qiaomengnan
+     */
+    private Backpressure backpressure = new Backpressure();
+
+    /**
+     * @Fields  : 群消息扩散
+     * @author qiaomengnan
+     */
+    private Group group = new Group();
+
+    /**
+     * @Fields  : 好友在线状态
+     * @author qiaomengnan
+     */
+    private Presence presence = new Presence();
+
+    /**
+     * @Fields  : 临时信号
+     * @author qiaomengnan
+     */
+    private Signal signal = new Signal();
+
+    /**
+     * @Fields  : 已读回执
+     * @author qiaomengnan
+     */
+    private Receipt receipt = new Receipt();
+
+    /**
+     * @Fields  : 重发消息去重
+     * @author qiaomengnan
+     */
+    private Dedup dedup = new Dedup();
+
+    /**
+     * @Fields  : 运行指标
+     * @author qiaomengnan
+     */
+    private Metrics metrics = new Metrics();
+
+    @Data
+    public static class Server {
+
+        /**
+         * @Fields  : 监听端口
+         * @author qiaomengnan
+         */
+        private int port = 9874;
+
+        /**
+         * @Fields  : 监听地址,为空时监听全部网卡
+         * @author qiaomengnan
+         */
+        private String hostname;
+
+        /**
+         * @Fields  : 接收连接线程数,0使用netty默认值
+         * @author qiaomengnan
+         */
+        private int bossThreads = 1;
+
+        /**
+         * @Fields  : IO线程数,0使用netty默认值(cpu核数*2)
+         * @author qiaomengnan
+         */
+        private int workerThreads = 0;
+
+        /**
+         * @Fields  : linux下可用时使用epoll传输
+         * @author qiaomengnan
+         */
+        private boolean epoll = true;
+
+        /**
+         * @Fields  : 开启SO_REUSEPORT(仅epoll),多个进程可以绑定同一端口由内核分发连接
+         * @author qiaomengnan
+         */
+        private boolean reusePort = false;
+
+        /**
+         * @Fields  : 编码时优先使用池化的直接内存
+         * @author qiaomengnan
+         */
+        private boolean preferDirectBuffer = true;
+
+        /**
+         * @Fields  : 等待accept的连接队列长度
+         * @author qiaomengnan
+         */
+        private int acceptBacklog = 1024;
+
+        /**
+         * @Fields  : websocket单帧最大长度(字节),图片、文件等走http上传后只发送地址
+         * @author qiaomengnan
+         */
+        private int maxFramePayloadLength = 64 * 1024;
+
+        /**
+         * @Fields  : http轮询请求体最大长度(字节)
+         * @author qiaomengnan
+         */
+        private int maxHttpContentLength = 64 * 1024;
+
+    }
+
+    @Data
+    public static class Auth {
+
+        /**
+         * @Fields  : 是否校验token,关闭时直接使用握手参数中的userId(仅用于测试)
+         * @author qiaomengnan
+         */
+        private boolean enabled = true;
+
+        /**
+         * @Fields  : 本地最多缓存的token数
+         * @author qiaomengnan
+         */
+        private int cacheSize = 100000;
+
+        /**
+         * @Fields  : 有效token本地缓存时间(秒)
+         * @author qiaomengnan
+         */
+        private int ttl = 60;
+
+        /**
+         * @Fields  : 无效token本地缓存时间(秒)
+         * @author qiaomengnan
+         */
+        private int negativeTtl = 10;
+
+    }
+
+    @Data
+    public static class Route {
+
+        /**
+         * @Fields  : 批量发布间隔(毫秒)
+         * @author qiaomengnan
+         */
+        private int flushInterval = 5;
+
+        /**
+         * @Fields  : 单次发布最多处理的消息数
+         * @author qiaomengnan
+         */
+        private int maxBatch = 1024;
+
+        /**
+         * @Fields  : 节点心跳间隔(秒)
+         * @author qiaomengnan
+         */
+        private int heartbeatInterval = 5;
+
+        /**
+         * @Fields  : 节点超过该时间(秒)无心跳视为下线
+         * @author qiaomengnan
+         */
+        private int nodeTimeout = 15;
+
+        /**
+         * @Fields  : 消息转发给会话所属节点后等待处理结果的超时时间(秒),超时后不再回复客户端,由客户端重发
+         * @author qiaomengnan
+         */
+        private int forwardTimeout = 10;
+
+    }
+
+    @Data
+    public static class Conversation {
+
+        /**
+         * @Fields  : 会话序号每次预分配的号段大小,序号只在会话所属节点上分配,号段用完前不访问存储
+         * @author qiaomengnan
+         */
+        private int seqBlockSize = 100;
+
+        /**
+         * @Fields  : 本地最多缓存号段的会话数,超出后淘汰最久未用的号段(未用完的序号作废,出现空洞)
+         * @author qiaomengnan
+         */
+        private int seqCacheSize = 100000;
+
+        /**
+         * @Fields  : 每个会话保留的最近消息条数
+         * @author qiaomengnan
+         */
+        private int retainCount = 5000;
+
+        /**
+         * @Fields  : 会话消息保留天数
+         * @author qiaomengnan
+         */
+        private int retainDays = 7;
+
+        /**
+         * @Fields  : 消息处理线程数,同一会话固定在同一线程上保证顺序
+         * @author qiaomengnan
+         */
+        private int workerThreads = Runtime.getRuntime().availableProcessors() * 2;
+
+        /**
+         * @Fields  : 增量同步每批条数
+         * @author qiaomengnan
+         */
+        private int syncBatchSize = 100;
+
+        /**
+         * @Fields  : 增量同步单个会话最多推送条数,超出后客户端改走历史消息接口
+         * @author qiaomengnan
+         */
+        private int syncMaxCount = 2000;
+
+        /**
+         * @Fields  : 增量同步等待客户端确认的超时时间(秒)
+         * @author qiaomengnan
+         */
+        private int syncAckTimeout = 10;
+
+    }
+
+    @Data
+    public static class Outbound {
+
+        /**
+         * @Fields  : 单帧最多合并的消息数,达到后立即写出
+         * @author qiaomengnan
+         */
+        private int maxBatch = 64;
+
+        /**
+         * @Fields  : 第一条消息最多等待的时间(毫秒),0表示只合并同一轮事件循环内产生的消息
+         * @author qiaomengnan
+         */
+        private int maxDelay = 0;
+
+        /**
+         * @Fields  : 写出线程数
+         * @author qiaomengnan
+         */
+        private int threads = Runtime.getRuntime().availableProcessors();
+
+    }
+
+    @Data
+    public static class Delivery {
+
+        /**
+         * @Fields  : 首次等待ack的时间(毫秒)
+         * @author qiaomengnan
+         */
+        private long ackTimeout = 5000;
+
+        /**
+         * @Fields  : 每次重发后等待时间的倍数
+         * @author qiaomengnan
+         */
+        private double backoffMultiplier = 2;
+
+        /**
+         * @Fields  : 等待ack的最长时间(毫秒)
+         * @author qiaomengnan
+         */
+        private long maxAckTimeout = 60000;
+
+        /**
+         * @Fields  : 最多重发次数
+         * @author qiaomengnan
+         */
+        private int maxRetries = 3;
+
+        /**
+         * @Fields  : 时间轮刻度(毫秒)
+         * @author qiaomengnan
+         */
+        private long tickDuration = 100;
+
+        /**
+         * @Fields  : 时间轮槽数
+         * @author qiaomengnan
+         */
+        private int ticksPerWheel = 512;
+
+    }
+
+    @Data
+    public static class Heartbeat {
+
+        /**
+         * @Fields  : 客户端ping间隔(毫秒),握手时下发给客户端
+         * @author qiaomengnan
+         */
+        private int pingInterval = 25000;
+
+        /**
+         * @Fields  : 超过该时间(毫秒)未收到客户端数据视为断开
+         * @author qiaomengnan
+         */
+        private int pingTimeout = 60000;
+
+        /**
+         * @Fields  : 空闲检测时间轮刻度(毫秒)
+         * @author qiaomengnan
+         */
+        private int reapTick = 1000;
+
+    }
+
+    @Data
+    public static class Inbox {
+
+        /**
+         * @Fields  : 段文件目录
+         * @author qiaomengnan
+         */
+        private String dir = "data/inbox";
+
+        /**
+         * @Fields  : 单个段文件大小(字节)
+         * @author qiaomengnan
+         */
+        private int segmentSize = 64 * 1024 * 1024;
+
+        /**
+         * @Fields  : 离线消息保留时间(小时)
+         * @author qiaomengnan
+         */
+        private int retainHours = 72;
+
+    }
+
+    @Data
+    public static class Backpressure {
+
+        /**
+         * @Fields  : 写缓冲低水位(字节),低于后恢复可写
+         * @author qiaomengnan
+         */
+        private int lowWaterMark = 32 * 1024;
+
+        /**
+         * @Fields  : 写缓冲高水位(字节),超过后暂停写出
+         * @author qiaomengnan
+         */
+        private int highWaterMark = 256 * 1024;
+
+        /**
+         * @Fields  : 不可写时下行队列最多积压的消息数
+         * @author qiaomengnan
+         */
+        private int maxQueue = 1000;
+
+        /**
+         * @Fields  : 积压超限的处理策略 buffer、disconnect
+         * @author qiaomengnan
+         */
+        private String policy = POLICY_BUFFER;
+
+        /**
+         * @Fields  : 不可写时直接丢弃的临时事件
+         * @author qiaomengnan
+         */
+        private List<String> ephemeralEvents = new ArrayList<>(Arrays.asList(SocketEvents.PRESENCE, SocketEvents.SIGNAL));
+
+    }
+
+    @Data
+    public static class Group {
+
+        /**
+         * @Fields  : 成员数不超过该值时写扩散(复制到每个成员收件箱),超过后读扩散(成员按游标拉取群时间线)
+         * @author qiaomengnan
+         */
+        private int writeDiffusionThreshold = 200;
+
+        /**
+         * @Fields  : 推送线程数
+         * @author qiaomengnan
+         */
+        private int fanoutThreads = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * @Fields  : 单批推送的成员数,大群拆成多批并行推送
+         * @author qiaomengnan
+         */
+        private int fanoutChunk = 500;
+
+    }
+
+    @Data
+    public static class Presence {
+
+        /**
+         * @Fields  : 状态变化合并周期(毫秒),周期内来回切换只发布最终结果
+         * @author qiaomengnan
+         */
+        private int window = 2000;
+
+        /**
+         * @Fields  : 单次查询好友的用户数
+         * @author qiaomengnan
+         */
+        private int batchSize = 500;
+
+    }
+
+    @Data
+    public static class Signal {
+
+        /**
+         * @Fields  : 同一发送者在同一会话内转发信号的最小间隔(毫秒)
+         * @author qiaomengnan
+         */
+        private int interval = 500;
+
+    }
+
+    @Data
+    public static class Receipt {
+
+        /**
+         * @Fields  : 已读水位批量写入和推送的间隔(毫秒)
+         * @author qiaomengnan
+         */
+        private int flushInterval = 1000;
+
+    }
+
+    @Data
+    public static class Dedup {
+
+        /**
+         * @Fields  : 每个连接保留的最近消息确认数
+         * @author qiaomengnan
+         */
+        private int sessionCapacity = 256;
+
+        /**
+         * @Fields  : 去重窗口(毫秒),超过窗口的重发不保证去重
+         * @author qiaomengnan
+         */
+        private long window = 10 * 60 * 1000;
+
+        /**
+         * @Fields  : 布隆过滤器每个窗口预计写入的消息数
+         * @author qiaomengnan
+         */
+        private int expectedInsertions = 1000000;
+
+        /**
+         * @Fields  : 布隆过滤器误判率,误判只会多查一次存储
+         * @author qiaomengnan
+         */
+        private double fpp = 0.01;
+
+    }
+
+    @Data
+    public static class Metrics {
+
+        /**
+         * @Fields  : 统计周期(毫秒),速率和耗时分布按周期计算
+         * @author qiaomengnan
+         */
+        private int interval = 10000;
+
+    }
+
+}
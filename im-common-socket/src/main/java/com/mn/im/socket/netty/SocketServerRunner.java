@@ -0,0 +1,36 @@
+package com.mn.im.socket.netty;
+
+import com.corundumstudio.socketio.SocketIOServer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: SocketServerRunner
+ * @Description: 容器启动完成后启动socket服务,容器关闭时停止
+ * @date 2026-10-17
+ */
+@Slf4j
+@Component
+public class SocketServerRunner implements CommandLineRunner {
+
+    @Autowired
+    private SocketIOServer socketIOServer;
+
+    @Override
+    public void run(String... args) {
+        socketIOServer.start();
+        log.info("socket服务启动,端口:{}", socketIOServer.getConfiguration().getPort());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        socketIOServer.stop();
+        log.info("socket服务停止");
+    }
+
+}
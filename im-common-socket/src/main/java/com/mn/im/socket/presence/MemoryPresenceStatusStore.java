@@ -0,0 +1,40 @@
+package com.mn.im.socket.presence;
+
+import com.mn.im.socket.constant.PresenceStatus;
+import com.mn.im.socket.netty.SocketProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: MemoryPresenceStatusStore
+ * @Description: 内存在线状态,同一个JVM内的多个节点共享,用于测试
+ * @date 2026-10-17
+ */
+@Component
+@ConditionalOnProperty(prefix = "im.socket", name = "store", havingValue = SocketProperties.STORE_MEMORY)
+public class MemoryPresenceStatusStore implements PresenceStatusStore {
+
+    private static final Map<String, String> STATUS = new ConcurrentHashMap<>();
+
+    @Override
+    public Set<String> compareAndSet(Map<String, String> changes) {
+        Set<String> changed = new HashSet<>();
+        for (Map.Entry<String, String> entry : changes.entrySet()) {
+            String status = entry.getValue();
+            STATUS.compute(entry.getKey(), (userId, old) -> {
+                if (!status.equals(old == null ? PresenceStatus.OFFLINE : old)) {
+                    changed.add(userId);
+                }
+                return PresenceStatus.OFFLINE.equals(status) ? null : status;
+            });
+        }
+        return changed;
+    }
+
+}
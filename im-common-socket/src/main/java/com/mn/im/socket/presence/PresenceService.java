@@ -0,0 +1,202 @@
+package com.mn.im.socket.presence;
+
+import com.alibaba.fastjson.JSON;
+import com.mn.im.socket.auth.MemberDirectory;
+import com.mn.im.socket.constant.PresenceStatus;
+import com.mn.im.socket.constant.SocketEvents;
+import com.mn.im.socket.netty.SocketProperties;
+import com.mn.im.socket.route.MessageRouter;
+import com.mn.im.socket.route.NodePresence;
+import com.mn.im.socket.session.SessionRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: PresenceService
+ * @Description: 好友在线状态
+ *  会话上下线只记录用户的最新状态,每个周期统一处理一次:
+ *  与上次发布的状态相同的(例如切换网络时的断开再重连)直接丢弃,已发布的状态由所有节点共享,
+ *  其余变化批量查询好友后按接收者合并,每个接收者每个周期最多收到一条 {userId: status} 的差异
+ * @date 2026-10-17
+ */
+@Slf4j
+@Service
+public class PresenceService {
+
+    @Autowired
+    private SocketProperties socketProperties;
+
+    @Autowired
+    private SessionRegistry sessionRegistry;
+
+    @Autowired
+    private NodePresence nodePresence;
+
+    @Autowired
+    private MessageRouter messageRouter;
+
+    @Autowired
+    private MemberDirectory memberDirectory;
+
+    @Autowired
+    private PresenceStatusStore presenceStatusStore;
+
+    /**
+     * @Fields  : 本周期内的最新状态
+     * @author qiaomengnan
+     */
+    private final Map<String, String> pending = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "socket-presence");
+            thread.setDaemon(true);
+            return thread;
+        });
+        int window = socketProperties.getPresence().getWindow();
+        executor.scheduleWithFixedDelay(this::flush, window, window, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    /**
+     * @Title:
+     * @Description:   记录用户状态变化,下个周期发布
+     * @param userId
+     * @param status
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 19:30:12
+     */
+    public void update(String userId, String status) {
+        if (!PresenceStatus.ONLINE.equals(status) && !PresenceStatus.AWAY.equals(status)
+                && !PresenceStatus.OFFLINE.equals(status)) {
+            log.warn("未知的在线状态:{} {}", userId, status);
+            return;
+        }
+        pending.put(userId, status);
+    }
+
+    /**
+     * @Title:
+     * @Description:   批量记录用户离线
+     * @param userIds
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 19:30:45
+     */
+    public void offline(Collection<String> userIds) {
+        for (String userId : userIds) {
+            pending.put(userId, PresenceStatus.OFFLINE);
+        }
+    }
+
+    /**
+     * @Title:
+     * @Description:   合并本周期的状态变化并推送给好友
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 19:32:10
+     */
+    private void flush() {
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+            Map<String, String> changes = new HashMap<>();
+            for (Map.Entry<String, String> entry : pending.entrySet()) {
+                // 只移除取出的值,取出后又写入的新状态留到下个周期
+                if (pending.remove(entry.getKey(), entry.getValue())) {
+                    changes.put(entry.getKey(), entry.getValue());
+                }
+            }
+            List<String> offline = new ArrayList<>();
+            for (Map.Entry<String, String> entry : changes.entrySet()) {
+                if (PresenceStatus.OFFLINE.equals(entry.getValue())) {
+                    offline.add(entry.getKey());
+                }
+            }
+            // 本节点断开但仍在其它设备或节点在线的,不算离线
+            if (!offline.isEmpty()) {
+                Map<String, Set<String>> located = nodePresence.locate(offline);
+                for (String userId : offline) {
+                    Set<String> nodes = located.get(userId);
+                    boolean elsewhere = nodes != null && (nodes.size() > 1 || !nodes.contains(socketProperties.getNodeId()));
+                    if (sessionRegistry.isOnline(userId) || elsewhere) {
+                        changes.remove(userId);
+                    }
+                }
+            }
+            if (changes.isEmpty()) {
+                return;
+            }
+            // 与任意节点已发布的状态比较,用户在其它节点离线后再上线不会被当成重复
+            changes.keySet().retainAll(presenceStatusStore.compareAndSet(changes));
+            if (changes.isEmpty()) {
+                return;
+            }
+            publish(changes);
+        } catch (Exception ex) {
+            log.error("在线状态发布失败", ex);
+        }
+    }
+
+    /**
+     * @Title:
+     * @Description:   按接收者合并后推送,只推送给在线的好友
+     * @param changes userId -> 新状态
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 19:34:02
+     */
+    private void publish(Map<String, String> changes) {
+        Map<String, Map<String, String>> diffs = new HashMap<>();
+        List<String> userIds = new ArrayList<>(changes.keySet());
+        int batchSize = Math.max(1, socketProperties.getPresence().getBatchSize());
+        for (int from = 0; from < userIds.size(); from += batchSize) {
+            List<String> batch = userIds.subList(from, Math.min(userIds.size(), from + batchSize));
+            Map<String, List<String>> watchers = memberDirectory.findFriendWatchers(batch);
+            for (Map.Entry<String, List<String>> entry : watchers.entrySet()) {
+                String status = changes.get(entry.getKey());
+                for (String watcher : entry.getValue()) {
+                    diffs.computeIfAbsent(watcher, key -> new HashMap<>()).put(entry.getKey(), status);
+                }
+            }
+        }
+        if (diffs.isEmpty()) {
+            return;
+        }
+        Map<String, Set<String>> located = nodePresence.locate(diffs.keySet());
+        for (Map.Entry<String, Map<String, String>> entry : diffs.entrySet()) {
+            if (located.containsKey(entry.getKey()) || sessionRegistry.isOnline(entry.getKey())) {
+                messageRouter.route(entry.getKey(), SocketEvents.PRESENCE, JSON.toJSONString(entry.getValue()), true);
+            }
+        }
+    }
+
+}
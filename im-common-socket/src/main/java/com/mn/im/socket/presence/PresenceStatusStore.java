@@ -0,0 +1,25 @@
+package com.mn.im.socket.presence;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: PresenceStatusStore
+ * @Description: 已发布的在线状态,所有节点共享,离线用户不保存
+ * @date 2026-10-17
+ */
+public interface PresenceStatusStore {
+
+    /**
+     * @Title:
+     * @Description:   写入新状态,返回与已发布状态不同的用户,对同一用户的比较和写入是原子的
+     * @param changes userId -> 新状态
+     * @return 状态有变化的用户
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/18 11:02:30
+     */
+    Set<String> compareAndSet(Map<String, String> changes);
+
+}
@@ -0,0 +1,79 @@
+package com.mn.im.socket.presence;
+
+import com.mn.im.core.common.constant.common.RedisKeys;
+import com.mn.im.socket.constant.PresenceStatus;
+import com.mn.im.socket.netty.SocketProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: RedisPresenceStatusStore
+ * @Description: redis hash 保存已发布的在线状态,userId -> 状态,离线时删除
+ * @date 2026-10-17
+ */
+@Component
+@ConditionalOnProperty(prefix = "im.socket", name = "store", havingValue = "redis", matchIfMissing = true)
+public class RedisPresenceStatusStore implements PresenceStatusStore {
+
+    /**
+     * @Fields  : 参数为 userId,状态 交替排列,返回状态有变化的用户,以换行分隔
+     * @author qiaomengnan
+     */
+    private static final RedisScript<String> COMPARE_AND_SET = new DefaultRedisScript<>(
+            "local changed = {} "
+                    + "for i = 1, #ARGV, 2 do "
+                    + "local old = redis.call('HGET', KEYS[1], ARGV[i]) or '" + PresenceStatus.OFFLINE + "' "
+                    + "if old ~= ARGV[i + 1] then "
+                    + "if ARGV[i + 1] == '" + PresenceStatus.OFFLINE + "' then redis.call('HDEL', KEYS[1], ARGV[i]) "
+                    + "else redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) end "
+                    + "changed[#changed + 1] = ARGV[i] end end "
+                    + "return table.concat(changed, '\\n')", String.class);
+
+    @Autowired
+    private SocketProperties socketProperties;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Override
+    public Set<String> compareAndSet(Map<String, String> changes) {
+        Set<String> changed = new HashSet<>();
+        List<String> args = new ArrayList<>();
+        int batchSize = Math.max(1, socketProperties.getPresence().getBatchSize());
+        for (Map.Entry<String, String> entry : changes.entrySet()) {
+            args.add(entry.getKey());
+            args.add(entry.getValue());
+            if (args.size() >= batchSize * 2) {
+                execute(args, changed);
+            }
+        }
+        execute(args, changed);
+        return changed;
+    }
+
+    private void execute(List<String> args, Set<String> changed) {
+        if (args.isEmpty()) {
+            return;
+        }
+        String result = stringRedisTemplate.execute(COMPARE_AND_SET,
+                Collections.singletonList(RedisKeys.SOCKET_PRESENCE_STATUS), args.toArray());
+        if (result != null && !result.isEmpty()) {
+            changed.addAll(Arrays.asList(result.split("\n")));
+        }
+        args.clear();
+    }
+
+}
@@ -0,0 +1,38 @@
+package com.mn.im.socket.receipt;
+
+import com.mn.im.socket.netty.SocketProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: MemoryReadWatermarkStore
+ * @Description: 内存已读水位,同一个JVM内的多个节点共享,用于测试
+ * @date 2026-10-17
+ */
+@Component
+@ConditionalOnProperty(prefix = "im.socket", name = "store", havingValue = SocketProperties.STORE_MEMORY)
+public class MemoryReadWatermarkStore implements ReadWatermarkStore {
+
+    private static final Map<String, Map<String, Long>> WATERMARKS = new ConcurrentHashMap<>();
+
+    @Override
+    public void advanceAll(Collection<ReadWatermark> watermarks) {
+        for (ReadWatermark watermark : watermarks) {
+            WATERMARKS.computeIfAbsent(watermark.getConversationId(), key -> new ConcurrentHashMap<>())
+                    .merge(watermark.getUserId(), watermark.getSeq(), Math::max);
+        }
+    }
+
+    @Override
+    public Map<String, Long> get(String conversationId) {
+        Map<String, Long> watermarks = WATERMARKS.get(conversationId);
+        return watermarks == null ? new HashMap<>() : new HashMap<>(watermarks);
+    }
+
+}
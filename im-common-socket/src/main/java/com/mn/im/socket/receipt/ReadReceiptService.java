@@ -0,0 +1,203 @@
+package com.mn.im.socket.receipt;
+
+import com.alibaba.fastjson.JSON;
+import com.mn.im.socket.constant.SocketEvents;
+import com.mn.im.socket.group.GroupMemberSource;
+import com.mn.im.socket.message.ConversationIds;
+import com.mn.im.socket.netty.Message;
+import com.mn.im.socket.netty.SocketProperties;
+import com.mn.im.socket.route.MessageRouter;
+import com.mn.im.socket.route.NodePresence;
+import com.mn.im.socket.session.SessionRegistry;
+import com.mn.im.socket.session.SocketSession;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: ReadReceiptService
+ * @Description: 已读回执
+ *  客户端只上报会话中已读到的序号,不按消息回执;
+ *  周期内同一用户同一会话只保留最大的水位,到期批量写入存储,
+ *  再按接收者合并推送给会话中的其它成员和自己的其它设备,每个接收者每个周期最多一条
+ * @date 2026-10-17
+ */
+@Slf4j
+@Service
+public class ReadReceiptService {
+
+    @Autowired
+    private SocketProperties socketProperties;
+
+    @Autowired
+    private ReadWatermarkStore readWatermarkStore;
+
+    @Autowired
+    private GroupMemberSource groupMemberSource;
+
+    @Autowired
+    private SessionRegistry sessionRegistry;
+
+    @Autowired
+    private NodePresence nodePresence;
+
+    @Autowired
+    private MessageRouter messageRouter;
+
+    /**
+     * @Fields  : 会话ID:用户ID -> 本周期内的最大水位
+     * @author qiaomengnan
+     */
+    private final Map<String, ReadWatermark> pending = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "socket-receipt");
+            thread.setDaemon(true);
+            return thread;
+        });
+        int interval = socketProperties.getReceipt().getFlushInterval();
+        executor.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
+        flush();
+    }
+
+    /**
+     * @Title:
+     * @Description:   客户端上报已读到的序号
+     * @param session
+     * @param data conversationId、seq
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 20:10:12
+     */
+    public void read(SocketSession session, Message data) {
+        String conversationId = data.getConversationId();
+        if (data.getSeq() == null || data.getSeq() <= 0) {
+            return;
+        }
+        if (!ConversationIds.isSingleMember(conversationId, session.getUserId()) && !ConversationIds.isGroup(conversationId)) {
+            log.warn("用户{}无权上报会话{}的已读", session.getUserId(), conversationId);
+            return;
+        }
+        ReadWatermark watermark = new ReadWatermark(conversationId, session.getUserId(), data.getSeq());
+        pending.merge(conversationId + ":" + session.getUserId(), watermark,
+                (current, update) -> current.getSeq() >= update.getSeq() ? current : update);
+    }
+
+    /**
+     * @Title:
+     * @Description:   会话全部成员的已读水位
+     * @param conversationId
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 20:11:05
+     */
+    public Map<String, Long> watermarks(String conversationId) {
+        return readWatermarkStore.get(conversationId);
+    }
+
+    /**
+     * @Title:
+     * @Description:   批量写入本周期的水位并推送
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 20:12:30
+     */
+    private void flush() {
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<ReadWatermark> watermarks = new ArrayList<>();
+            for (Map.Entry<String, ReadWatermark> entry : pending.entrySet()) {
+                // 只移除取出的水位,取出后又合并进来的更大水位留到下个周期
+                if (pending.remove(entry.getKey(), entry.getValue())) {
+                    watermarks.add(entry.getValue());
+                }
+            }
+            Map<String, List<String>> members = new HashMap<>();
+            Map<String, List<ReadWatermark>> byRecipient = new HashMap<>();
+            List<ReadWatermark> accepted = new ArrayList<>(watermarks.size());
+            for (ReadWatermark watermark : watermarks) {
+                List<String> recipients = recipients(watermark, members);
+                if (recipients == null) {
+                    log.warn("用户{}不是会话{}的成员,忽略已读", watermark.getUserId(), watermark.getConversationId());
+                    continue;
+                }
+                accepted.add(watermark);
+                for (String recipient : recipients) {
+                    byRecipient.computeIfAbsent(recipient, key -> new ArrayList<>()).add(watermark);
+                }
+            }
+            readWatermarkStore.advanceAll(accepted);
+            if (byRecipient.isEmpty()) {
+                return;
+            }
+            Map<String, Set<String>> located = nodePresence.locate(byRecipient.keySet());
+            for (Map.Entry<String, List<ReadWatermark>> entry : byRecipient.entrySet()) {
+                if (located.containsKey(entry.getKey()) || sessionRegistry.isOnline(entry.getKey())) {
+                    messageRouter.route(entry.getKey(), SocketEvents.READ, JSON.toJSONString(entry.getValue()), true);
+                }
+            }
+        } catch (Exception ex) {
+            log.error("已读水位写入失败", ex);
+        }
+    }
+
+    /**
+     * @Title:
+     * @Description:   水位变化的接收者,包括上报者自己(同步其它设备)
+     * @param watermark
+     * @param members 本次处理中已查询的群成员
+     * @return 上报者不是会话成员时返回null
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 20:14:02
+     */
+    private List<String> recipients(ReadWatermark watermark, Map<String, List<String>> members) {
+        String conversationId = watermark.getConversationId();
+        String userId = watermark.getUserId();
+        if (ConversationIds.isSingle(conversationId)) {
+            List<String> recipients = new ArrayList<>(2);
+            recipients.add(userId);
+            recipients.add(ConversationIds.singlePeer(conversationId, userId));
+            return recipients;
+        }
+        List<String> groupMembers = members.computeIfAbsent(conversationId,
+                key -> groupMemberSource.members(ConversationIds.groupId(key)));
+        if (!groupMembers.contains(userId)) {
+            return null;
+        }
+        // 大群只同步自己的设备,成员需要时主动查询
+        if (groupMembers.size() > socketProperties.getGroup().getWriteDiffusionThreshold()) {
+            return Collections.singletonList(userId);
+        }
+        return groupMembers;
+    }
+
+}
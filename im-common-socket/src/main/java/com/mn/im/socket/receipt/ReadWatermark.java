@@ -0,0 +1,36 @@
+package com.mn.im.socket.receipt;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: ReadWatermark
+ * @Description: 已读水位,用户在会话中已读到的序号
+ * @date 2026-10-17
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReadWatermark {
+
+    /**
+     * @Fields  : 会话ID
+     * @author qiaomengnan
+     */
+    private String conversationId;
+
+    /**
+     * @Fields  : 已读用户ID
+     * @author qiaomengnan
+     */
+    private String userId;
+
+    /**
+     * @Fields  : 已读到的序号(包含)
+     * @author qiaomengnan
+     */
+    private long seq;
+
+}
@@ -0,0 +1,36 @@
+package com.mn.im.socket.receipt;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: ReadWatermarkStore
+ * @Description: 已读水位存储,每个会话每个用户一个序号,未读数 = 会话最新序号 - 水位
+ * @date 2026-10-17
+ */
+public interface ReadWatermarkStore {
+
+    /**
+     * @Title:
+     * @Description:   批量前移水位,只会变大
+     * @param watermarks
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 20:05:12
+     */
+    void advanceAll(Collection<ReadWatermark> watermarks);
+
+    /**
+     * @Title:
+     * @Description:   会话全部成员的水位
+     * @param conversationId
+     * @return userId -> 已读序号
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 20:05:40
+     */
+    Map<String, Long> get(String conversationId);
+
+}
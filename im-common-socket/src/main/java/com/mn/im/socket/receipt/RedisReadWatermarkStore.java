@@ -0,0 +1,65 @@
+package com.mn.im.socket.receipt;
+
+import com.mn.im.core.common.constant.common.RedisKeys;
+import com.mn.im.core.common.utils.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: RedisReadWatermarkStore
+ * @Description: redis hash 保存已读水位,每个会话一个hash,批量写入在一次pipeline中完成
+ * @date 2026-10-17
+ */
+@Component
+@ConditionalOnProperty(prefix = "im.socket", name = "store", havingValue = "redis", matchIfMissing = true)
+public class RedisReadWatermarkStore implements ReadWatermarkStore {
+
+    /**
+     * @Fields  : 新值更大时才写入
+     * @author qiaomengnan
+     */
+    private static final String ADVANCE = "local old = tonumber(redis.call('HGET', KEYS[1], ARGV[1]) or '0') "
+            + "if tonumber(ARGV[2]) > old then redis.call('HSET', KEYS[1], ARGV[1], ARGV[2]) end return 0";
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Override
+    public void advanceAll(Collection<ReadWatermark> watermarks) {
+        if (watermarks.isEmpty()) {
+            return;
+        }
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (ReadWatermark watermark : watermarks) {
+                stringConnection.eval(ADVANCE, ReturnType.INTEGER, 1, key(watermark.getConversationId()),
+                        watermark.getUserId(), String.valueOf(watermark.getSeq()));
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public Map<String, Long> get(String conversationId) {
+        Map<String, Long> watermarks = new HashMap<>();
+        for (Map.Entry<Object, Object> entry : stringRedisTemplate.opsForHash().entries(key(conversationId)).entrySet()) {
+            watermarks.put(entry.getKey().toString(), Long.parseLong(entry.getValue().toString()));
+        }
+        return watermarks;
+    }
+
+    private String key(String conversationId) {
+        return StringUtils.join(RedisKeys.SOCKET_READ_PREFIX, conversationId);
+    }
+
+}
@@ -0,0 +1,161 @@
+package com.mn.im.socket.route;
+
+import com.alibaba.fastjson.JSON;
+import com.mn.im.core.common.utils.UUIDUtils;
+import com.mn.im.socket.netty.Message;
+import com.mn.im.socket.netty.SocketProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: ConversationForwarder
+ * @Description: 会话消息转发
+ *  客户端消息所在会话不属于本节点时,转发给所属节点处理(分配序号、保存、推送),
+ *  所属节点处理完成后把确认信息回复给本节点,再由本节点回复客户端;
+ *  转发和回复都随路由周期按节点合并发布。所属节点收到后不再检查归属,避免节点变化期间来回转发
+ * @date 2026-10-17
+ */
+@Slf4j
+@Component
+public class ConversationForwarder {
+
+    /**
+     * @Fields  : 转发的客户端消息,payload为消息,msgId为转发请求ID,node为发起节点
+     * @author qiaomengnan
+     */
+    private static final String FORWARD = "$FORWARD";
+
+    /**
+     * @Fields  : 转发消息的处理结果,payload为确认信息,msgId为转发请求ID
+     * @author qiaomengnan
+     */
+    private static final String FORWARD_ACK = "$FORWARD_ACK";
+
+    @Autowired
+    private SocketProperties socketProperties;
+
+    @Autowired
+    private MessageRouter messageRouter;
+
+    /**
+     * @Fields  : 消息类型 -> 所属节点上的处理器,处理器处理完成后调用确认回调
+     * @author qiaomengnan
+     */
+    private final Map<String, BiConsumer<Message, Consumer<Message>>> handlers = new ConcurrentHashMap<>();
+
+    /**
+     * @Fields  : 等待所属节点回复的转发请求
+     * @author qiaomengnan
+     */
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        messageRouter.register(FORWARD, this::onForward);
+        messageRouter.register(FORWARD_ACK, this::onAck);
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "socket-forward");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::expire, 1, 1, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    /**
+     * @Title:
+     * @Description:   注册消息类型在所属节点上的处理器
+     * @param type
+     * @param handler
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/18 14:30:12
+     */
+    public void register(String type, BiConsumer<Message, Consumer<Message>> handler) {
+        handlers.put(type, handler);
+    }
+
+    /**
+     * @Title:
+     * @Description:   把消息转发给会话所属节点,所属节点回复后调用ack
+     * @param nodeId
+     * @param message
+     * @param ack
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/18 14:31:05
+     */
+    public void forward(String nodeId, Message message, Consumer<Message> ack) {
+        String requestId = UUIDUtils.getUUID();
+        pending.put(requestId, new Pending(ack));
+        RouteEnvelope envelope = new RouteEnvelope(null, FORWARD, JSON.toJSONString(message), true, requestId);
+        envelope.setNode(socketProperties.getNodeId());
+        messageRouter.send(nodeId, envelope);
+    }
+
+    private void onForward(RouteEnvelope envelope) {
+        Message message = JSON.parseObject(envelope.getPayload(), Message.class);
+        BiConsumer<Message, Consumer<Message>> handler = handlers.get(message.getType());
+        if (handler == null) {
+            log.warn("未注册的转发消息类型,忽略:{}", message.getType());
+            return;
+        }
+        handler.accept(message, ack -> {
+            RouteEnvelope reply = new RouteEnvelope(null, FORWARD_ACK, JSON.toJSONString(ack), true, envelope.getMsgId());
+            messageRouter.send(envelope.getNode(), reply);
+        });
+    }
+
+    private void onAck(RouteEnvelope envelope) {
+        Pending request = pending.remove(envelope.getMsgId());
+        if (request == null) {
+            log.debug("转发请求已超时,忽略回复:{}", envelope.getMsgId());
+            return;
+        }
+        request.ack.accept(JSON.parseObject(envelope.getPayload(), Message.class));
+    }
+
+    private void expire() {
+        long deadline = System.currentTimeMillis() - socketProperties.getRoute().getForwardTimeout() * 1000L;
+        Iterator<Pending> iterator = pending.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().createTime < deadline) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static class Pending {
+
+        private final Consumer<Message> ack;
+
+        private final long createTime = System.currentTimeMillis();
+
+        private Pending(Consumer<Message> ack) {
+            this.ack = ack;
+        }
+
+    }
+
+}
@@ -0,0 +1,136 @@
+package com.mn.im.socket.route;
+
+import com.mn.im.socket.netty.SocketProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: ConversationOwner
+ * @Description: 会话所属节点
+ *  按会话ID在存活节点上做最高随机权重哈希,节点增减时只有落在该节点上的会话改变归属;
+ *  会话的序号分配和消息写入只在所属节点上进行,其它节点收到的消息通过路由总线转发过去。
+ *  存活节点变化时代次加一,之前预取的号段随之作废
+ * @date 2026-10-17
+ */
+@Component
+public class ConversationOwner {
+
+    @Autowired
+    private SocketProperties socketProperties;
+
+    @Autowired
+    private NodePresence nodePresence;
+
+    private volatile View view = new View(new HashSet<>(), 0);
+
+    /**
+     * @Title:
+     * @Description:   会话所属节点,没有存活节点(首次心跳之前)时为本节点
+     * @param conversationId
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/18 14:05:20
+     */
+    public String owner(String conversationId) {
+        String owner = null;
+        long max = Long.MIN_VALUE;
+        for (String node : view().nodes) {
+            long weight = weight(node, conversationId);
+            if (owner == null || weight > max || (weight == max && node.compareTo(owner) < 0)) {
+                owner = node;
+                max = weight;
+            }
+        }
+        return owner == null ? socketProperties.getNodeId() : owner;
+    }
+
+    /**
+     * @Title:
+     * @Description:   会话是否属于本节点
+     * @param conversationId
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/18 14:06:02
+     */
+    public boolean isLocal(String conversationId) {
+        return socketProperties.getNodeId().equals(owner(conversationId));
+    }
+
+    /**
+     * @Title:
+     * @Description:   按所属节点分组
+     * @param items
+     * @param conversationId 元素对应的会话ID
+     * @return nodeId -> 元素
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/18 14:06:40
+     */
+    public <T> Map<String, List<T>> byOwner(Collection<T> items, Function<T, String> conversationId) {
+        Map<String, List<T>> groups = new HashMap<>();
+        for (T item : items) {
+            groups.computeIfAbsent(owner(conversationId.apply(item)), key -> new ArrayList<>()).add(item);
+        }
+        return groups;
+    }
+
+    /**
+     * @Title:
+     * @Description:   当前归属的代次,存活节点每变化一次加一
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/18 14:07:15
+     */
+    public long epoch() {
+        return view().epoch;
+    }
+
+    private View view() {
+        Set<String> nodes = nodePresence.aliveNodes();
+        View current = view;
+        if (!current.nodes.equals(nodes)) {
+            synchronized (this) {
+                current = view;
+                if (!current.nodes.equals(nodes)) {
+                    current = new View(new HashSet<>(nodes), current.epoch + 1);
+                    view = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static long weight(String node, String conversationId) {
+        long h = node.hashCode() * 0x9E3779B97F4A7C15L + conversationId.hashCode();
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    private static class View {
+
+        private final Set<String> nodes;
+
+        private final long epoch;
+
+        private View(Set<String> nodes, long epoch) {
+            this.nodes = nodes;
+            this.epoch = epoch;
+        }
+
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.mn.im.socket.route;
+
+import com.mn.im.socket.netty.SocketProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: MemoryNodePresence
+ * @Description: 内存用户节点映射,同一个JVM内的多个节点共享,用于测试
+ * @date 2026-10-17
+ */
+@Component
+@ConditionalOnProperty(prefix = "im.socket", name = "store", havingValue = SocketProperties.STORE_MEMORY)
+public class MemoryNodePresence implements NodePresence {
+
+    private static final Map<String, Set<String>> PRESENCE = new ConcurrentHashMap<>();
+
+    private static final Set<String> NODES = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    private SocketProperties socketProperties;
+
+    @Override
+    public void online(String userId) {
+        PRESENCE.computeIfAbsent(userId, key -> ConcurrentHashMap.newKeySet()).add(socketProperties.getNodeId());
+    }
+
+    @Override
+    public void offline(String userId) {
+        PRESENCE.computeIfPresent(userId, (key, nodes) -> {
+            nodes.remove(socketProperties.getNodeId());
+            return nodes.isEmpty() ? null : nodes;
+        });
+    }
+
+    @Override
+    public void offline(Collection<String> userIds) {
+        for (String userId : userIds) {
+            offline(userId);
+        }
+    }
+
+    @Override
+    public Map<String, Set<String>> locate(Collection<String> userIds) {
+        Map<String, Set<String>> result = new HashMap<>();
+        for (String userId : userIds) {
+            Set<String> nodes = PRESENCE.get(userId);
+            if (nodes != null && !nodes.isEmpty()) {
+                result.put(userId, new HashSet<>(nodes));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Set<String> aliveNodes() {
+        return new HashSet<>(NODES);
+    }
+
+    @Override
+    public void heartbeat() {
+        NODES.add(socketProperties.getNodeId());
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.mn.im.socket.route;
+
+import com.mn.im.socket.netty.SocketProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: MemoryRouteBus
+ * @Description: 内存消息总线,同一个JVM内的多个节点共享,用于测试
+ * @date 2026-10-17
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "im.socket", name = "store", havingValue = SocketProperties.STORE_MEMORY)
+public class MemoryRouteBus implements RouteBus {
+
+    private static final Map<String, RouteListener> LISTENERS = new ConcurrentHashMap<>();
+
+    @Override
+    public void publish(String nodeId, List<RouteEnvelope> envelopes) {
+        RouteListener listener = LISTENERS.get(nodeId);
+        if (listener == null) {
+            log.debug("节点{}未订阅,丢弃{}条消息", nodeId, envelopes.size());
+            return;
+        }
+        listener.onEnvelopes(envelopes);
+    }
+
+    @Override
+    public void subscribe(String nodeId, RouteListener listener) {
+        LISTENERS.put(nodeId, listener);
+    }
+
+}
@@ -0,0 +1,507 @@
+package com.mn.im.socket.route;
+
+import com.alibaba.fastjson.JSON;
+import com.mn.im.socket.codec.MessageCodec;
+import com.mn.im.socket.constant.SocketEvents;
+import com.mn.im.socket.delivery.DeliveryTracker;
+import com.mn.im.socket.inbox.InboxHolderStore;
+import com.mn.im.socket.inbox.OfflineInbox;
+import com.mn.im.socket.netty.EncodedPayload;
+import com.mn.im.socket.netty.Message;
+import com.mn.im.socket.netty.SocketProperties;
+import com.mn.im.socket.session.SessionRegistry;
+import com.mn.im.socket.session.SlowConsumerPolicy;
+import com.mn.im.socket.session.SocketSession;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: MessageRouter
+ * @Description: 消息路由
+ *  本节点的会话直接推送;其它节点的消息先入队,每个周期批量查询用户所在节点,
+ *  与直接发给节点的信封(会话转发等内部事件)按节点合并后各发布一次,不做全集群广播。
+ *  离线收件箱在写入的节点本地保存并登记用户的收件箱所在节点,用户上线时本节点直接补发,
+ *  并周期合并后只向登记了该用户收件箱的其它存活节点请求补发
+ * @date 2026-10-17
+ */
+@Slf4j
+@Component
+public class MessageRouter implements RouteListener {
+
+    /**
+     * @Fields  : 节点间的离线收件箱补发请求,userIds为上线的用户,不下发给客户端
+     * @author qiaomengnan
+     */
+    private static final String INBOX_DRAIN = "$INBOX_DRAIN";
+
+    @Autowired
+    private SocketProperties socketProperties;
+
+    @Autowired
+    private SessionRegistry sessionRegistry;
+
+    @Autowired
+    private RouteBus routeBus;
+
+    @Autowired
+    private NodePresence nodePresence;
+
+    @Autowired
+    private DeliveryTracker deliveryTracker;
+
+    @Autowired
+    private OfflineInbox offlineInbox;
+
+    @Autowired
+    private InboxHolderStore inboxHolderStore;
+
+    @Autowired
+    private SlowConsumerPolicy slowConsumerPolicy;
+
+    /**
+     * @Fields  : 待跨节点投递的消息
+     * @author qiaomengnan
+     */
+    private final Queue<RouteEnvelope> pending = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @Fields  : 已指定目标节点、待下个周期发布的信封,nodeId -> 信封
+     * @author qiaomengnan
+     */
+    private final Map<String, Queue<RouteEnvelope>> outgoing = new ConcurrentHashMap<>();
+
+    /**
+     * @Fields  : 节点间内部事件的处理器,事件 -> 处理器,不下发给客户端
+     * @author qiaomengnan
+     */
+    private final Map<String, Consumer<RouteEnvelope>> handlers = new ConcurrentHashMap<>();
+
+    /**
+     * @Fields  : 待请求其它节点补发离线收件箱的用户
+     * @author qiaomengnan
+     */
+    private final Queue<String> drainRequests = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @Fields  : 路由线程,负责批量发布、上下线和心跳,不占用netty的IO线程
+     * @author qiaomengnan
+     */
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "socket-route");
+            thread.setDaemon(true);
+            return thread;
+        });
+        SocketProperties.Route route = socketProperties.getRoute();
+        nodePresence.heartbeat();
+        routeBus.subscribe(socketProperties.getNodeId(), this);
+        executor.scheduleWithFixedDelay(this::flush, route.getFlushInterval(), route.getFlushInterval(), TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(this::heartbeat, route.getHeartbeatInterval(), route.getHeartbeatInterval(), TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
+        flush();
+    }
+
+    /**
+     * @Title:
+     * @Description:   给用户的全部设备投递消息,包括其它节点上的设备
+     * @param userId
+     * @param event
+     * @param payload
+     * @param json payload是否为json对象
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 10:30:12
+     */
+    public void route(String userId, String event, String payload, boolean json) {
+        route(userId, event, payload, json, null);
+    }
+
+    /**
+     * @Title:
+     * @Description:   给用户的全部设备投递需要ack确认的消息
+     * @param userId
+     * @param event
+     * @param payload
+     * @param json payload是否为json对象
+     * @param msgId 消息ID,每个设备未确认时会重发
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 14:50:21
+     */
+    public void route(String userId, String event, String payload, boolean json, String msgId) {
+        RouteEnvelope envelope = new RouteEnvelope(userId, event, payload, json, msgId);
+        deliverLocal(envelope);
+        pending.offer(envelope);
+    }
+
+    /**
+     * @Title:
+     * @Description:   给多个用户投递同一条消息,用于群消息扩散
+     *  在调用线程上批量查询所在节点,每个节点一个带接收者列表的信封,随路由周期与其它消息按节点合并发布
+     * @param userIds
+     * @param event
+     * @param payload
+     * @param json payload是否为json对象
+     * @param msgId 消息ID,为空时不需要ack确认
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 19:05:12
+     */
+    public void routeMany(Collection<String> userIds, String event, String payload, boolean json, String msgId) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        RouteEnvelope local = new RouteEnvelope(null, event, payload, json, msgId);
+        local.setUserIds(new ArrayList<>(userIds));
+        deliverLocal(local);
+        Map<String, Set<String>> located = nodePresence.locate(userIds);
+        Map<String, List<String>> byNode = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry : located.entrySet()) {
+            for (String node : entry.getValue()) {
+                if (!node.equals(socketProperties.getNodeId())) {
+                    byNode.computeIfAbsent(node, key -> new ArrayList<>()).add(entry.getKey());
+                }
+            }
+        }
+        for (Map.Entry<String, List<String>> entry : byNode.entrySet()) {
+            RouteEnvelope envelope = new RouteEnvelope(null, event, payload, json, msgId);
+            envelope.setUserIds(entry.getValue());
+            send(entry.getKey(), envelope);
+        }
+    }
+
+    /**
+     * @Title:
+     * @Description:   向指定节点发送信封,与本周期的其它消息合并发布
+     * @param nodeId
+     * @param envelope
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/18 14:20:15
+     */
+    public void send(String nodeId, RouteEnvelope envelope) {
+        outgoing.computeIfAbsent(nodeId, key -> new ConcurrentLinkedQueue<>()).offer(envelope);
+    }
+
+    /**
+     * @Title:
+     * @Description:   注册节点间内部事件的处理器,在订阅线程上调用,耗时的处理需要自行异步执行
+     * @param event
+     * @param handler
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/18 14:21:40
+     */
+    public void register(String event, Consumer<RouteEnvelope> handler) {
+        handlers.put(event, handler);
+    }
+
+    /**
+     * @Title:
+     * @Description:   用户在本节点上线
+     * @param userId
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 10:31:02
+     */
+    public void online(String userId) {
+        executor.execute(() -> {
+            nodePresence.online(userId);
+            // 补发离线期间的通知,其它节点保存的部分在下个周期请求补发
+            List<RouteEnvelope> envelopes = offlineInbox.drain(userId);
+            for (RouteEnvelope envelope : envelopes) {
+                deliverLocal(envelope);
+            }
+            if (!envelopes.isEmpty()) {
+                inboxHolderStore.remove(Collections.singletonList(userId), socketProperties.getNodeId());
+            }
+            drainRequests.offer(userId);
+        });
+    }
+
+    /**
+     * @Title:
+     * @Description:   用户在本节点下线
+     * @param userId
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 10:31:20
+     */
+    public void offline(String userId) {
+        executor.execute(() -> {
+            // 异步执行期间用户可能又连回本节点
+            if (!sessionRegistry.isOnline(userId)) {
+                nodePresence.offline(userId);
+            }
+        });
+    }
+
+    /**
+     * @Title:
+     * @Description:   批量下线,用于清理空闲连接
+     * @param userIds
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 15:22:40
+     */
+    public void offline(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        executor.execute(() -> {
+            List<String> offline = new ArrayList<>(userIds.size());
+            for (String userId : userIds) {
+                if (!sessionRegistry.isOnline(userId)) {
+                    offline.add(userId);
+                }
+            }
+            nodePresence.offline(offline);
+        });
+    }
+
+    @Override
+    public void onEnvelopes(List<RouteEnvelope> envelopes) {
+        for (RouteEnvelope envelope : envelopes) {
+            Consumer<RouteEnvelope> handler = handlers.get(envelope.getEvent());
+            if (handler != null) {
+                handler.accept(envelope);
+            } else if (INBOX_DRAIN.equals(envelope.getEvent())) {
+                executor.execute(() -> drainFor(envelope.getUserIds()));
+            } else {
+                deliverLocal(envelope);
+            }
+        }
+    }
+
+    /**
+     * @Title:
+     * @Description:   其它节点的用户上线,取出本节点为其保存的离线消息重新路由,
+     *  路由时按用户当前所在节点投递,用户又已离线时重新写入收件箱
+     * @param userIds
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/18 09:45:30
+     */
+    private void drainFor(List<String> userIds) {
+        if (userIds == null) {
+            return;
+        }
+        for (String userId : userIds) {
+            try {
+                for (RouteEnvelope envelope : offlineInbox.drain(userId)) {
+                    route(envelope.getUserId(), envelope.getEvent(), envelope.getPayload(), envelope.isJson());
+                }
+            } catch (Exception ex) {
+                log.error("补发离线收件箱失败:{}", userId, ex);
+            }
+        }
+        inboxHolderStore.remove(userIds, socketProperties.getNodeId());
+    }
+
+    /**
+     * @Title:
+     * @Description:   推送给本节点的会话
+     * @param envelope
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 10:32:05
+     */
+    private void deliverLocal(RouteEnvelope envelope) {
+        List<SocketSession> sessions;
+        if (envelope.getUserIds() == null) {
+            sessions = sessionRegistry.getByUserId(envelope.getUserId());
+        } else {
+            sessions = new ArrayList<>();
+            for (String userId : envelope.getUserIds()) {
+                sessions.addAll(sessionRegistry.getByUserId(userId));
+            }
+        }
+        if (sessions.isEmpty()) {
+            return;
+        }
+        // 所有设备共用一份编码结果
+        EncodedPayload json = envelope.isJson() ? EncodedPayload.ofJson(envelope.getPayload()) : EncodedPayload.of(envelope.getPayload());
+        byte[] binary = null;
+        for (SocketSession session : sessions) {
+            String event = envelope.getEvent();
+            Object data = json;
+            if (session.isBinary() && envelope.isJson() && SocketEvents.USER_MSG.equals(event)) {
+                if (binary == null) {
+                    binary = MessageCodec.encode(JSON.parseObject(envelope.getPayload(), Message.class));
+                }
+                event = SocketEvents.USER_MSG_BIN;
+                data = binary;
+            }
+            if (envelope.getMsgId() == null) {
+                session.send(event, data);
+            } else {
+                deliveryTracker.deliver(session, event, data, envelope.getMsgId());
+            }
+        }
+    }
+
+    /**
+     * @Title:
+     * @Description:   批量查询接收者所在节点,按节点合并后发布
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 10:33:40
+     */
+    private void flush() {
+        flushDrainRequests();
+        flushEnvelopes();
+    }
+
+    private void flushEnvelopes() {
+        Map<String, List<RouteEnvelope>> byNode = new HashMap<>();
+        Set<String> held = new HashSet<>();
+        try {
+            int maxBatch = socketProperties.getRoute().getMaxBatch();
+            while (!pending.isEmpty()) {
+                List<RouteEnvelope> batch = new ArrayList<>();
+                Set<String> userIds = new LinkedHashSet<>();
+                RouteEnvelope envelope;
+                while (batch.size() < maxBatch && (envelope = pending.poll()) != null) {
+                    batch.add(envelope);
+                    userIds.add(envelope.getUserId());
+                }
+                Map<String, Set<String>> located = nodePresence.locate(userIds);
+                for (RouteEnvelope data : batch) {
+                    Set<String> nodes = located.get(data.getUserId());
+                    if (nodes == null) {
+                        // 聊天消息由增量同步补齐,临时事件直接丢弃,其它通知写入离线收件箱
+                        if (data.getMsgId() == null && !slowConsumerPolicy.isEphemeral(data.getEvent())
+                                && !sessionRegistry.isOnline(data.getUserId())) {
+                            // 单条写入失败(超长、磁盘错误)不影响同批的其它消息
+                            try {
+                                offlineInbox.append(data);
+                                held.add(data.getUserId());
+                            } catch (Exception ex) {
+                                log.error("写入离线收件箱失败:{} {}", data.getUserId(), data.getEvent(), ex);
+                            }
+                        }
+                        continue;
+                    }
+                    for (String node : nodes) {
+                        if (!node.equals(socketProperties.getNodeId())) {
+                            byNode.computeIfAbsent(node, key -> new ArrayList<>()).add(data);
+                        }
+                    }
+                }
+            }
+        } catch (Exception ex) {
+            log.error("跨节点消息路由失败", ex);
+        }
+        try {
+            inboxHolderStore.add(held, socketProperties.getNodeId());
+        } catch (Exception ex) {
+            log.error("登记离线收件箱所在节点失败,用户数:{}", held.size(), ex);
+        }
+        for (Map.Entry<String, Queue<RouteEnvelope>> entry : outgoing.entrySet()) {
+            RouteEnvelope envelope;
+            while ((envelope = entry.getValue().poll()) != null) {
+                byNode.computeIfAbsent(entry.getKey(), key -> new ArrayList<>()).add(envelope);
+            }
+        }
+        for (Map.Entry<String, List<RouteEnvelope>> entry : byNode.entrySet()) {
+            publish(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * @Title:
+     * @Description:   请求保存了本周期上线用户离线收件箱的其它存活节点补发,随本周期的消息一起发布
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/18 09:47:10
+     */
+    private void flushDrainRequests() {
+        if (drainRequests.isEmpty()) {
+            return;
+        }
+        Set<String> userIds = new LinkedHashSet<>();
+        String userId;
+        while ((userId = drainRequests.poll()) != null) {
+            userIds.add(userId);
+        }
+        try {
+            Set<String> alive = nodePresence.aliveNodes();
+            Map<String, List<String>> byNode = new HashMap<>();
+            for (Map.Entry<String, Set<String>> entry : inboxHolderStore.locate(userIds).entrySet()) {
+                for (String node : entry.getValue()) {
+                    if (!node.equals(socketProperties.getNodeId()) && alive.contains(node)) {
+                        byNode.computeIfAbsent(node, key -> new ArrayList<>()).add(entry.getKey());
+                    }
+                }
+            }
+            for (Map.Entry<String, List<String>> entry : byNode.entrySet()) {
+                RouteEnvelope request = new RouteEnvelope(null, INBOX_DRAIN, socketProperties.getNodeId(), false, null);
+                request.setUserIds(entry.getValue());
+                send(entry.getKey(), request);
+            }
+        } catch (Exception ex) {
+            log.error("请求补发离线收件箱失败", ex);
+        }
+    }
+
+    private void publish(String nodeId, List<RouteEnvelope> envelopes) {
+        int maxBatch = Math.max(1, socketProperties.getRoute().getMaxBatch());
+        for (int from = 0; from < envelopes.size(); from += maxBatch) {
+            List<RouteEnvelope> batch = new ArrayList<>(envelopes.subList(from, Math.min(envelopes.size(), from + maxBatch)));
+            try {
+                routeBus.publish(nodeId, batch);
+            } catch (Exception ex) {
+                log.error("向节点{}发布{}条消息失败", nodeId, batch.size(), ex);
+            }
+        }
+    }
+
+    private void heartbeat() {
+        try {
+            nodePresence.heartbeat();
+        } catch (Exception ex) {
+            log.error("socket节点心跳失败", ex);
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.mn.im.socket.route;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: NodePresence
+ * @Description: 用户 -> 所在节点 映射
+ * @date 2026-10-17
+ */
+public interface NodePresence {
+
+    /**
+     * @Title:
+     * @Description:   用户在本节点上线
+     * @param userId
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 10:05:12
+     */
+    void online(String userId);
+
+    /**
+     * @Title:
+     * @Description:   用户在本节点下线
+     * @param userId
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 10:05:30
+     */
+    void offline(String userId);
+
+    /**
+     * @Title:
+     * @Description:   批量下线
+     * @param userIds
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 15:20:11
+     */
+    void offline(Collection<String> userIds);
+
+    /**
+     * @Title:
+     * @Description:   批量查询用户所在的存活节点
+     * @param userIds
+     * @return userId -> nodeId集合,不在线的用户不返回
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 10:05:51
+     */
+    Map<String, Set<String>> locate(Collection<String> userIds);
+
+    /**
+     * @Title:
+     * @Description:   最近一次心跳时的存活节点,包括本节点
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/18 09:40:12
+     */
+    Set<String> aliveNodes();
+
+    /**
+     * @Title:
+     * @Description:   本节点心跳,同时刷新存活节点列表
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 10:06:20
+     */
+    void heartbeat();
+
+}
@@ -0,0 +1,228 @@
+package com.mn.im.socket.route;
+
+import com.mn.im.core.common.constant.common.RedisKeys;
+import com.mn.im.core.common.utils.StringUtils;
+import com.mn.im.socket.netty.SocketProperties;
+import com.mn.im.socket.session.SessionRegistry;
+import com.mn.im.socket.session.SocketSession;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: RedisNodePresence
+ * @Description: redis 用户节点映射,批量查询时使用pipeline,并过滤掉已经没有心跳的节点
+ *  每个节点另外记录自己的在线用户,节点心跳超时后由最先发现的节点从这些用户的节点集合中移除该节点,
+ *  清理在脚本中进行,节点恢复心跳后立即停止,不会删掉节点恢复后重新登记的用户
+ * @date 2026-10-17
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "im.socket", name = "store", havingValue = "redis", matchIfMissing = true)
+public class RedisNodePresence implements NodePresence {
+
+    /**
+     * @Fields  : 节点仍无心跳时取出一批用户并从其节点集合中移除该节点,返回本批数量,节点已恢复时返回-1
+     *  KEYS为 存活节点,节点用户集合,ARGV为 nodeId,用户节点集合前缀,批量大小
+     * @author qiaomengnan
+     */
+    private static final RedisScript<Long> PURGE = new DefaultRedisScript<>(
+            "redis.replicate_commands() "
+                    + "if redis.call('ZSCORE', KEYS[1], ARGV[1]) then return -1 end "
+                    + "local users = redis.call('SPOP', KEYS[2], tonumber(ARGV[3])) "
+                    + "for i = 1, #users do redis.call('SREM', ARGV[2] .. users[i], ARGV[1]) end "
+                    + "return #users", Long.class);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private SocketProperties socketProperties;
+
+    @Autowired
+    private SessionRegistry sessionRegistry;
+
+    /**
+     * @Fields  : 存活节点,心跳时刷新
+     * @author qiaomengnan
+     */
+    private volatile Set<String> aliveNodes = Collections.emptySet();
+
+    @Override
+    public void online(String userId) {
+        String nodeId = socketProperties.getNodeId();
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            stringConnection.sAdd(key(userId), nodeId);
+            stringConnection.sAdd(nodeKey(nodeId), userId);
+            return null;
+        });
+    }
+
+    @Override
+    public void offline(String userId) {
+        offline(Collections.singletonList(userId));
+    }
+
+    @Override
+    public void offline(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        String nodeId = socketProperties.getNodeId();
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (String userId : userIds) {
+                stringConnection.sRem(key(userId), nodeId);
+            }
+            stringConnection.sRem(nodeKey(nodeId), userIds.toArray(new String[0]));
+            return null;
+        });
+    }
+
+    @Override
+    public Map<String, Set<String>> locate(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<String> users = new ArrayList<>(userIds);
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (String userId : users) {
+                stringConnection.sMembers(key(userId));
+            }
+            return null;
+        });
+        Set<String> alive = aliveNodes;
+        Map<String, Set<String>> located = new HashMap<>();
+        for (int i = 0; i < users.size(); i++) {
+            Object nodes = results.get(i);
+            if (!(nodes instanceof Collection)) {
+                continue;
+            }
+            Set<String> res = new HashSet<>();
+            for (Object node : (Collection<?>) nodes) {
+                if (alive.contains(node)) {
+                    res.add(node.toString());
+                }
+            }
+            if (!res.isEmpty()) {
+                located.put(users.get(i), res);
+            }
+        }
+        return located;
+    }
+
+    @Override
+    public Set<String> aliveNodes() {
+        return aliveNodes;
+    }
+
+    @Override
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        long timeout = socketProperties.getRoute().getNodeTimeout() * 1000L;
+        Boolean added = stringRedisTemplate.opsForZSet().add(RedisKeys.SOCKET_NODES, socketProperties.getNodeId(), now);
+        if (Boolean.TRUE.equals(added)) {
+            // 首次心跳,或者心跳中断期间已被其它节点清理,重新登记本节点的在线用户
+            register();
+        }
+        Set<String> nodes = stringRedisTemplate.opsForZSet().rangeByScore(RedisKeys.SOCKET_NODES, now - timeout, Double.MAX_VALUE);
+        aliveNodes = nodes == null ? Collections.emptySet() : new HashSet<>(nodes);
+        Set<String> deadNodes = stringRedisTemplate.opsForZSet().rangeByScore(RedisKeys.SOCKET_NODES, 0, now - timeout - 1);
+        if (deadNodes != null) {
+            for (String deadNode : deadNodes) {
+                // 只有移除成功的节点负责清理,避免多个节点重复清理
+                Long removed = stringRedisTemplate.opsForZSet().remove(RedisKeys.SOCKET_NODES, deadNode);
+                if (removed != null && removed > 0) {
+                    purge(deadNode);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        try {
+            stringRedisTemplate.opsForZSet().remove(RedisKeys.SOCKET_NODES, socketProperties.getNodeId());
+            purge(socketProperties.getNodeId());
+        } catch (Exception ex) {
+            log.error("移除socket节点失败", ex);
+        }
+    }
+
+    private void register() {
+        Set<String> userIds = new HashSet<>();
+        for (SocketSession session : sessionRegistry.sessions()) {
+            if (session.getUserId() != null) {
+                userIds.add(session.getUserId());
+            }
+        }
+        if (userIds.isEmpty()) {
+            return;
+        }
+        String nodeId = socketProperties.getNodeId();
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (String userId : userIds) {
+                stringConnection.sAdd(key(userId), nodeId);
+            }
+            stringConnection.sAdd(nodeKey(nodeId), userIds.toArray(new String[0]));
+            return null;
+        });
+        log.warn("socket节点重新登记在线用户:{}", userIds.size());
+    }
+
+    /**
+     * @Title:
+     * @Description:   分批从节点上全部在线用户的节点集合中移除该节点,用户集合取空后自动删除;
+     *  每批都先确认节点仍无心跳,节点在清理期间恢复并重新登记时停止
+     * @param nodeId
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/18 09:12:30
+     */
+    private void purge(String nodeId) {
+        List<String> keys = Arrays.asList(RedisKeys.SOCKET_NODES, nodeKey(nodeId));
+        int batch = Math.max(1, socketProperties.getRoute().getMaxBatch());
+        long purged = 0;
+        Long count;
+        do {
+            count = stringRedisTemplate.execute(PURGE, keys, nodeId, RedisKeys.SOCKET_PRESENCE_PREFIX, String.valueOf(batch));
+            if (count == null || count < 0) {
+                log.warn("socket节点已恢复心跳,停止清理:{},已清理用户数:{}", nodeId, purged);
+                return;
+            }
+            purged += count;
+        } while (count >= batch);
+        log.info("清理失效socket节点:{},用户数:{}", nodeId, purged);
+    }
+
+    private String key(String userId) {
+        return StringUtils.join(RedisKeys.SOCKET_PRESENCE_PREFIX, userId);
+    }
+
+    private String nodeKey(String nodeId) {
+        return StringUtils.join(RedisKeys.SOCKET_NODE_USERS_PREFIX, nodeId);
+    }
+
+}
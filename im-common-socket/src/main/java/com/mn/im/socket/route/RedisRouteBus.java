@@ -0,0 +1,72 @@
+package com.mn.im.socket.route;
+
+import com.alibaba.fastjson.JSON;
+import com.mn.im.core.common.constant.common.RedisKeys;
+import com.mn.im.core.common.utils.StringUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: RedisRouteBus
+ * @Description: redis pub/sub 消息总线,每个节点一个channel,消息只发往接收者所在节点
+ * @date 2026-10-17
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "im.socket", name = "store", havingValue = "redis", matchIfMissing = true)
+public class RedisRouteBus implements RouteBus {
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisConnectionFactory redisConnectionFactory;
+
+    private RedisMessageListenerContainer container;
+
+    @Override
+    public void publish(String nodeId, List<RouteEnvelope> envelopes) {
+        stringRedisTemplate.convertAndSend(channel(nodeId), JSON.toJSONString(envelopes));
+    }
+
+    @Override
+    public synchronized void subscribe(String nodeId, RouteListener listener) {
+        if (container == null) {
+            container = new RedisMessageListenerContainer();
+            container.setConnectionFactory(redisConnectionFactory);
+            container.afterPropertiesSet();
+            container.start();
+        }
+        container.addMessageListener((message, pattern) -> {
+            try {
+                String body = new String(message.getBody(), StandardCharsets.UTF_8);
+                listener.onEnvelopes(JSON.parseArray(body, RouteEnvelope.class));
+            } catch (Exception ex) {
+                log.error("处理路由消息失败", ex);
+            }
+        }, new ChannelTopic(channel(nodeId)));
+    }
+
+    @PreDestroy
+    public synchronized void destroy() throws Exception {
+        if (container != null) {
+            container.destroy();
+        }
+    }
+
+    private String channel(String nodeId) {
+        return StringUtils.join(RedisKeys.SOCKET_ROUTE_CHANNEL_PREFIX, nodeId);
+    }
+
+}
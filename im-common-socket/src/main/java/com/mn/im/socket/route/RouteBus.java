@@ -0,0 +1,37 @@
+package com.mn.im.socket.route;
+
+import java.util.List;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: RouteBus
+ * @Description: 节点间消息总线,每个节点只订阅发给自己的channel
+ * @date 2026-10-17
+ */
+public interface RouteBus {
+
+    /**
+     * @Title:
+     * @Description:   向指定节点发布一批消息
+     * @param nodeId
+     * @param envelopes
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 10:02:11
+     */
+    void publish(String nodeId, List<RouteEnvelope> envelopes);
+
+    /**
+     * @Title:
+     * @Description:   订阅发给本节点的消息
+     * @param nodeId
+     * @param listener
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 10:02:34
+     */
+    void subscribe(String nodeId, RouteListener listener);
+
+}
@@ -0,0 +1,73 @@
+package com.mn.im.socket.route;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: RouteEnvelope
+ * @Description: 跨节点投递的消息信封
+ * @date 2026-10-17
+ */
+@Data
+public class RouteEnvelope implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @Fields  : 接收用户ID
+     * @author qiaomengnan
+     */
+    private String userId;
+
+    /**
+     * @Fields  : 事件名称
+     * @author qiaomengnan
+     */
+    private String event;
+
+    /**
+     * @Fields  : 消息内容
+     * @author qiaomengnan
+     */
+    private String payload;
+
+    /**
+     * @Fields  : payload是否为json,是则按对象推送给客户端
+     * @author qiaomengnan
+     */
+    private boolean json;
+
+    /**
+     * @Fields  : 消息ID,不为空时需要客户端ack确认
+     * @author qiaomengnan
+     */
+    private String msgId;
+
+    /**
+     * @Fields  : 多个接收用户,群消息按节点合并时使用,不为空时忽略userId
+     * @author qiaomengnan
+     */
+    private List<String> userIds;
+
+    /**
+     * @Fields  : 发起节点,节点间内部事件需要回复时使用
+     * @author qiaomengnan
+     */
+    private String node;
+
+    public RouteEnvelope() {
+
+    }
+
+    public RouteEnvelope(String userId, String event, String payload, boolean json, String msgId) {
+        this.userId = userId;
+        this.event = event;
+        this.payload = payload;
+        this.json = json;
+        this.msgId = msgId;
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.mn.im.socket.route;
+
+import java.util.List;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: RouteListener
+ * @Description: 接收其它节点投递过来的消息
+ * @date 2026-10-17
+ */
+public interface RouteListener {
+
+    void onEnvelopes(List<RouteEnvelope> envelopes);
+
+}
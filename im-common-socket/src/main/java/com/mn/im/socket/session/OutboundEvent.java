@@ -0,0 +1,41 @@
+package com.mn.im.socket.session;
+
+import com.corundumstudio.socketio.AckCallback;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: OutboundEvent
+ * @Description: 待写出的下行事件
+ * @date 2026-10-17
+ */
+@Data
+@AllArgsConstructor
+public class OutboundEvent {
+
+    /**
+     * @Fields  : 事件名称
+     * @author qiaomengnan
+     */
+    private String event;
+
+    /**
+     * @Fields  : 事件数据
+     * @author qiaomengnan
+     */
+    private Object data;
+
+    /**
+     * @Fields  : 客户端确认回调,合并到BATCH时由BATCH的确认统一回调
+     * @author qiaomengnan
+     */
+    @JsonIgnore
+    private AckCallback<?> ack;
+
+    public OutboundEvent(String event, Object data) {
+        this(event, data, null);
+    }
+
+}
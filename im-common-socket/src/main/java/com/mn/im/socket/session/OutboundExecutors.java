@@ -0,0 +1,58 @@
+package com.mn.im.socket.session;
+
+import com.mn.im.socket.metrics.SocketMetrics;
+import com.mn.im.socket.netty.SocketProperties;
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: OutboundExecutors
+ * @Description: 下行消息写出线程组,每个连接固定绑定其中一个线程
+ * @date 2026-10-17
+ */
+@Component
+public class OutboundExecutors {
+
+    @Autowired
+    private SocketProperties socketProperties;
+
+    @Autowired
+    private SlowConsumerPolicy slowConsumerPolicy;
+
+    @Autowired
+    private SocketMetrics socketMetrics;
+
+    private DefaultEventLoopGroup group;
+
+    @PostConstruct
+    public void init() {
+        group = new DefaultEventLoopGroup(Math.max(1, socketProperties.getOutbound().getThreads()),
+                new DefaultThreadFactory("socket-outbound", true));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        group.shutdownGracefully();
+    }
+
+    /**
+     * @Title:
+     * @Description:   为新连接创建下行队列
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 13:10:22
+     */
+    public OutboundQueue newQueue() {
+        SocketProperties.Outbound outbound = socketProperties.getOutbound();
+        return new OutboundQueue(group.next(), slowConsumerPolicy, socketMetrics, outbound.getMaxBatch(), outbound.getMaxDelay(),
+                socketProperties.getBackpressure().getMaxQueue());
+    }
+
+}
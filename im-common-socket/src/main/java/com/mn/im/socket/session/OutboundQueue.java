@@ -0,0 +1,306 @@
+package com.mn.im.socket.session;
+
+import com.corundumstudio.socketio.AckCallback;
+import com.mn.im.socket.constant.SocketEvents;
+import com.mn.im.socket.metrics.SocketMetrics;
+import io.netty.util.concurrent.EventExecutor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: OutboundQueue
+ * @Description: 单个连接的下行队列
+ *  同一轮事件循环(或maxDelay内)产生的消息合并成一个BATCH事件,一次写出一次flush;
+ *  只有一条时按原事件发送,客户端不需要区分;
+ *  需要确认的消息也合并到BATCH中,BATCH带一个ack,客户端处理完整批后确认一次,依次回调批内每条消息的确认;
+ *  连接不可写时暂停写出,积压超过上限后交给慢连接策略处理
+ * @date 2026-10-17
+ */
+@Slf4j
+public class OutboundQueue {
+
+    private final Queue<OutboundEvent> queue = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * @Fields  : 是否已安排写出任务
+     * @author qiaomengnan
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private final EventExecutor executor;
+
+    private final SlowConsumerPolicy policy;
+
+    private final SocketMetrics metrics;
+
+    private final int maxBatch;
+
+    private final int maxDelay;
+
+    private final int maxQueue;
+
+    private SocketSession session;
+
+    /**
+     * @Fields  : 是否有转存到离线收件箱的消息,只在写出线程上访问
+     * @author qiaomengnan
+     */
+    private boolean spilled;
+
+    OutboundQueue(EventExecutor executor, SlowConsumerPolicy policy, SocketMetrics metrics, int maxBatch, int maxDelay, int maxQueue) {
+        this.executor = executor;
+        this.policy = policy;
+        this.metrics = metrics;
+        this.maxBatch = Math.max(1, maxBatch);
+        this.maxDelay = Math.max(0, maxDelay);
+        this.maxQueue = Math.max(this.maxBatch, maxQueue);
+    }
+
+    void bind(SocketSession session) {
+        this.session = session;
+    }
+
+    /**
+     * @Title:
+     * @Description:   消息入队
+     * @param event
+     * @param data
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 13:02:31
+     */
+    public void offer(String event, Object data) {
+        offer(event, data, null);
+    }
+
+    /**
+     * @Title:
+     * @Description:   需要客户端确认的消息入队
+     * @param event
+     * @param data
+     * @param ack
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/18 10:12:20
+     */
+    public void offer(String event, Object data, AckCallback<?> ack) {
+        if (!session.isWritable() && policy.isEphemeral(event)) {
+            policy.dropped();
+            return;
+        }
+        queue.offer(new OutboundEvent(event, data, ack));
+        int pending = size.incrementAndGet();
+        if (scheduled.compareAndSet(false, true)) {
+            if (maxDelay == 0 || pending >= maxBatch) {
+                executor.execute(this::flush);
+            } else {
+                executor.schedule(this::flush, maxDelay, TimeUnit.MILLISECONDS);
+            }
+        } else if (pending == maxBatch) {
+            // 已经攒够一批,不再等待延时
+            executor.execute(this::flush);
+        }
+    }
+
+    /**
+     * @Title:
+     * @Description:   连接恢复可写,继续写出积压的消息
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 17:10:31
+     */
+    public void resume() {
+        executor.execute(this::flush);
+    }
+
+    /**
+     * @Title:
+     * @Description:   写出已入队的消息后断开连接,连接不可写时直接断开
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/18 10:14:05
+     */
+    public void close() {
+        executor.execute(() -> {
+            flush();
+            session.getClient().disconnect();
+        });
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * @Title:
+     * @Description:   写出队列中的全部消息
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 13:04:15
+     */
+    private void flush() {
+        scheduled.set(false);
+        try {
+            if (!session.isWritable()) {
+                if (size.get() > maxQueue) {
+                    overflow();
+                }
+                return;
+            }
+            if (spilled) {
+                spilled = false;
+                // 先补发转存的消息,保证顺序
+                List<OutboundEvent> restored = policy.restore(session);
+                for (int i = 0; i < restored.size(); i += maxBatch) {
+                    write(restored.subList(i, Math.min(i + maxBatch, restored.size())));
+                }
+            }
+            List<OutboundEvent> batch = poll(maxBatch);
+            while (!batch.isEmpty()) {
+                write(batch);
+                if (!session.isWritable()) {
+                    // 写出过程中到达高水位,剩余的等可写后继续
+                    return;
+                }
+                batch = poll(maxBatch);
+            }
+        } catch (Exception ex) {
+            log.error("下行消息写出失败:{}", session.getSessionId(), ex);
+        }
+    }
+
+    /**
+     * @Title:
+     * @Description:   积压超过上限,丢弃临时事件,其余交给策略处理
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 17:12:40
+     */
+    private void overflow() {
+        List<OutboundEvent> events = poll(Integer.MAX_VALUE);
+        List<OutboundEvent> retained = new ArrayList<>(events.size());
+        for (OutboundEvent event : events) {
+            if (event.getAck() != null) {
+                // 需要确认的消息由可靠投递重发或客户端重新同步,不转存
+                policy.dropped();
+                event.getAck().onTimeout();
+            } else if (policy.isEphemeral(event.getEvent())) {
+                policy.dropped();
+            } else {
+                retained.add(event);
+            }
+        }
+        if (!retained.isEmpty() && policy.overflow(session, retained)) {
+            spilled = true;
+        }
+    }
+
+    private List<OutboundEvent> poll(int max) {
+        List<OutboundEvent> batch = new ArrayList<>();
+        OutboundEvent event;
+        while (batch.size() < max && (event = queue.poll()) != null) {
+            size.decrementAndGet();
+            batch.add(event);
+        }
+        return batch;
+    }
+
+    private void write(List<OutboundEvent> batch) {
+        if (!session.isOpen() || batch.isEmpty()) {
+            return;
+        }
+        if (batch.size() == 1) {
+            OutboundEvent event = batch.get(0);
+            if (event.getAck() != null) {
+                session.getClient().sendEvent(event.getEvent(), event.getAck(), data(event));
+            } else if (event.getData() == null) {
+                session.getClient().sendEvent(event.getEvent());
+            } else {
+                session.getClient().sendEvent(event.getEvent(), event.getData());
+            }
+        } else {
+            List<AckCallback<?>> acks = new ArrayList<>();
+            for (OutboundEvent event : batch) {
+                if (event.getAck() != null) {
+                    acks.add(event.getAck());
+                }
+            }
+            if (acks.isEmpty()) {
+                session.getClient().sendEvent(SocketEvents.BATCH, new ArrayList<>(batch));
+            } else {
+                session.getClient().sendEvent(SocketEvents.BATCH, new BatchAck(acks), new ArrayList<>(batch));
+            }
+        }
+        metrics.outbound(batch.size());
+    }
+
+    private static Object[] data(OutboundEvent event) {
+        return event.getData() == null ? new Object[0] : new Object[]{event.getData()};
+    }
+
+    /**
+     * @author qiaomengnan
+     * @ClassName: BatchAck
+     * @Description: BATCH的确认,客户端确认一次后回调批内全部消息的确认;
+     *  超时时间取批内最长的,批内都没有超时时间时不超时
+     * @date 2026-10-17
+     */
+    private static class BatchAck extends AckCallback<Object> {
+
+        private final List<AckCallback<?>> acks;
+
+        private BatchAck(List<AckCallback<?>> acks) {
+            super(Object.class, timeout(acks));
+            this.acks = acks;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void onSuccess(Object result) {
+            for (AckCallback<?> ack : acks) {
+                try {
+                    ((AckCallback<Object>) ack).onSuccess(result);
+                } catch (Exception ex) {
+                    log.error("BATCH确认回调失败", ex);
+                }
+            }
+        }
+
+        @Override
+        public void onTimeout() {
+            for (AckCallback<?> ack : acks) {
+                try {
+                    ack.onTimeout();
+                } catch (Exception ex) {
+                    log.error("BATCH确认超时回调失败", ex);
+                }
+            }
+        }
+
+        private static int timeout(List<AckCallback<?>> acks) {
+            int timeout = -1;
+            for (AckCallback<?> ack : acks) {
+                timeout = Math.max(timeout, ack.getTimeout());
+            }
+            return timeout;
+        }
+
+    }
+
+}
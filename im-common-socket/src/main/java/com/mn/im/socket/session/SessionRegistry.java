@@ -0,0 +1,254 @@
+package com.mn.im.socket.session;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: SessionRegistry
+ * @Description: 在线会话注册表
+ *  按 userId、token 分段加锁建立索引,一个用户可以有多个设备同时在线;
+ *  每个key下的会话数组采用写时复制,读取时直接返回快照,不需要遍历全部连接
+ * @date 2026-10-17
+ */
+@Component
+public class SessionRegistry {
+
+    /**
+     * @Fields  : 分段数量,必须是2的幂
+     * @author qiaomengnan
+     */
+    private static final int STRIPES = 64;
+
+    private static final SocketSession[] EMPTY = new SocketSession[0];
+
+    /**
+     * @Fields  : sessionId -> 会话
+     * @author qiaomengnan
+     */
+    private final Map<UUID, SocketSession> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * @Fields  : userId -> 会话
+     * @author qiaomengnan
+     */
+    private final StripedIndex users = new StripedIndex();
+
+    /**
+     * @Fields  : token -> 会话
+     * @author qiaomengnan
+     */
+    private final StripedIndex tokens = new StripedIndex();
+
+    /**
+     * @Title:
+     * @Description:   注册会话
+     * @param session
+     * @return 是否为该用户的第一个在线会话
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 09:20:11
+     */
+    public boolean register(SocketSession session) {
+        if (sessions.putIfAbsent(session.getSessionId(), session) != null) {
+            return false;
+        }
+        if (session.getToken() != null) {
+            tokens.add(session.getToken(), session);
+        }
+        return users.add(session.getUserId(), session) == 1;
+    }
+
+    /**
+     * @Title:
+     * @Description:   移除会话
+     * @param session
+     * @return 是否为该用户的最后一个在线会话
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 09:20:42
+     */
+    public boolean unregister(SocketSession session) {
+        if (!sessions.remove(session.getSessionId(), session)) {
+            return false;
+        }
+        if (session.getToken() != null) {
+            tokens.remove(session.getToken(), session);
+        }
+        return users.remove(session.getUserId(), session) == 0;
+    }
+
+    /**
+     * @Title:
+     * @Description:   根据netty-socketio会话ID获取会话
+     * @param sessionId
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 09:21:03
+     */
+    public SocketSession getBySessionId(UUID sessionId) {
+        return sessions.get(sessionId);
+    }
+
+    /**
+     * @Title:
+     * @Description:   获取用户全部在线设备
+     * @param userId
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 09:21:20
+     */
+    public List<SocketSession> getByUserId(String userId) {
+        return wrap(users.get(userId));
+    }
+
+    /**
+     * @Title:
+     * @Description:   获取token对应的在线设备
+     * @param token
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 09:21:37
+     */
+    public List<SocketSession> getByToken(String token) {
+        return wrap(tokens.get(token));
+    }
+
+    /**
+     * @Title:
+     * @Description:   用户是否在本节点在线
+     * @param userId
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 09:21:52
+     */
+    public boolean isOnline(String userId) {
+        return users.get(userId).length > 0;
+    }
+
+    /**
+     * @Title:
+     * @Description:   本节点全部会话
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 09:22:06
+     */
+    public Collection<SocketSession> sessions() {
+        return Collections.unmodifiableCollection(sessions.values());
+    }
+
+    public int sessionCount() {
+        return sessions.size();
+    }
+
+    public int userCount() {
+        return users.size();
+    }
+
+    private static List<SocketSession> wrap(SocketSession[] array) {
+        return array.length == 0 ? Collections.emptyList() : Collections.unmodifiableList(Arrays.asList(array));
+    }
+
+    /**
+     * @author qiaomengnan
+     * @ClassName: StripedIndex
+     * @Description: 分段加锁的 key -> 会话数组 索引
+     * @date 2026-10-17
+     */
+    private static class StripedIndex {
+
+        private final Stripe[] stripes = new Stripe[STRIPES];
+
+        StripedIndex() {
+            for (int i = 0; i < STRIPES; i++) {
+                stripes[i] = new Stripe();
+            }
+        }
+
+        private Stripe stripe(String key) {
+            int h = key.hashCode();
+            return stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+        }
+
+        int add(String key, SocketSession session) {
+            Stripe stripe = stripe(key);
+            synchronized (stripe) {
+                SocketSession[] old = stripe.index.getOrDefault(key, EMPTY);
+                SocketSession[] res = Arrays.copyOf(old, old.length + 1);
+                res[old.length] = session;
+                stripe.index.put(key, res);
+                return res.length;
+            }
+        }
+
+        int remove(String key, SocketSession session) {
+            Stripe stripe = stripe(key);
+            synchronized (stripe) {
+                SocketSession[] old = stripe.index.get(key);
+                if (old == null) {
+                    return 0;
+                }
+                int index = -1;
+                for (int i = 0; i < old.length; i++) {
+                    if (old[i] == session) {
+                        index = i;
+                        break;
+                    }
+                }
+                if (index < 0) {
+                    return old.length;
+                }
+                if (old.length == 1) {
+                    stripe.index.remove(key);
+                    return 0;
+                }
+                SocketSession[] res = new SocketSession[old.length - 1];
+                System.arraycopy(old, 0, res, 0, index);
+                System.arraycopy(old, index + 1, res, index, old.length - index - 1);
+                stripe.index.put(key, res);
+                return res.length;
+            }
+        }
+
+        SocketSession[] get(String key) {
+            if (key == null) {
+                return EMPTY;
+            }
+            Stripe stripe = stripe(key);
+            synchronized (stripe) {
+                return stripe.index.getOrDefault(key, EMPTY);
+            }
+        }
+
+        int size() {
+            int size = 0;
+            for (Stripe stripe : stripes) {
+                synchronized (stripe) {
+                    size += stripe.index.size();
+                }
+            }
+            return size;
+        }
+
+    }
+
+    private static class Stripe {
+
+        private final Map<String, SocketSession[]> index = new HashMap<>();
+
+    }
+
+}
@@ -0,0 +1,197 @@
+package com.mn.im.socket.session;
+
+import com.alibaba.fastjson.JSON;
+import com.mn.im.socket.inbox.OfflineInbox;
+import com.mn.im.socket.netty.EncodedPayload;
+import com.mn.im.socket.netty.SocketProperties;
+import com.mn.im.socket.route.RouteEnvelope;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: SlowConsumerPolicy
+ * @Description: 慢连接处理策略
+ *  连接超过高水位后不可写,临时事件(输入状态、在线状态等)直接丢弃;
+ *  积压仍超过上限时,按配置转存到离线收件箱(恢复可写后补发)或断开连接
+ * @date 2026-10-17
+ */
+@Slf4j
+@Component
+public class SlowConsumerPolicy {
+
+    /**
+     * @Fields  : 转存到离线收件箱时使用的key前缀,按连接区分
+     * @author qiaomengnan
+     */
+    private static final String SPILL_PREFIX = "session:";
+
+    @Autowired
+    private SocketProperties socketProperties;
+
+    @Autowired
+    private SessionRegistry sessionRegistry;
+
+    @Autowired
+    private OfflineInbox offlineInbox;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * @Fields  : 有转存消息的连接
+     * @author qiaomengnan
+     */
+    private final Set<UUID> spilledSessions = ConcurrentHashMap.newKeySet();
+
+    private Set<String> ephemeralEvents;
+
+    private Counter dropCounter;
+
+    private Counter spillCounter;
+
+    private Counter disconnectCounter;
+
+    @PostConstruct
+    public void init() {
+        ephemeralEvents = new HashSet<>(socketProperties.getBackpressure().getEphemeralEvents());
+        dropCounter = meterRegistry.counter("im.socket.backpressure.drop");
+        spillCounter = meterRegistry.counter("im.socket.backpressure.spill");
+        disconnectCounter = meterRegistry.counter("im.socket.backpressure.disconnect");
+        Gauge.builder("im.socket.outbound.queued", sessionRegistry, registry -> {
+            long queued = 0;
+            for (SocketSession session : registry.sessions()) {
+                queued += session.getOutbound().size();
+            }
+            return queued;
+        }).register(meterRegistry);
+        Gauge.builder("im.socket.outbound.unwritable", sessionRegistry, registry -> {
+            long unwritable = 0;
+            for (SocketSession session : registry.sessions()) {
+                if (!session.isWritable()) {
+                    unwritable++;
+                }
+            }
+            return unwritable;
+        }).register(meterRegistry);
+    }
+
+    /**
+     * @Title:
+     * @Description:   连接可写状态变化
+     * @param session
+     * @param writable
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 17:20:12
+     */
+    public void writabilityChanged(SocketSession session, boolean writable) {
+        session.setWritable(writable);
+        if (writable) {
+            session.getOutbound().resume();
+        } else {
+            log.debug("连接写缓冲超过高水位:{}", session);
+        }
+    }
+
+    public boolean isEphemeral(String event) {
+        return ephemeralEvents.contains(event);
+    }
+
+    public void dropped() {
+        dropCounter.increment();
+    }
+
+    /**
+     * @Title:
+     * @Description:   处理积压超限的消息
+     * @param session
+     * @param events
+     * @return 是否转存到了离线收件箱
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 17:21:40
+     */
+    public boolean overflow(SocketSession session, List<OutboundEvent> events) {
+        if (SocketProperties.POLICY_DISCONNECT.equals(socketProperties.getBackpressure().getPolicy())) {
+            disconnectCounter.increment();
+            log.warn("连接消息积压{}条,断开连接:{}", events.size(), session);
+            session.getClient().disconnect();
+            return false;
+        }
+        if (!session.isOpen()) {
+            // 已断开的连接不再转存,否则没有机会丢弃
+            dropCounter.increment(events.size());
+            return false;
+        }
+        String key = SPILL_PREFIX + session.getSessionId();
+        spilledSessions.add(session.getSessionId());
+        for (OutboundEvent event : events) {
+            Object data = event.getData();
+            if (data instanceof byte[]) {
+                // 二进制聊天消息由可靠投递和增量同步保证
+                dropCounter.increment();
+                continue;
+            }
+            String payload = data instanceof EncodedPayload ? data.toString() : JSON.toJSONString(data);
+            offlineInbox.append(new RouteEnvelope(key, event.getEvent(), payload, true, null));
+        }
+        spillCounter.increment(events.size());
+        return true;
+    }
+
+    /**
+     * @Title:
+     * @Description:   取出转存的消息
+     * @param session
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 17:23:05
+     */
+    public List<OutboundEvent> restore(SocketSession session) {
+        spilledSessions.remove(session.getSessionId());
+        List<RouteEnvelope> envelopes = offlineInbox.drain(SPILL_PREFIX + session.getSessionId());
+        List<OutboundEvent> events = new ArrayList<>(envelopes.size());
+        for (RouteEnvelope envelope : envelopes) {
+            events.add(new OutboundEvent(envelope.getEvent(), EncodedPayload.ofJson(envelope.getPayload())));
+        }
+        return events;
+    }
+
+    /**
+     * @Title:
+     * @Description:   连接断开,丢弃转存的消息
+     *  转存的消息按连接保存,只有该连接恢复可写时才会取出,断开后不会再被取出;
+     *  用户的消息在重连后由增量同步补齐
+     * @param session
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/18 10:20:45
+     */
+    public void discard(SocketSession session) {
+        if (!spilledSessions.remove(session.getSessionId())) {
+            return;
+        }
+        List<RouteEnvelope> envelopes = offlineInbox.drain(SPILL_PREFIX + session.getSessionId());
+        if (!envelopes.isEmpty()) {
+            dropCounter.increment(envelopes.size());
+            log.debug("连接断开,丢弃转存的消息{}条:{}", envelopes.size(), session);
+        }
+    }
+
+}
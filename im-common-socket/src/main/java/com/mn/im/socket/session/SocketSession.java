@@ -0,0 +1,174 @@
+package com.mn.im.socket.session;
+
+import com.corundumstudio.socketio.AckCallback;
+import com.corundumstudio.socketio.SocketIOClient;
+import com.mn.im.socket.netty.Message;
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: SocketSession
+ * @Description: 一个设备的socket连接会话
+ * @date 2026-10-17
+ */
+@Getter
+public class SocketSession {
+
+    /**
+     * @Fields  : netty-socketio 会话ID
+     * @author qiaomengnan
+     */
+    private final UUID sessionId;
+
+    /**
+     * @Fields  : 用户ID
+     * @author qiaomengnan
+     */
+    private final String userId;
+
+    /**
+     * @Fields  : 登录token
+     * @author qiaomengnan
+     */
+    private final String token;
+
+    /**
+     * @Fields  : 设备类型
+     * @author qiaomengnan
+     */
+    private final String device;
+
+    /**
+     * @Fields  : 客户端连接
+     * @author qiaomengnan
+     */
+    private final SocketIOClient client;
+
+    /**
+     * @Fields  : 连接时间
+     * @author qiaomengnan
+     */
+    private final long connectTime;
+
+    /**
+     * @Fields  : 下行队列
+     * @author qiaomengnan
+     */
+    private final OutboundQueue outbound;
+
+    /**
+     * @Fields  : 是否使用二进制编码推送聊天消息
+     * @author qiaomengnan
+     */
+    private final boolean binary;
+
+    /**
+     * @Fields  : 最后一次收到客户端数据(心跳或事件)的时间
+     * @author qiaomengnan
+     */
+    private volatile long lastActive;
+
+    /**
+     * @Fields  : 写缓冲是否低于高水位
+     * @author qiaomengnan
+     */
+    private volatile boolean writable = true;
+
+    /**
+     * @Fields  : 最近发送的消息 clientMsgId -> 服务端确认信息,按访问顺序淘汰,访问时需要同步
+     * @author qiaomengnan
+     */
+    private final Map<String, Message> recentAcks = new LinkedHashMap<>(16, 0.75f, true);
+
+    public SocketSession(SocketIOClient client, String userId, String token, String device, boolean binary, OutboundQueue outbound) {
+        this.sessionId = client.getSessionId();
+        this.client = client;
+        this.userId = userId;
+        this.token = token;
+        this.device = device;
+        this.binary = binary;
+        this.connectTime = System.currentTimeMillis();
+        this.outbound = outbound;
+        this.lastActive = connectTime;
+        outbound.bind(this);
+    }
+
+    /**
+     * @Title:
+     * @Description:   经下行队列合并发送事件
+     * @param event
+     * @param data
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 13:08:44
+     */
+    public void send(String event, Object data) {
+        outbound.offer(event, data);
+    }
+
+    /**
+     * @Title:
+     * @Description:   经下行队列发送需要客户端确认的事件
+     * @param event
+     * @param data
+     * @param ack
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/18 10:16:30
+     */
+    public void send(String event, Object data, AckCallback<?> ack) {
+        outbound.offer(event, data, ack);
+    }
+
+    /**
+     * @Title:
+     * @Description:   写出下行队列中的事件后断开连接
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/18 10:17:02
+     */
+    public void close() {
+        outbound.close();
+    }
+
+    /**
+     * @Title:
+     * @Description:   连接是否可用
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 09:12:40
+     */
+    public boolean isOpen() {
+        return client.isChannelOpen();
+    }
+
+    /**
+     * @Title:
+     * @Description:   记录客户端活跃
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 15:10:05
+     */
+    public void touch() {
+        lastActive = System.currentTimeMillis();
+    }
+
+    void setWritable(boolean writable) {
+        this.writable = writable;
+    }
+
+    @Override
+    public String toString() {
+        return "SocketSession{" + "sessionId=" + sessionId + ", userId='" + userId + '\'' + ", device='" + device + '\'' + '}';
+    }
+
+}
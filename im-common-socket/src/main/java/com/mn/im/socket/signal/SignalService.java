@@ -0,0 +1,183 @@
+package com.mn.im.socket.signal;
+
+import com.alibaba.fastjson.JSON;
+import com.mn.im.core.common.utils.StringUtils;
+import com.mn.im.socket.constant.MessageTypes;
+import com.mn.im.socket.constant.SocketEvents;
+import com.mn.im.socket.group.GroupMemberSource;
+import com.mn.im.socket.message.ConversationIds;
+import com.mn.im.socket.netty.Message;
+import com.mn.im.socket.netty.SocketProperties;
+import com.mn.im.socket.route.MessageRouter;
+import com.mn.im.socket.session.SocketSession;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: SignalService
+ * @Description: 临时信号(正在输入、正在录音等)
+ *  不分配序号、不保存、不需要ack、不进离线收件箱,接收方不在线直接丢弃;
+ *  同一发送者在同一会话内每个周期最多转发一次,周期内后到的信号只保留最新一条,在周期结束时补发
+ * @date 2026-10-17
+ */
+@Slf4j
+@Service
+public class SignalService {
+
+    @Autowired
+    private SocketProperties socketProperties;
+
+    @Autowired
+    private GroupMemberSource groupMemberSource;
+
+    @Autowired
+    private MessageRouter messageRouter;
+
+    /**
+     * @Fields  : 会话ID:发送者 -> 限流窗口
+     * @author qiaomengnan
+     */
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "socket-signal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        int interval = socketProperties.getSignal().getInterval();
+        executor.scheduleWithFixedDelay(this::purge, interval * 10L, interval * 10L, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    /**
+     * @Title:
+     * @Description:   转发临时信号,信号类型放在msg中
+     * @param session
+     * @param data
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 19:50:10
+     */
+    public void send(SocketSession session, Message data) {
+        Message signal = new Message();
+        signal.setType(MessageTypes.SIGNAL);
+        signal.setFromUserId(session.getUserId());
+        signal.setMsg(data.getMsg());
+        if (!StringUtils.isTrimBlank(data.getGroupId())) {
+            signal.setGroupId(data.getGroupId());
+            signal.setConversationId(ConversationIds.group(data.getGroupId()));
+        } else if (!StringUtils.isTrimBlank(data.getToUserId())) {
+            signal.setToUserId(data.getToUserId());
+            signal.setConversationId(ConversationIds.single(session.getUserId(), data.getToUserId()));
+        } else {
+            return;
+        }
+        String key = StringUtils.join(signal.getConversationId(), ":", signal.getFromUserId());
+        Window window = windows.computeIfAbsent(key, k -> new Window());
+        long now = System.currentTimeMillis();
+        int interval = socketProperties.getSignal().getInterval();
+        synchronized (window) {
+            if (now - window.lastSent >= interval) {
+                window.lastSent = now;
+                executor.execute(() -> forward(signal));
+                return;
+            }
+            boolean scheduled = window.latest != null;
+            window.latest = signal;
+            if (!scheduled) {
+                executor.schedule(() -> trailing(window), window.lastSent + interval - now, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * @Title:
+     * @Description:   周期结束时补发周期内最新的信号
+     * @param window
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 19:52:31
+     */
+    private void trailing(Window window) {
+        Message signal;
+        synchronized (window) {
+            signal = window.latest;
+            window.latest = null;
+            window.lastSent = System.currentTimeMillis();
+        }
+        if (signal != null) {
+            forward(signal);
+        }
+    }
+
+    private void forward(Message signal) {
+        try {
+            String payload = JSON.toJSONString(signal);
+            if (signal.getGroupId() == null) {
+                messageRouter.route(signal.getToUserId(), SocketEvents.SIGNAL, payload, true);
+                return;
+            }
+            List<String> members = groupMemberSource.members(signal.getGroupId());
+            // 大群不转发临时信号
+            if (!members.contains(signal.getFromUserId())
+                    || members.size() > socketProperties.getGroup().getWriteDiffusionThreshold()) {
+                return;
+            }
+            members.remove(signal.getFromUserId());
+            messageRouter.routeMany(members, SocketEvents.SIGNAL, payload, true, null);
+        } catch (Exception ex) {
+            log.debug("临时信号转发失败:{}", signal.getConversationId(), ex);
+        }
+    }
+
+    /**
+     * @Title:
+     * @Description:   清理长时间没有信号的限流窗口
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 19:53:40
+     */
+    private void purge() {
+        long expireTime = System.currentTimeMillis() - socketProperties.getSignal().getInterval() * 10L;
+        windows.entrySet().removeIf(entry -> {
+            synchronized (entry.getValue()) {
+                return entry.getValue().latest == null && entry.getValue().lastSent < expireTime;
+            }
+        });
+    }
+
+    private static class Window {
+
+        private long lastSent;
+
+        /**
+         * @Fields  : 周期内待补发的最新信号
+         * @author qiaomengnan
+         */
+        private Message latest;
+
+    }
+
+}
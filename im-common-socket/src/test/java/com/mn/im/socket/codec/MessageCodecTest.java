@@ -0,0 +1,92 @@
+package com.mn.im.socket.codec;
+
+import com.mn.im.core.common.exception.ServiceException;
+import com.mn.im.socket.netty.Message;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: MessageCodecTest
+ * @Description: 消息二进制编解码
+ * @date 2026-10-17
+ */
+public class MessageCodecTest {
+
+    @Test
+    public void fullMessageRoundTrips() {
+        Message message = new Message();
+        message.setType("CHAT");
+        message.setMsgId("9f1c2e");
+        message.setConversationId("s_u1_u2");
+        message.setSeq(0L);
+        message.setFromUserId("u1");
+        message.setToUserId("u2");
+        message.setSendTime(Long.MAX_VALUE - 1);
+        message.setMsg("你好,world 😀");
+        Map<String, Long> syncSeqs = new LinkedHashMap<>();
+        syncSeqs.put("s_u1_u2", 12L);
+        syncSeqs.put("g_g1", 300000L);
+        message.setSyncSeqs(syncSeqs);
+        message.setGroupId("g1");
+        message.setClientMsgId("c-1");
+        assertEquals(message, MessageCodec.decode(MessageCodec.encode(message)));
+    }
+
+    @Test
+    public void nullsAndEmptyValuesAreDistinct() {
+        Message message = new Message();
+        message.setMsg("");
+        message.setSyncSeqs(new LinkedHashMap<>());
+        Message decoded = MessageCodec.decode(MessageCodec.encode(message));
+        assertEquals(message, decoded);
+        assertNull(decoded.getType());
+        assertNull(decoded.getSeq());
+        assertEquals("", decoded.getMsg());
+        assertEquals(0, decoded.getSyncSeqs().size());
+    }
+
+    @Test
+    public void largePayloadGrowsBuffer() {
+        char[] text = new char[100000];
+        Arrays.fill(text, '字');
+        Message message = new Message();
+        message.setMsg(new String(text));
+        assertEquals(message, MessageCodec.decode(MessageCodec.encode(message)));
+    }
+
+    @Test
+    public void decodesDataWithoutTrailingClientMsgId() {
+        Message message = new Message();
+        message.setType("GROUP");
+        message.setGroupId("g1");
+        message.setClientMsgId("c-2");
+        byte[] data = MessageCodec.encode(message);
+        // clientMsgId是末尾新增的字段,旧客户端的数据不带该字段
+        byte[] legacy = Arrays.copyOf(data, data.length - 1 - "c-2".length());
+        Message decoded = MessageCodec.decode(legacy);
+        assertEquals("GROUP", decoded.getType());
+        assertEquals("g1", decoded.getGroupId());
+        assertNull(decoded.getClientMsgId());
+    }
+
+    @Test
+    public void rejectsUnknownVersionAndTruncatedData() {
+        Message message = new Message();
+        message.setMsg("hello");
+        byte[] data = MessageCodec.encode(message);
+        byte[] otherVersion = data.clone();
+        otherVersion[0] = MessageCodec.VERSION + 1;
+        assertThrows(ServiceException.class, () -> MessageCodec.decode(otherVersion));
+        assertThrows(ServiceException.class, () -> MessageCodec.decode(new byte[0]));
+        assertThrows(ServiceException.class, () -> MessageCodec.decode(Arrays.copyOf(data, data.length - 4)));
+    }
+
+}
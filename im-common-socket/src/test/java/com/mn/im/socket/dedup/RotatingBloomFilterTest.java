@@ -0,0 +1,71 @@
+package com.mn.im.socket.dedup;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: RotatingBloomFilterTest
+ * @Description: 按时间窗口轮换的布隆过滤器
+ * @date 2026-10-17
+ */
+public class RotatingBloomFilterTest {
+
+    private static final long WINDOW = 60 * 1000;
+
+    @Test
+    public void insertedKeysAreAlwaysFound() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(10000, 0.01, WINDOW);
+        for (int i = 0; i < 10000; i++) {
+            filter.put("s_u1_u2:" + i);
+        }
+        for (int i = 0; i < 10000; i++) {
+            assertTrue(filter.mightContain("s_u1_u2:" + i));
+        }
+    }
+
+    @Test
+    public void falsePositiveRateStaysNearTarget() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(10000, 0.01, WINDOW);
+        for (int i = 0; i < 10000; i++) {
+            filter.put("in:" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain("out:" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, "误判次数过多:" + falsePositives);
+    }
+
+    @Test
+    public void keysSurviveOneRotationOnly() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(1000, 0.01, WINDOW);
+        filter.put("a");
+        expireWindow(filter, 0);
+        // 上一代仍然保留
+        assertTrue(filter.mightContain("a"));
+        filter.put("b");
+        expireWindow(filter, 0);
+        assertFalse(filter.mightContain("a"));
+        assertTrue(filter.mightContain("b"));
+    }
+
+    @Test
+    public void idleForTwoWindowsDropsBothGenerations() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(1000, 0.01, WINDOW);
+        filter.put("a");
+        expireWindow(filter, WINDOW);
+        assertFalse(filter.mightContain("a"));
+    }
+
+    // 把下次轮换时间调到过去,下一次访问时轮换
+    private static void expireWindow(RotatingBloomFilter filter, long overdue) {
+        ReflectionTestUtils.setField(filter, "rotateTime", System.currentTimeMillis() - overdue - 1);
+    }
+
+}
@@ -0,0 +1,155 @@
+package com.mn.im.socket.inbox;
+
+import com.mn.im.socket.netty.SocketProperties;
+import com.mn.im.socket.route.RouteEnvelope;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: OfflineInboxTest
+ * @Description: 离线收件箱的读写和崩溃恢复
+ * @date 2026-10-17
+ */
+public class OfflineInboxTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    private File dir;
+
+    private OfflineInbox inbox;
+
+    @BeforeEach
+    public void createDir() throws IOException {
+        dir = Files.createTempDirectory("inbox").toFile();
+    }
+
+    @AfterEach
+    public void deleteDir() {
+        if (inbox != null) {
+            inbox.destroy();
+        }
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void drainReturnsOnlyTheUsersRecordsInOrder() throws IOException {
+        inbox = open();
+        inbox.append(envelope("u1", "1"));
+        inbox.append(envelope("u2", "2"));
+        inbox.append(envelope("u1", "3"));
+        assertEquals(2, inbox.userCount());
+        assertEquals(Arrays.asList("1", "3"), payloads(inbox.drain("u1")));
+        assertTrue(inbox.drain("u1").isEmpty());
+        assertEquals(Arrays.asList("2"), payloads(inbox.drain("u2")));
+    }
+
+    @Test
+    public void recordsSpanSegments() throws IOException {
+        inbox = open();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            String payload = "payload-" + i + "-0123456789012345678901234567890123456789";
+            inbox.append(envelope("u1", payload));
+            expected.add(payload);
+        }
+        assertTrue(dir.listFiles().length > 1, "应滚动到多个段");
+        assertEquals(expected, payloads(inbox.drain("u1")));
+    }
+
+    @Test
+    public void recoverySkipsDrainedAndTornRecords() throws IOException {
+        inbox = open();
+        inbox.append(envelope("u1", "1"));
+        inbox.append(envelope("u2", "2"));
+        inbox.append(envelope("u1", "3"));
+        inbox.drain("u2");
+        int end = writePosition(inbox);
+        inbox.destroy();
+        // 崩溃时最后一条只写了内容,长度还没写入
+        try (RandomAccessFile file = new RandomAccessFile(segment(), "rw")) {
+            file.seek(end + 4);
+            file.write("torn record".getBytes(StandardCharsets.UTF_8));
+        }
+        inbox = open();
+        assertEquals(1, inbox.userCount());
+        assertEquals(Arrays.asList("1", "3"), payloads(inbox.drain("u1")));
+        // 从未写完的记录处继续写入
+        assertEquals(end, writePosition(inbox));
+        inbox.append(envelope("u3", "4"));
+        inbox.destroy();
+        inbox = open();
+        assertEquals(Arrays.asList("4"), payloads(inbox.drain("u3")));
+        assertTrue(inbox.drain("u1").isEmpty());
+    }
+
+    @Test
+    public void recoveryStopsAtLengthBeyondSegment() throws IOException {
+        inbox = open();
+        inbox.append(envelope("u1", "1"));
+        int end = writePosition(inbox);
+        inbox.destroy();
+        // 长度已写入但超出段大小,视为损坏
+        try (RandomAccessFile file = new RandomAccessFile(segment(), "rw")) {
+            file.seek(end);
+            file.writeInt(SEGMENT_SIZE);
+        }
+        inbox = open();
+        assertEquals(Arrays.asList("1"), payloads(inbox.drain("u1")));
+        assertEquals(end, writePosition(inbox));
+    }
+
+    private OfflineInbox open() throws IOException {
+        SocketProperties socketProperties = new SocketProperties();
+        socketProperties.getInbox().setDir(dir.getAbsolutePath());
+        socketProperties.getInbox().setSegmentSize(SEGMENT_SIZE);
+        OfflineInbox offlineInbox = new OfflineInbox();
+        ReflectionTestUtils.setField(offlineInbox, "socketProperties", socketProperties);
+        offlineInbox.init();
+        return offlineInbox;
+    }
+
+    private File segment() {
+        File[] files = dir.listFiles((file, name) -> name.endsWith(".seg"));
+        assertEquals(1, files.length);
+        return files[0];
+    }
+
+    private static int writePosition(OfflineInbox inbox) {
+        List<?> segments = (List<?>) ReflectionTestUtils.getField(inbox, "segments");
+        return (Integer) ReflectionTestUtils.getField(segments.get(segments.size() - 1), "writePosition");
+    }
+
+    private static RouteEnvelope envelope(String userId, String payload) {
+        return new RouteEnvelope(userId, "USER_MSG", payload, true, null);
+    }
+
+    private static List<String> payloads(List<RouteEnvelope> envelopes) {
+        List<String> list = new ArrayList<>();
+        for (RouteEnvelope envelope : envelopes) {
+            list.add(envelope.getPayload());
+        }
+        return list;
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.mn.im.socket.message;
+
+import com.mn.im.socket.netty.Message;
+import com.mn.im.socket.netty.SocketProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: MemoryMessageStoreTest
+ * @Description: 内存会话消息存储
+ * @date 2026-10-17
+ */
+public class MemoryMessageStoreTest {
+
+    @Test
+    public void duplicateClientMsgIdIsNotAppended() {
+        MessageStore store = store();
+        String conversationId = UUID.randomUUID().toString();
+        assertTrue(store.append(message(conversationId, 1, "c1")));
+        // 其它节点重复接受的同一条消息,序号不同
+        assertFalse(store.append(message(conversationId, 2, "c1")));
+        assertTrue(store.append(message(conversationId, 3, null)));
+        assertEquals(2, store.range(conversationId, 0, 10).size());
+        assertEquals(1, store.findByClientMsgId(conversationId, "c1").getSeq());
+    }
+
+    private static MessageStore store() {
+        MemoryMessageStore store = new MemoryMessageStore();
+        ReflectionTestUtils.setField(store, "socketProperties", new SocketProperties());
+        return store;
+    }
+
+    private static Message message(String conversationId, long seq, String clientMsgId) {
+        Message message = new Message();
+        message.setConversationId(conversationId);
+        message.setSeq(seq);
+        message.setClientMsgId(clientMsgId);
+        message.setSendTime(System.currentTimeMillis());
+        return message;
+    }
+
+}
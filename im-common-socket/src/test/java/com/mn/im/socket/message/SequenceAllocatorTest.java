@@ -0,0 +1,221 @@
+package com.mn.im.socket.message;
+
+import com.mn.im.socket.netty.SocketProperties;
+import com.mn.im.socket.route.ConversationOwner;
+import com.mn.im.socket.route.NodePresence;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: SequenceAllocatorTest
+ * @Description: 会话序号分配
+ * @date 2026-10-17
+ */
+public class SequenceAllocatorTest {
+
+    private final SequenceStore sequenceStore = new MemorySequenceStore();
+
+    private final Nodes nodes = new Nodes();
+
+    @Test
+    public void interleavedNodesAllocateInCallOrder() {
+        SequenceAllocator node1 = allocator(1, 100);
+        SequenceAllocator node2 = allocator(1, 100);
+        String conversationId = UUID.randomUUID().toString();
+        long last = 0;
+        for (int i = 0; i < 50; i++) {
+            long seq = (i % 3 == 0 ? node2 : node1).next(conversationId);
+            assertTrue(seq > last, "序号未按分配顺序递增:" + last + " -> " + seq);
+            last = seq;
+        }
+        assertEquals(50, last);
+    }
+
+    @Test
+    public void blocksAreReusedOnSingleNode() {
+        CountingStore store = new CountingStore();
+        SequenceAllocator allocator = allocator(store, 10, 100);
+        String conversationId = UUID.randomUUID().toString();
+        for (int i = 1; i <= 25; i++) {
+            assertEquals(i, allocator.next(conversationId));
+        }
+        assertEquals(3, store.calls);
+    }
+
+    @Test
+    public void nextAllLeasesExhaustedBlocksInOneCall() {
+        CountingStore store = new CountingStore();
+        SequenceAllocator allocator = allocator(store, 2, 100);
+        List<String> inboxes = Arrays.asList(UUID.randomUUID().toString(), UUID.randomUUID().toString(), UUID.randomUUID().toString());
+        assertEquals(Arrays.asList(1L, 1L, 1L), allocator.nextAll(inboxes));
+        assertEquals(1, store.calls);
+        assertEquals(Arrays.asList(2L, 2L, 2L), allocator.nextAll(inboxes));
+        assertEquals(1, store.calls);
+        assertEquals(Arrays.asList(3L, 3L, 3L), allocator.nextAll(inboxes));
+        assertEquals(2, store.calls);
+    }
+
+    @Test
+    public void evictedRangeIsNeverReused() {
+        SequenceAllocator allocator = allocator(10, 1);
+        String a = UUID.randomUUID().toString();
+        String b = UUID.randomUUID().toString();
+        assertEquals(1, allocator.next(a));
+        assertEquals(2, allocator.next(a));
+        // a 的号段被 b 淘汰,再次分配时重新申请号段,跳过未用完的 3..10
+        assertEquals(1, allocator.next(b));
+        assertEquals(11, allocator.next(a));
+        assertEquals(12, allocator.next(a));
+    }
+
+    @Test
+    public void ownerChangeRetiresLeasedBlocks() {
+        SequenceAllocator allocator = allocator(10, 100);
+        String conversationId = UUID.randomUUID().toString();
+        nodes.alive("node1");
+        assertEquals(1, allocator.next(conversationId));
+        assertEquals(2, allocator.next(conversationId));
+        // 存活节点变化期间其它节点可能已接手并分配了 11..20
+        nodes.alive("node1", "node2");
+        assertEquals(11, allocator.next(conversationId));
+        assertEquals(12, allocator.next(conversationId));
+    }
+
+    @Test
+    public void concurrentEvictionKeepsPerThreadOrder() throws Exception {
+        SequenceAllocator allocator = allocator(8, 2);
+        List<String> conversations = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            conversations.add(UUID.randomUUID().toString());
+        }
+        int threads = 2;
+        ExecutorService executor = Executors.newFixedThreadPool(conversations.size() * threads);
+        List<List<List<Long>>> issued = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(conversations.size() * threads);
+        for (String conversationId : conversations) {
+            List<List<Long>> perThread = new ArrayList<>();
+            issued.add(perThread);
+            for (int t = 0; t < threads; t++) {
+                List<Long> values = new ArrayList<>();
+                perThread.add(values);
+                executor.execute(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        values.add(allocator.next(conversationId));
+                    }
+                    done.countDown();
+                });
+            }
+        }
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        executor.shutdown();
+        for (List<List<Long>> perThread : issued) {
+            Set<Long> unique = new HashSet<>();
+            for (List<Long> values : perThread) {
+                assertEquals(2000, values.size());
+                for (int i = 1; i < values.size(); i++) {
+                    assertTrue(values.get(i) > values.get(i - 1), "同一线程分配的序号未递增:" + values.get(i - 1) + " -> " + values.get(i));
+                }
+                unique.addAll(values);
+            }
+            assertEquals(2000 * threads, unique.size());
+        }
+    }
+
+    private SequenceAllocator allocator(int blockSize, int cacheSize) {
+        return allocator(sequenceStore, blockSize, cacheSize);
+    }
+
+    private SequenceAllocator allocator(SequenceStore store, int blockSize, int cacheSize) {
+        SocketProperties properties = new SocketProperties();
+        properties.getConversation().setSeqBlockSize(blockSize);
+        properties.getConversation().setSeqCacheSize(cacheSize);
+        ConversationOwner owner = new ConversationOwner();
+        ReflectionTestUtils.setField(owner, "socketProperties", properties);
+        ReflectionTestUtils.setField(owner, "nodePresence", nodes);
+        SequenceAllocator allocator = new SequenceAllocator();
+        ReflectionTestUtils.setField(allocator, "socketProperties", properties);
+        ReflectionTestUtils.setField(allocator, "sequenceStore", store);
+        ReflectionTestUtils.setField(allocator, "conversationOwner", owner);
+        allocator.init();
+        return allocator;
+    }
+
+    private static class Nodes implements NodePresence {
+
+        private volatile Set<String> alive = Collections.emptySet();
+
+        private void alive(String... nodeIds) {
+            alive = new HashSet<>(Arrays.asList(nodeIds));
+        }
+
+        @Override
+        public void online(String userId) {
+
+        }
+
+        @Override
+        public void offline(String userId) {
+
+        }
+
+        @Override
+        public void offline(Collection<String> userIds) {
+
+        }
+
+        @Override
+        public Map<String, Set<String>> locate(Collection<String> userIds) {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public Set<String> aliveNodes() {
+            return alive;
+        }
+
+        @Override
+        public void heartbeat() {
+
+        }
+
+    }
+
+    private static class CountingStore implements SequenceStore {
+
+        private final SequenceStore delegate = new MemorySequenceStore();
+
+        private int calls;
+
+        @Override
+        public long incrementBy(String conversationId, int delta) {
+            calls++;
+            return delegate.incrementBy(conversationId, delta);
+        }
+
+        @Override
+        public List<Long> incrementAll(List<String> conversationIds, int delta) {
+            calls++;
+            return delegate.incrementAll(conversationIds, delta);
+        }
+
+    }
+
+}
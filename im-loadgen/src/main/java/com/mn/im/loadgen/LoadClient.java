@@ -0,0 +1,285 @@
+package com.mn.im.loadgen;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import com.mn.im.socket.constant.MessageTypes;
+import com.mn.im.socket.constant.SocketEvents;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketClientProtocolHandler;
+import io.netty.util.concurrent.ScheduledFuture;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: LoadClient
+ * @Description: 模拟的socket.io客户端
+ *  直接在netty websocket上实现 engine.io v3 / socket.io v2 的最小子集(连接、心跳、事件、ack),
+ *  所有客户端共用一组IO线程,单个JVM可以模拟数万连接;
+ *  单个客户端的状态只在自己channel的IO线程上访问
+ * @date 2026-10-17
+ */
+@Slf4j
+public class LoadClient extends SimpleChannelInboundHandler<TextWebSocketFrame> {
+
+    private final String userId;
+
+    private final String token;
+
+    /**
+     * @Fields  : 单聊对方
+     * @author qiaomengnan
+     */
+    private final String peerId;
+
+    /**
+     * @Fields  : 所在群
+     * @author qiaomengnan
+     */
+    private final String groupId;
+
+    private final String padding;
+
+    private final LoadMetrics metrics;
+
+    /**
+     * @Fields  : ack编号 -> 发送时间
+     * @author qiaomengnan
+     */
+    private final Map<Long, Long> pendingAcks = new HashMap<>();
+
+    private Channel channel;
+
+    private long connectStart;
+
+    private long nextAckId;
+
+    private long nextClientMsgId;
+
+    private boolean connected;
+
+    private ScheduledFuture<?> pingFuture;
+
+    private ScheduledFuture<?> sendFuture;
+
+    public LoadClient(String userId, String token, String peerId, String groupId, int payloadSize, LoadMetrics metrics) {
+        this.userId = userId;
+        this.token = token;
+        this.peerId = peerId;
+        this.groupId = groupId;
+        StringBuilder builder = new StringBuilder(payloadSize);
+        for (int i = 0; i < payloadSize; i++) {
+            builder.append('x');
+        }
+        this.padding = builder.toString();
+        this.metrics = metrics;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    void connecting(long connectStart) {
+        this.connectStart = connectStart;
+    }
+
+    /**
+     * @Title:
+     * @Description:   按固定频率发送消息,初始延迟随机以打散发送时间
+     * @param periodNanos
+     * @param initialDelayNanos
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 21:30:12
+     */
+    void startSending(long periodNanos, long initialDelayNanos) {
+        if (channel == null) {
+            return;
+        }
+        channel.eventLoop().execute(() -> {
+            if (connected && sendFuture == null) {
+                sendFuture = channel.eventLoop().scheduleAtFixedRate(this::send, initialDelayNanos, periodNanos, TimeUnit.NANOSECONDS);
+            }
+        });
+    }
+
+    void stopSending() {
+        if (channel != null) {
+            channel.eventLoop().execute(() -> {
+                if (sendFuture != null) {
+                    sendFuture.cancel(false);
+                }
+            });
+        }
+    }
+
+    void close() {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    @Override
+    public void channelActive(ChannelHandlerContext ctx) throws Exception {
+        channel = ctx.channel();
+        super.channelActive(ctx);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        if (connected) {
+            metrics.disconnected.increment();
+        } else {
+            metrics.connectFailed.increment();
+        }
+        connected = false;
+        if (pingFuture != null) {
+            pingFuture.cancel(false);
+        }
+        if (sendFuture != null) {
+            sendFuture.cancel(false);
+        }
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+        if (evt == WebSocketClientProtocolHandler.ClientHandshakeStateEvent.HANDSHAKE_TIMEOUT) {
+            ctx.close();
+        }
+        super.userEventTriggered(ctx, evt);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        log.debug("压测客户端异常:{} {}", userId, cause.getMessage());
+        ctx.close();
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, TextWebSocketFrame frame) {
+        String text = frame.text();
+        if (text.isEmpty()) {
+            return;
+        }
+        switch (text.charAt(0)) {
+            case '0':
+                // engine.io open,按服务端下发的间隔发送ping
+                long pingInterval = JSON.parseObject(text.substring(1)).getLongValue("pingInterval");
+                pingFuture = ctx.executor().scheduleAtFixedRate(() -> ctx.writeAndFlush(new TextWebSocketFrame("2")),
+                        pingInterval, pingInterval, TimeUnit.MILLISECONDS);
+                break;
+            case '4':
+                onPacket(ctx, text);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * @Title:
+     * @Description:   处理socket.io数据包
+     * @param ctx
+     * @param text
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 21:32:40
+     */
+    private void onPacket(ChannelHandlerContext ctx, String text) {
+        if (text.length() < 2) {
+            return;
+        }
+        char type = text.charAt(1);
+        if (type == '0') {
+            if (!connected) {
+                connected = true;
+                metrics.connect(System.nanoTime() - connectStart);
+            }
+            return;
+        }
+        if (type != '2' && type != '3') {
+            return;
+        }
+        int index = 2;
+        while (index < text.length() && Character.isDigit(text.charAt(index))) {
+            index++;
+        }
+        Long ackId = index > 2 ? Long.valueOf(text.substring(2, index)) : null;
+        JSONArray array = JSON.parseArray(text.substring(index));
+        if (type == '3') {
+            Long sendTime = pendingAcks.remove(ackId);
+            if (sendTime != null) {
+                metrics.ack(System.nanoTime() - sendTime);
+            }
+            return;
+        }
+        String event = array.getString(0);
+        if (SocketEvents.BATCH.equals(event)) {
+            JSONArray batch = array.getJSONArray(1);
+            for (int i = 0; i < batch.size(); i++) {
+                JSONObject item = batch.getJSONObject(i);
+                onEvent(item.getString("event"), item.getJSONObject("data"));
+            }
+        } else {
+            onEvent(event, array.size() > 1 ? array.getJSONObject(1) : null);
+        }
+        if (ackId != null) {
+            ctx.writeAndFlush(new TextWebSocketFrame("43" + ackId + "[]"));
+        }
+    }
+
+    private void onEvent(String event, JSONObject data) {
+        if (!SocketEvents.USER_MSG.equals(event) || data == null || userId.equals(data.getString("fromUserId"))) {
+            return;
+        }
+        String msg = data.getString("msg");
+        int end = msg == null ? -1 : msg.indexOf('|');
+        if (end > 0) {
+            metrics.deliver(System.nanoTime() - Long.parseLong(msg.substring(0, end)));
+        }
+    }
+
+    /**
+     * @Title:
+     * @Description:   发送一条消息,msg以发送时间开头用于计算投递延迟
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 21:34:05
+     */
+    private void send() {
+        if (!connected || !channel.isWritable()) {
+            return;
+        }
+        long now = System.nanoTime();
+        JSONObject message = new JSONObject();
+        if (groupId != null) {
+            message.put("type", MessageTypes.GROUP);
+            message.put("groupId", groupId);
+        } else {
+            message.put("type", MessageTypes.CHAT);
+            message.put("toUserId", peerId);
+        }
+        message.put("clientMsgId", userId + "-" + (++nextClientMsgId));
+        message.put("msg", now + "|" + padding);
+        long ackId = nextAckId++;
+        pendingAcks.put(ackId, now);
+        channel.writeAndFlush(new TextWebSocketFrame("42" + ackId + "[\"" + SocketEvents.USER_MSG + "\"," + message.toJSONString() + "]"));
+        metrics.sent.increment();
+    }
+
+}
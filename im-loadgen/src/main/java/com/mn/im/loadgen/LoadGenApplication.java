@@ -0,0 +1,20 @@
+package com.mn.im.loadgen;
+
+import com.mn.im.socket.SocketApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: LoadGenApplication
+ * @Description: socket压测,在同一个JVM内启动使用内存存储的socket节点并模拟大量客户端
+ * @date 2026-10-17
+ */
+@SpringBootApplication(scanBasePackageClasses = {SocketApplication.class, LoadGenApplication.class})
+public class LoadGenApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(LoadGenApplication.class, args);
+    }
+
+}
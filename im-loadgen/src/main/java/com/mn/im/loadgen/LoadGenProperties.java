@@ -0,0 +1,105 @@
+package com.mn.im.loadgen;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: LoadGenProperties
+ * @Description: 压测配置
+ * @date 2026-10-17
+ */
+@ConfigurationProperties(prefix = "loadgen")
+@Component
+@Data
+public class LoadGenProperties {
+
+    /**
+     * @Fields  : 单聊,相邻两个客户端互发
+     * @author qiaomengnan
+     */
+    public static final String MODE_SINGLE = "single";
+
+    /**
+     * @Fields  : 群聊,每 groupSize 个客户端一个群
+     * @author qiaomengnan
+     */
+    public static final String MODE_GROUP = "group";
+
+    /**
+     * @Fields  : socket节点地址
+     * @author qiaomengnan
+     */
+    private String host = "127.0.0.1";
+
+    /**
+     * @Fields  : 本地绑定地址,轮流使用,单个地址连接数受本地端口范围限制(约2.8万)时配置多个127.0.0.x
+     * @author qiaomengnan
+     */
+    private List<String> localAddresses = new ArrayList<>();
+
+    /**
+     * @Fields  : 客户端数
+     * @author qiaomengnan
+     */
+    private int clients = 10000;
+
+    /**
+     * @Fields  : 每秒建立的连接数
+     * @author qiaomengnan
+     */
+    private int connectRate = 1000;
+
+    /**
+     * @Fields  : 会话模式 single、group
+     * @author qiaomengnan
+     */
+    private String mode = MODE_SINGLE;
+
+    /**
+     * @Fields  : 群成员数
+     * @author qiaomengnan
+     */
+    private int groupSize = 50;
+
+    /**
+     * @Fields  : 每个客户端每秒发送的消息数,可以小于1
+     * @author qiaomengnan
+     */
+    private double messageRate = 0.2;
+
+    /**
+     * @Fields  : 消息内容长度(字节)
+     * @author qiaomengnan
+     */
+    private int payloadSize = 64;
+
+    /**
+     * @Fields  : 全部连接完成后持续发送的时间(秒)
+     * @author qiaomengnan
+     */
+    private int duration = 60;
+
+    /**
+     * @Fields  : 等待连接完成的最长时间(秒)
+     * @author qiaomengnan
+     */
+    private int connectTimeout = 120;
+
+    /**
+     * @Fields  : 统计输出间隔(秒)
+     * @author qiaomengnan
+     */
+    private int reportInterval = 5;
+
+    /**
+     * @Fields  : 客户端IO线程数
+     * @author qiaomengnan
+     */
+    private int ioThreads = Runtime.getRuntime().availableProcessors();
+
+}
@@ -0,0 +1,159 @@
+package com.mn.im.loadgen;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: LoadMetrics
+ * @Description: 压测统计
+ *  延迟用 HdrHistogram 的 Recorder 记录(微秒),IO线程写入无锁,
+ *  每个统计周期取出区间直方图输出,同时累加到全程直方图用于最终汇总
+ * @date 2026-10-17
+ */
+@Slf4j
+@Component
+public class LoadMetrics {
+
+    /**
+     * @Fields  : 最大可记录的延迟(微秒)
+     * @author qiaomengnan
+     */
+    private static final long MAX_LATENCY = TimeUnit.MINUTES.toMicros(5);
+
+    /**
+     * @Fields  : 建立连接到socket.io连接成功
+     * @author qiaomengnan
+     */
+    private final Recorder connectLatency = new Recorder(MAX_LATENCY, 3);
+
+    /**
+     * @Fields  : 发送到收到服务端ack
+     * @author qiaomengnan
+     */
+    private final Recorder ackLatency = new Recorder(MAX_LATENCY, 3);
+
+    /**
+     * @Fields  : 发送到接收方收到
+     * @author qiaomengnan
+     */
+    private final Recorder deliveryLatency = new Recorder(MAX_LATENCY, 3);
+
+    private final Histogram connectTotal = new Histogram(MAX_LATENCY, 3);
+
+    private final Histogram ackTotal = new Histogram(MAX_LATENCY, 3);
+
+    private final Histogram deliveryTotal = new Histogram(MAX_LATENCY, 3);
+
+    private Histogram connectInterval;
+
+    private Histogram ackInterval;
+
+    private Histogram deliveryInterval;
+
+    final LongAdder connected = new LongAdder();
+
+    final LongAdder connectFailed = new LongAdder();
+
+    final LongAdder disconnected = new LongAdder();
+
+    final LongAdder sent = new LongAdder();
+
+    final LongAdder acked = new LongAdder();
+
+    final LongAdder received = new LongAdder();
+
+    private long lastSent;
+
+    private long lastAcked;
+
+    private long lastReceived;
+
+    private long lastReportTime = System.nanoTime();
+
+    private final long startTime = System.nanoTime();
+
+    void connect(long nanos) {
+        connected.increment();
+        connectLatency.recordValue(Math.min(MAX_LATENCY, TimeUnit.NANOSECONDS.toMicros(nanos)));
+    }
+
+    void ack(long nanos) {
+        acked.increment();
+        ackLatency.recordValue(Math.min(MAX_LATENCY, TimeUnit.NANOSECONDS.toMicros(nanos)));
+    }
+
+    void deliver(long nanos) {
+        received.increment();
+        deliveryLatency.recordValue(Math.min(MAX_LATENCY, Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos))));
+    }
+
+    /**
+     * @Title:
+     * @Description:   输出本周期的吞吐和延迟
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 21:20:10
+     */
+    synchronized void report() {
+        long now = System.nanoTime();
+        double seconds = Math.max(1, now - lastReportTime) / 1e9;
+        lastReportTime = now;
+        connectInterval = connectLatency.getIntervalHistogram(connectInterval);
+        ackInterval = ackLatency.getIntervalHistogram(ackInterval);
+        deliveryInterval = deliveryLatency.getIntervalHistogram(deliveryInterval);
+        connectTotal.add(connectInterval);
+        ackTotal.add(ackInterval);
+        deliveryTotal.add(deliveryInterval);
+        long sentNow = sent.sum();
+        long ackedNow = acked.sum();
+        long receivedNow = received.sum();
+        log.info("连接 {} 失败 {} 断开 {} | 发送 {}/s ack {}/s 接收 {}/s | 连接 {} | ack {} | 投递 {}",
+                connected.sum(), connectFailed.sum(), disconnected.sum(),
+                rate(sentNow - lastSent, seconds), rate(ackedNow - lastAcked, seconds), rate(receivedNow - lastReceived, seconds),
+                percentiles(connectInterval), percentiles(ackInterval), percentiles(deliveryInterval));
+        lastSent = sentNow;
+        lastAcked = ackedNow;
+        lastReceived = receivedNow;
+    }
+
+    /**
+     * @Title:
+     * @Description:   输出全程汇总
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 21:21:30
+     */
+    synchronized void summary() {
+        report();
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        log.info("===== 压测汇总 用时 {}s =====", String.format("%.1f", seconds));
+        log.info("连接成功 {} 失败 {} 断开 {}", connected.sum(), connectFailed.sum(), disconnected.sum());
+        log.info("发送 {} ack {} 接收 {},平均接收 {}/s", sent.sum(), acked.sum(), received.sum(), rate(received.sum(), seconds));
+        log.info("连接延迟 {}", percentiles(connectTotal));
+        log.info("ack延迟 {}", percentiles(ackTotal));
+        log.info("投递延迟 {}", percentiles(deliveryTotal));
+    }
+
+    private static String rate(long count, double seconds) {
+        return String.format("%.0f", count / seconds);
+    }
+
+    private static String percentiles(Histogram histogram) {
+        if (histogram.getTotalCount() == 0) {
+            return "-";
+        }
+        return String.format("p50=%.2fms p90=%.2fms p99=%.2fms p999=%.2fms max=%.2fms",
+                histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(90) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0, histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0);
+    }
+
+}
@@ -0,0 +1,210 @@
+package com.mn.im.loadgen;
+
+import com.mn.im.core.common.utils.UUIDUtils;
+import com.mn.im.socket.auth.MemoryMemberDirectory;
+import com.mn.im.socket.constant.SocketParams;
+import com.mn.im.socket.group.GroupMemberSource;
+import com.mn.im.socket.netty.SocketProperties;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.websocketx.WebSocketClientHandshakerFactory;
+import io.netty.handler.codec.http.websocketx.WebSocketClientProtocolHandler;
+import io.netty.handler.codec.http.websocketx.WebSocketVersion;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author qiaomengnan
+ * @ClassName: LoadRunner
+ * @Description: 压测流程
+ *  socket节点启动后登记token、好友和群成员,按速率建立连接,
+ *  全部连接完成后按配置频率发送消息,持续时间结束后输出汇总并退出
+ * @date 2026-10-17
+ */
+@Slf4j
+@Component
+public class LoadRunner {
+
+    @Autowired
+    private LoadGenProperties loadGenProperties;
+
+    @Autowired
+    private SocketProperties socketProperties;
+
+    @Autowired
+    private GroupMemberSource groupMemberSource;
+
+    @Autowired
+    private LoadMetrics metrics;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void run() throws InterruptedException {
+        List<LoadClient> clients = prepare();
+        EventLoopGroup group = new NioEventLoopGroup(loadGenProperties.getIoThreads(), new DefaultThreadFactory("loadgen-io", true));
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(new DefaultThreadFactory("loadgen-report", true));
+        int reportInterval = loadGenProperties.getReportInterval();
+        reporter.scheduleAtFixedRate(metrics::report, reportInterval, reportInterval, TimeUnit.SECONDS);
+        try {
+            connect(group, clients);
+            send(clients);
+        } finally {
+            reporter.shutdown();
+            metrics.summary();
+            for (LoadClient client : clients) {
+                client.close();
+            }
+            group.shutdownGracefully().awaitUninterruptibly(5, TimeUnit.SECONDS);
+            System.exit(SpringApplication.exit(applicationContext));
+        }
+    }
+
+    /**
+     * @Title:
+     * @Description:   登记客户端的token、好友和群成员
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 21:40:12
+     */
+    private List<LoadClient> prepare() {
+        int count = loadGenProperties.getClients();
+        boolean groupMode = LoadGenProperties.MODE_GROUP.equals(loadGenProperties.getMode());
+        int groupSize = Math.max(2, loadGenProperties.getGroupSize());
+        List<LoadClient> clients = new ArrayList<>(count);
+        List<String> members = new ArrayList<>(groupSize);
+        for (int i = 0; i < count; i++) {
+            String userId = "load" + i;
+            String peerId = "load" + (i ^ 1);
+            String groupId = groupMode ? "load-g" + (i / groupSize) : null;
+            String token = UUIDUtils.getUUID();
+            MemoryMemberDirectory.login(token, userId);
+            if (!groupMode && (i & 1) == 1) {
+                MemoryMemberDirectory.addFriend(peerId, userId);
+            }
+            if (groupMode) {
+                members.add(userId);
+                if (members.size() == groupSize || i == count - 1) {
+                    groupMemberSource.addMembers(groupId, members);
+                    members.clear();
+                }
+            }
+            clients.add(new LoadClient(userId, token, groupMode ? null : peerId, groupId, loadGenProperties.getPayloadSize(), metrics));
+        }
+        log.info("压测准备完成,客户端 {},模式 {}", count, loadGenProperties.getMode());
+        return clients;
+    }
+
+    /**
+     * @Title:
+     * @Description:   按速率建立连接并等待完成
+     * @param group
+     * @param clients
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 21:41:30
+     */
+    private void connect(EventLoopGroup group, List<LoadClient> clients) throws InterruptedException {
+        String host = loadGenProperties.getHost();
+        int port = socketProperties.getServer().getPort();
+        List<String> localAddresses = loadGenProperties.getLocalAddresses();
+        int maxFrame = socketProperties.getServer().getMaxFramePayloadLength();
+        Bootstrap bootstrap = new Bootstrap()
+                .group(group)
+                .channel(NioSocketChannel.class)
+                .option(ChannelOption.TCP_NODELAY, true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 10000);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, loadGenProperties.getConnectRate());
+        long start = System.nanoTime();
+        for (int i = 0; i < clients.size(); i++) {
+            LoadClient client = clients.get(i);
+            long wait = start + i * intervalNanos - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            URI uri = URI.create("ws://" + host + ":" + port + "/socket.io/?EIO=3&transport=websocket&"
+                    + SocketParams.TOKEN + "=" + client.getToken());
+            Bootstrap clientBootstrap = bootstrap.clone().handler(new ChannelInitializer<SocketChannel>() {
+                @Override
+                protected void initChannel(SocketChannel channel) {
+                    channel.pipeline().addLast(new HttpClientCodec(),
+                            new HttpObjectAggregator(8192),
+                            new WebSocketClientProtocolHandler(WebSocketClientHandshakerFactory.newHandshaker(uri,
+                                    WebSocketVersion.V13, null, false, new DefaultHttpHeaders(), maxFrame)),
+                            client);
+                }
+            });
+            client.connecting(System.nanoTime());
+            InetSocketAddress remote = new InetSocketAddress(host, port);
+            ChannelFuture future = localAddresses.isEmpty() ? clientBootstrap.connect(remote)
+                    : clientBootstrap.connect(remote, new InetSocketAddress(localAddresses.get(i % localAddresses.size()), 0));
+            future.addListener(result -> {
+                if (!result.isSuccess()) {
+                    log.debug("压测客户端连接失败:{} {}", client.getUserId(), result.cause().getMessage());
+                    metrics.connectFailed.increment();
+                }
+            });
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(loadGenProperties.getConnectTimeout());
+        while (metrics.connected.sum() + metrics.connectFailed.sum() < clients.size() && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+        log.info("连接完成,成功 {} 失败 {},用时 {}ms", metrics.connected.sum(), metrics.connectFailed.sum(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * @Title:
+     * @Description:   持续发送消息
+     * @param clients
+     * @return
+     * @throws
+     * @author qiaomengnan
+     * @date 2026/10/17 21:42:40
+     */
+    private void send(List<LoadClient> clients) throws InterruptedException {
+        double messageRate = loadGenProperties.getMessageRate();
+        if (messageRate <= 0) {
+            TimeUnit.SECONDS.sleep(loadGenProperties.getDuration());
+            return;
+        }
+        long periodNanos = (long) (TimeUnit.SECONDS.toNanos(1) / messageRate);
+        for (LoadClient client : clients) {
+            client.startSending(periodNanos, ThreadLocalRandom.current().nextLong(periodNanos));
+        }
+        TimeUnit.SECONDS.sleep(loadGenProperties.getDuration());
+        for (LoadClient client : clients) {
+            client.stopSending();
+        }
+        // 等待在途消息投递完成
+        TimeUnit.SECONDS.sleep(2);
+    }
+
+}